@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the saved AEBN pages of the test resources.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+final class Fixtures {
+
+	private Fixtures() {
+	}
+
+
+	static String load(String name) throws IOException {
+		InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name);
+		if (in == null) {
+			throw new IOException("fixture " + name + " not found");
+		}
+		try {
+			return new String(AebnHttpClient.readFully(in), StandardCharsets.UTF_8);
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tinymediamanager.scraper.MediaMetadata;
+import org.tinymediamanager.scraper.MediaScrapeOptions;
+import org.tinymediamanager.scraper.MediaType;
+
+/**
+ * Benchmarks the meta data extraction from a saved movie detail page.
+ * <p>
+ * Star details are completed up front, so only parsing and field extraction are measured.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataBenchmark {
+	private String page;
+	private Document document;
+	private MovieDetails details;
+	private List<CompletableFuture<StarDetails>> stars;
+	private MediaScrapeOptions options;
+
+
+	@Setup
+	public void setUp() throws Exception {
+		page = Fixtures.load("movieDetail_183071.html");
+		document = Jsoup.parse(page);
+		details = MovieDetails.parse(document);
+		stars = new ArrayList<CompletableFuture<StarDetails>>();
+		for (int i = 0; i < details.actors.size(); i++) {
+			stars.add(CompletableFuture.completedFuture(StarDetails.EMPTY));
+		}
+		options = new MediaScrapeOptions(MediaType.MOVIE);
+	}
+
+
+	/**
+	 * Jsoup parsing of the whole page.
+	 */
+	@Benchmark
+	public Document parsePage() {
+		return Jsoup.parse(page);
+	}
+
+
+	/**
+	 * Field extraction from an already parsed page.
+	 */
+	@Benchmark
+	public MovieDetails extractDetails() {
+		return MovieDetails.parse(document);
+	}
+
+
+	/**
+	 * Parsing, field extraction and filling of the meta data, like getMetadata() does.
+	 */
+	@Benchmark
+	public MediaMetadata getMetadata() {
+		MovieDetails movieDetails = MovieDetails.parse(Jsoup.parse(page));
+		MediaMetadata md = AebnMetadataProvider.createMetadata(183071);
+		AebnMetadataProvider.fillMetadata(md, 183071, movieDetails, stars, options);
+		return md;
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tinymediamanager.scraper.MediaSearchResult;
+
+/**
+ * Benchmarks the extraction of search results from a saved search (fts) page.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+	private String page;
+
+
+	@Setup
+	public void setUp() throws Exception {
+		page = Fixtures.load("fts_erotic_massage_stories.html");
+	}
+
+
+	@Benchmark
+	public List<MediaSearchResult> parseSearchResults() {
+		return AebnMetadataProvider.parseSearchResults(page, "Erotic Massage Stories 5");
+	}
+
+}
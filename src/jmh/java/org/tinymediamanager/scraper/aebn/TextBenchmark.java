@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tinymediamanager.scraper.MediaArtwork;
+import org.tinymediamanager.scraper.MediaArtwork.MediaArtworkType;
+import org.tinymediamanager.scraper.MediaScrapeOptions;
+import org.tinymediamanager.scraper.MediaType;
+
+/**
+ * Benchmarks the string helpers and the artwork url construction.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextBenchmark {
+	private AebnMetadataProvider provider;
+	private MediaScrapeOptions posterOptions;
+	private MediaScrapeOptions discOptions;
+
+
+	@Setup
+	public void setUp() {
+		provider = new AebnMetadataProvider();
+		posterOptions = new MediaScrapeOptions(MediaType.MOVIE);
+		posterOptions.setId("AebnID", "183071");
+		posterOptions.setArtworkType(MediaArtworkType.POSTER);
+		discOptions = new MediaScrapeOptions(MediaType.MOVIE);
+		discOptions.setId("AebnID", "183071");
+		discOptions.setArtworkType(MediaArtworkType.DISC);
+	}
+
+
+	@Benchmark
+	public String cleanSearchQuery() {
+		return AebnMetadataProvider.cleanSearchQuery("The Erotic Massage Stories: Part 5 (2014)!");
+	}
+
+
+	@Benchmark
+	public String cleanString() {
+		return AebnMetadataProvider.cleanString("\u00a0Sierra\u00a0Nevadah ");
+	}
+
+
+	@Benchmark
+	public List<MediaArtwork> posterArtwork() throws Exception {
+		return provider.getArtwork(posterOptions);
+	}
+
+
+	@Benchmark
+	public List<MediaArtwork> discArtwork() throws Exception {
+		return provider.getArtwork(discOptions);
+	}
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.scraper.MediaMetadata;
+import org.tinymediamanager.scraper.MediaScrapeOptions;
+
+/**
+ * Scrapes the meta data of many movies at once.
+ * <p>
+ * The movies are processed in a pipeline: movie detail pages are downloaded and parsed by a bounded number of threads,
+ * while the star detail pages of already parsed movies are downloaded by the star fetcher of the
+ * {@link AebnMetadataProvider}. Every distinct star is downloaded only once per batch, no matter in how many movies it
+ * appears.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * Iterator&lt;AebnBatchScraper.Result&gt; results = new AebnBatchScraper().scrape(aebnIds, options);
+ * while (results.hasNext()) {
+ * 	AebnBatchScraper.Result result = results.next();
+ * 	...
+ * }
+ * </pre>
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnMetadataProvider#getMetadata(MediaScrapeOptions)
+ *
+ */
+public class AebnBatchScraper {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AebnBatchScraper.class);
+
+	private final int parallelism;
+	private final MovieLoader loader;
+
+	/**
+	 * Loads the movie and star detail pages, see {@link AebnMetadataProvider}.
+	 */
+	interface MovieLoader {
+		MovieDetails loadMovieDetails(Integer aebnId, String locale) throws IOException;
+
+
+		List<CompletableFuture<StarDetails>> getStars(Integer aebnId, String locale, MovieDetails details,
+				ConcurrentMap<String, CompletableFuture<StarDetails>> inFlight);
+	}
+
+	private static final MovieLoader PROVIDER = new MovieLoader() {
+		@Override
+		public MovieDetails loadMovieDetails(Integer aebnId, String locale) throws IOException {
+			return AebnMetadataProvider.loadMovieDetails(aebnId, locale);
+		}
+
+
+		@Override
+		public List<CompletableFuture<StarDetails>> getStars(Integer aebnId, String locale, MovieDetails details,
+				ConcurrentMap<String, CompletableFuture<StarDetails>> inFlight) {
+			return AebnMetadataProvider.getStars(aebnId, locale, details, inFlight);
+		}
+	};
+
+	/**
+	 * The scrape result of one movie.
+	 */
+	public static class Result {
+		private final String aebnId;
+		private final MediaMetadata metadata;
+		private final Throwable error;
+
+
+		Result(String aebnId, MediaMetadata metadata, Throwable error) {
+			this.aebnId = aebnId;
+			this.metadata = metadata;
+			this.error = error;
+		}
+
+
+		/**
+		 * @return the AEBN id of the movie
+		 */
+		public String getAebnId() {
+			return aebnId;
+		}
+
+
+		/**
+		 * @return the meta data of the movie, null if it could not be scraped
+		 */
+		public MediaMetadata getMetadata() {
+			return metadata;
+		}
+
+
+		/**
+		 * @return the reason why the movie could not be scraped, null if it was scraped
+		 */
+		public Throwable getError() {
+			return error;
+		}
+	}
+
+
+	/**
+	 * Creates a batch scraper with the number of parallel movie page downloads configured by
+	 * <code>aebn.batch.threads</code>.
+	 */
+	public AebnBatchScraper() {
+		this(AebnSettings.getBatchThreads());
+	}
+
+
+	/**
+	 * Creates a batch scraper.
+	 *
+	 * @param parallelism
+	 *            maximum number of movie detail pages downloaded and parsed in parallel
+	 */
+	public AebnBatchScraper(int parallelism) {
+		this(parallelism, PROVIDER);
+	}
+
+
+	/**
+	 * @param parallelism
+	 *            maximum number of movie detail pages downloaded and parsed in parallel
+	 * @param loader
+	 *            loads the movie and star detail pages
+	 */
+	AebnBatchScraper(int parallelism, MovieLoader loader) {
+		this.parallelism = Math.max(1, parallelism);
+		this.loader = loader;
+	}
+
+
+	/**
+	 * Scrapes the meta data of many movies.
+	 *
+	 * @param aebnIds
+	 *            the AEBN ids of the movies; invalid ids get a result with an {@link IllegalArgumentException}
+	 * @param options
+	 *            the scrape options (language and country) used for all movies
+	 * @return the results in the order they complete; {@link Iterator#next()} blocks until the next result is
+	 *         available
+	 */
+	public Iterator<Result> scrape(List<String> aebnIds, final MediaScrapeOptions options) {
+		LOGGER.debug("AEBN: batch scrape of {} movies", aebnIds.size());
+		final ExecutorService executor = AebnExecutors.newExecutor("aebn-batch", parallelism);
+		final Semaphore permits = new Semaphore(parallelism);
+		final ConcurrentMap<String, CompletableFuture<StarDetails>> stars = //
+				new ConcurrentHashMap<String, CompletableFuture<StarDetails>>();
+		final BlockingQueue<Result> results = new LinkedBlockingQueue<Result>();
+		final AtomicInteger pending = new AtomicInteger(aebnIds.size());
+		final String locale = options.getLanguage().name();
+
+		if (aebnIds.isEmpty()) {
+			executor.shutdown();
+		}
+		for (final String id : aebnIds) {
+			Integer parsed;
+			try {
+				parsed = Integer.valueOf(id);
+			} catch (NumberFormatException e) {
+				parsed = null;
+			}
+			if (!AebnMetadataProvider.isValidAebnId(parsed)) {
+				LOGGER.warn("AEBN: no or incorrect aebnId({}), skipping", id);
+				complete(new Result(id, null, new IllegalArgumentException("incorrect aebnId: " + id)), results,
+						pending, executor);
+				continue;
+			}
+
+			final Integer aebnId = parsed;
+			CompletableFuture.supplyAsync(new Supplier<MovieDetails>() {
+				@Override
+				public MovieDetails get() {
+					try {
+						permits.acquire();
+						try {
+							return loader.loadMovieDetails(aebnId, locale);
+						} finally {
+							permits.release();
+						}
+					} catch (Exception e) {
+						throw new CompletionException(e);
+					}
+				}
+			}, executor).thenCompose(new Function<MovieDetails, CompletionStage<MediaMetadata>>() {
+				@Override
+				public CompletionStage<MediaMetadata> apply(final MovieDetails details) {
+					final List<CompletableFuture<StarDetails>> actorDetails = loader.getStars(aebnId, locale,
+							details, stars);
+					return CompletableFuture.allOf(actorDetails.toArray(new CompletableFuture<?>[0]))
+							.handle(new BiFunction<Void, Throwable, MediaMetadata>() {
+								@Override
+								public MediaMetadata apply(Void ignored, Throwable starError) {
+									// failed star pages only lack their details, see fillMetadata()
+									MediaMetadata md = AebnMetadataProvider.createMetadata(aebnId);
+									AebnMetadataProvider.fillMetadata(md, aebnId, details, actorDetails, options);
+									return md;
+								}
+							});
+				}
+			}).whenComplete(new BiConsumer<MediaMetadata, Throwable>() {
+				@Override
+				public void accept(MediaMetadata md, Throwable error) {
+					if (error != null) {
+						LOGGER.error("AEBN: batch scrape of aebnId({}) failed: {}", aebnId, error);
+					}
+					complete(new Result(id, md, error instanceof CompletionException ? error.getCause() : error),
+							results, pending, executor);
+				}
+			});
+		}
+
+		final int total = aebnIds.size();
+		return new Iterator<Result>() {
+			private int delivered = 0;
+
+
+			@Override
+			public boolean hasNext() {
+				return delivered < total;
+			}
+
+
+			@Override
+			public Result next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				try {
+					Result result = results.take();
+					delivered++;
+					return result;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("interrupted while waiting for batch results", e);
+				}
+			}
+
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+
+	private static void complete(Result result, BlockingQueue<Result> results, AtomicInteger pending,
+			ExecutorService executor) {
+		results.add(result);
+		if (pending.decrementAndGet() == 0) {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the serialized entries of the page and star caches.
+ * <p>
+ * Besides a directory per installation, the entries can be kept in memory only ({@link MemoryCacheBackend}) or in a
+ * directory shared by several installations, e.g. on NFS ({@link DirectoryCacheBackend}), so that every page is only
+ * downloaded by one of them. To avoid parallel downloads of the same page by several installations, a loader claims
+ * the key first; the others wait for the entry to appear. The backend is selected by
+ * {@link AebnSettings#getCacheBackend()}.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+interface AebnCacheBackend {
+
+	/**
+	 * Gets an entry.
+	 *
+	 * @param key
+	 *            the key, consisting of letters, digits, <code>_</code> and <code>-</code> only
+	 * @return the entry or null if there is none
+	 * @throws IOException
+	 *             if the entry could not be read
+	 */
+	byte[] get(String key) throws IOException;
+
+
+	/**
+	 * Stores an entry. Readers see either the old or the new entry, never a partially written one.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the entry
+	 * @throws IOException
+	 *             if the entry could not be stored
+	 */
+	void put(String key, byte[] value) throws IOException;
+
+
+	/**
+	 * Lists the keys of all entries.
+	 *
+	 * @return the keys
+	 */
+	List<String> keys();
+
+
+	/**
+	 * Drops the entries exceeding the capacity of the backend, if it does not do so itself.
+	 */
+	void prune();
+
+
+	/**
+	 * Claims the loading of an entry, unless somebody else already claimed it. Claims expire after the given time, so
+	 * the claims of crashed loaders do not block the key forever.
+	 *
+	 * @param key
+	 *            the key
+	 * @param leaseMillis
+	 *            time after which the claim expires
+	 * @return true if the caller should load the entry and release the claim afterwards, false if somebody else is
+	 *         loading it
+	 */
+	boolean claim(String key, long leaseMillis);
+
+
+	/**
+	 * Releases a claim made by {@link #claim(String, long)}.
+	 *
+	 * @param key
+	 *            the key
+	 */
+	void release(String key);
+
+
+	/**
+	 * Waits for an entry claimed by somebody else.
+	 *
+	 * @param key
+	 *            the key
+	 * @param timeoutMillis
+	 *            maximum time to wait
+	 * @return the entry or null if it did not appear in time
+	 * @throws IOException
+	 *             if the entry could not be read
+	 */
+	default byte[] await(String key, long timeoutMillis) throws IOException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		try {
+			do {
+				TimeUnit.MILLISECONDS.sleep(100);
+				byte[] value = get(key);
+				if (value != null) {
+					return value;
+				}
+			} while (System.currentTimeMillis() < deadline);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+
+
+	/**
+	 * Creates the backend configured by the {@link AebnSettings}.
+	 *
+	 * @param name
+	 *            name of the cache, e.g. <code>pages</code>
+	 * @param suffix
+	 *            file name suffix of the entries
+	 * @param maxFiles
+	 *            maximum number of entries kept on disk
+	 * @return the backend
+	 */
+	static AebnCacheBackend create(String name, String suffix, int maxFiles) {
+		Logger logger = LoggerFactory.getLogger(AebnCacheBackend.class);
+		if ("memory".equals(AebnSettings.getCacheBackend())) {
+			logger.debug("AEBN: keeping the {} cache in memory", name);
+			return new MemoryCacheBackend(AebnSettings.getCacheMemoryMegabytes() * 1024L * 1024L);
+		}
+		File shared = AebnSettings.getSharedCacheDirectory();
+		if (shared != null) {
+			logger.info("AEBN: sharing the {} cache in {}", name, shared);
+			return new DirectoryCacheBackend(new File(shared, name), suffix, maxFiles);
+		}
+		return new DirectoryCacheBackend(new File(AebnSettings.getCacheDirectory(), name), suffix, maxFiles);
+	}
+
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exports and imports the scraped data of the local caches, to warm up the caches of another installation.
+ * <p>
+ * A snapshot contains the movie snapshots of the {@link RefreshStore} (the movie details from which the metadata, the
+ * cast members and the artwork urls are built, together with the star details of the cast) and the star details of
+ * the {@link StarDetailsCache}, keyed by AEBN id and star id. The file is a gzip compressed stream of records. Genres,
+ * studios, series and everything about performers is written only once and referenced by number afterwards; the
+ * import reads one record at a time, so only these shared strings are kept in memory. It can be run stand-alone:
+ *
+ * <pre>
+ * java -cp ... org.tinymediamanager.scraper.aebn.AebnCacheSnapshot export|import &lt;file&gt;
+ * </pre>
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+public class AebnCacheSnapshot {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AebnCacheSnapshot.class);
+
+	private static final int MAGIC = 0x41454253;
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int END = 0;
+	private static final int MOVIE = 1;
+	private static final int STAR = 2;
+
+	private AebnCacheSnapshot() {
+	}
+
+
+	/**
+	 * Exports the movie snapshots and star details of the configured cache directory.
+	 *
+	 * @param file
+	 *            the snapshot file to write
+	 * @return the number of exported records
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public static int exportTo(File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			return exportTo(out, RefreshStore.open(), StarDetailsCache.create());
+		} finally {
+			out.close();
+		}
+	}
+
+
+	/**
+	 * Imports a snapshot into the configured cache directory. The movies are added to the title index if it is
+	 * enabled.
+	 *
+	 * @param file
+	 *            the snapshot file to read
+	 * @return the number of imported records
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public static int importFrom(File file) throws IOException {
+		TitleIndex index = TitleIndex.create();
+		InputStream in = new FileInputStream(file);
+		try {
+			return importFrom(in, RefreshStore.open(), StarDetailsCache.create(), index);
+		} finally {
+			in.close();
+			if (index != null) {
+				index.close();
+			}
+		}
+	}
+
+
+	/**
+	 * Writes a snapshot.
+	 *
+	 * @param stream
+	 *            the stream to write to, not closed
+	 * @param movies
+	 *            the movie snapshots to export, may be null
+	 * @param stars
+	 *            the star details to export, may be null
+	 * @return the number of written records
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	static int exportTo(OutputStream stream, RefreshStore movies, StarDetailsCache stars) throws IOException {
+		GZIPOutputStream gzip = new GZIPOutputStream(stream, 65536);
+		final SnapshotOutput out = new SnapshotOutput(new DataOutputStream(new BufferedOutputStream(gzip, 65536)));
+		out.out.writeInt(MAGIC);
+		out.out.writeInt(FORMAT_VERSION);
+		final int[] count = new int[1];
+		if (movies != null) {
+			movies.forEach(new RefreshStore.Visitor() {
+				@Override
+				public void visit(Integer aebnId, String locale, RefreshStore.Snapshot snapshot) throws IOException {
+					out.out.writeByte(MOVIE);
+					out.writeInt(aebnId);
+					out.writeShared(locale);
+					writeMovie(out, snapshot);
+					count[0]++;
+				}
+			});
+		}
+		if (stars != null) {
+			stars.forEach(new StarDetailsCache.Visitor() {
+				@Override
+				public void visit(String starId, StarDetails details, long created) throws IOException {
+					out.out.writeByte(STAR);
+					out.writeShared(starId);
+					out.out.writeLong(created);
+					writeStar(out, details);
+					count[0]++;
+				}
+			});
+		}
+		out.out.writeByte(END);
+		out.out.flush();
+		gzip.finish();
+		LOGGER.info("AEBN: exported {} records with {} shared strings", count[0], out.shared.size());
+		return count[0];
+	}
+
+
+	/**
+	 * Reads a snapshot, one record at a time.
+	 *
+	 * @param stream
+	 *            the stream to read from, not closed
+	 * @param movies
+	 *            the store of the movie snapshots, null to skip them
+	 * @param stars
+	 *            the cache of the star details, null to skip them
+	 * @param index
+	 *            the title index to add the movies to, may be null
+	 * @return the number of read records
+	 * @throws IOException
+	 *             if the snapshot is invalid or reading fails
+	 */
+	static int importFrom(InputStream stream, RefreshStore movies, StarDetailsCache stars, TitleIndex index)
+			throws IOException {
+		SnapshotInput in = new SnapshotInput(new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream,
+				65536), 65536)));
+		if (in.in.readInt() != MAGIC) {
+			throw new IOException("not an AEBN cache snapshot");
+		}
+		int version = in.in.readInt();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("unsupported AEBN cache snapshot version " + version);
+		}
+		int count = 0;
+		List<TitleIndex.Entry> entries = new ArrayList<TitleIndex.Entry>();
+		for (int type = in.in.readByte(); type != END; type = in.in.readByte()) {
+			if (type == MOVIE) {
+				int aebnId = in.readInt();
+				String locale = in.readShared();
+				RefreshStore.Snapshot snapshot = readMovie(in);
+				if (movies != null) {
+					movies.put(aebnId, locale, snapshot);
+				}
+				if (index != null) {
+					MovieDetails details = snapshot.details;
+					entries.add(new TitleIndex.Entry(aebnId, details.title, details.series, details.studio));
+					if (entries.size() >= 1000) {
+						index.addAll(entries);
+						entries.clear();
+					}
+				}
+			} else if (type == STAR) {
+				String starId = in.readShared();
+				long created = in.in.readLong();
+				StarDetails details = readStar(in);
+				if (stars != null) {
+					stars.put(starId, details, created);
+				}
+			} else {
+				throw new IOException("unknown record type " + type);
+			}
+			count++;
+		}
+		if (index != null && !entries.isEmpty()) {
+			index.addAll(entries);
+		}
+		LOGGER.info("AEBN: imported {} records", count);
+		return count;
+	}
+
+
+	private static void writeMovie(SnapshotOutput out, RefreshStore.Snapshot snapshot) throws IOException {
+		out.writeText(snapshot.fingerprint);
+		out.writeText(snapshot.etag);
+		out.writeText(snapshot.lastModified);
+		MovieDetails details = snapshot.details;
+		out.writeText(details.title);
+		out.writeInt(details.sceneThumbnails.size());
+		for (String sceneThumbnail : details.sceneThumbnails) {
+			out.writeText(sceneThumbnail);
+		}
+		out.writeShared(details.runtime);
+		out.writeShared(details.year);
+		out.writeShared(details.series);
+		out.writeShared(details.studio);
+		out.writeText(details.plot);
+		out.writeInt(details.genres.size());
+		for (String genre : details.genres) {
+			out.writeShared(genre);
+		}
+		out.writeInt(details.actors.size());
+		for (MovieDetails.Person actor : details.actors) {
+			writePerson(out, actor);
+		}
+		out.out.writeBoolean(details.director != null);
+		if (details.director != null) {
+			writePerson(out, details.director);
+		}
+		// 0 if the star details are not known, else their number + 1
+		out.writeInt(snapshot.stars == null ? 0 : snapshot.stars.size() + 1);
+		if (snapshot.stars != null) {
+			for (StarDetails star : snapshot.stars) {
+				writeStar(out, star);
+			}
+		}
+	}
+
+
+	private static RefreshStore.Snapshot readMovie(SnapshotInput in) throws IOException {
+		String fingerprint = in.readText();
+		String etag = in.readText();
+		String lastModified = in.readText();
+		MovieDetails details = new MovieDetails();
+		details.title = in.readText();
+		int count = in.readInt();
+		List<String> sceneThumbnails = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			sceneThumbnails.add(in.readText());
+		}
+		details.sceneThumbnails = Collections.unmodifiableList(sceneThumbnails);
+		details.runtime = in.readShared();
+		details.year = in.readShared();
+		details.series = in.readShared();
+		details.studio = in.readShared();
+		details.plot = in.readText();
+		count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			details.genres.add(in.readShared());
+		}
+		count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			details.actors.add(readPerson(in));
+		}
+		if (in.in.readBoolean()) {
+			details.director = readPerson(in);
+		}
+		List<StarDetails> stars = null;
+		count = in.readInt();
+		if (count > 0) {
+			stars = new ArrayList<StarDetails>(count - 1);
+			for (int i = 1; i < count; i++) {
+				stars.add(readStar(in));
+			}
+		}
+		return new RefreshStore.Snapshot(fingerprint, etag, lastModified, details, stars);
+	}
+
+
+	private static void writePerson(SnapshotOutput out, MovieDetails.Person person) throws IOException {
+		out.writeShared(person.id);
+		out.writeShared(person.name);
+		out.writeShared(person.detailsUrl);
+	}
+
+
+	private static MovieDetails.Person readPerson(SnapshotInput in) throws IOException {
+		return new MovieDetails.Person(in.readShared(), in.readShared(), in.readShared());
+	}
+
+
+	private static void writeStar(SnapshotOutput out, StarDetails star) throws IOException {
+		out.writeShared(star.getImageUrl());
+		out.writeInt(star.getFanartUrls().size());
+		for (String fanartUrl : star.getFanartUrls()) {
+			out.writeShared(fanartUrl);
+		}
+	}
+
+
+	private static StarDetails readStar(SnapshotInput in) throws IOException {
+		String imageUrl = in.readShared();
+		int count = in.readInt();
+		List<String> fanartUrls = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			fanartUrls.add(in.readShared());
+		}
+		return new StarDetails(imageUrl, fanartUrls);
+	}
+
+
+	/**
+	 * Writes variable length numbers and strings; shared strings are written once and referenced by number afterwards.
+	 */
+	private static final class SnapshotOutput {
+		final DataOutputStream out;
+		final Map<String, Integer> shared = new HashMap<String, Integer>();
+
+
+		SnapshotOutput(DataOutputStream out) {
+			this.out = out;
+		}
+
+
+		void writeInt(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte(value);
+		}
+
+
+		/** writes 0 for null, else the length + 1 and the UTF-8 bytes */
+		void writeText(String value) throws IOException {
+			if (value == null) {
+				writeInt(0);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeInt(bytes.length + 1);
+			out.write(bytes);
+		}
+
+
+		/** writes 0 for null, 1 and the text for a new string, else the number of the string + 2 */
+		void writeShared(String value) throws IOException {
+			if (value == null) {
+				writeInt(0);
+				return;
+			}
+			Integer number = shared.get(value);
+			if (number != null) {
+				writeInt(number + 2);
+				return;
+			}
+			shared.put(value, shared.size());
+			writeInt(1);
+			writeText(value);
+		}
+	}
+
+	/**
+	 * Reads what {@link SnapshotOutput} wrote.
+	 */
+	private static final class SnapshotInput {
+		final DataInputStream in;
+		final List<String> shared = new ArrayList<String>();
+
+
+		SnapshotInput(DataInputStream in) {
+			this.in = in;
+		}
+
+
+		int readInt() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				int b = in.readUnsignedByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("invalid number");
+		}
+
+
+		String readText() throws IOException {
+			int length = readInt();
+			if (length == 0) {
+				return null;
+			}
+			byte[] bytes = new byte[length - 1];
+			in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+
+		String readShared() throws IOException {
+			int number = readInt();
+			if (number == 0) {
+				return null;
+			}
+			if (number == 1) {
+				String value = readText();
+				shared.add(value);
+				return value;
+			}
+			if (number - 2 >= shared.size()) {
+				throw new EOFException("unknown shared string " + (number - 2));
+			}
+			return shared.get(number - 2);
+		}
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || !("export".equals(args[0]) || "import".equals(args[0]))) {
+			System.err.println("usage: AebnCacheSnapshot export|import <file>");
+			System.exit(1);
+		}
+		File file = new File(args[1]);
+		int count = "export".equals(args[0]) ? exportTo(file) : importFrom(file);
+		System.out.println(args[0] + "ed " + count + " records");
+	}
+
+}
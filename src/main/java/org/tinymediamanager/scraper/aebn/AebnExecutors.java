@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Factory for the background executors of the AEBN scraper.
+ * <p>
+ * Executors use daemon threads which time out when idle, so they never keep tmm from shutting down. If virtual
+ * threads are requested (see {@link AebnSettings#useVirtualThreads()}) and the JVM supports them, a virtual thread
+ * per task executor is returned instead; callers have to bound their parallelism themselves in that case.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+final class AebnExecutors {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AebnExecutors.class);
+
+
+	private AebnExecutors() {
+	}
+
+
+	/**
+	 * Creates a new executor.
+	 *
+	 * @param name
+	 *            prefix for the thread names
+	 * @param threads
+	 *            maximum number of platform threads
+	 * @return the executor
+	 */
+	static ExecutorService newExecutor(final String name, int threads) {
+		if (AebnSettings.useVirtualThreads()) {
+			try {
+				Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				LOGGER.debug("AEBN: using virtual threads for {}", name);
+				return (ExecutorService) factory.invoke(null);
+			} catch (Exception e) {
+				LOGGER.debug("AEBN: virtual threads not supported, using a thread pool for {}", name);
+			}
+		}
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger(1);
+
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, name + "-" + count.getAndIncrement());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+}
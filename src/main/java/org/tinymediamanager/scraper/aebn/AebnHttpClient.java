@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A minimal HTTP client for the AEBN web site.
+ * <p>
+ * Unlike {@link org.tinymediamanager.scraper.http.Url} it gives access to request and response headers, which is
+ * needed for conditional requests.
+ * <p>
+ * Connections are kept alive and reused by the per-host connection pool of the JVM (its size is set by the
+ * <code>http.maxConnections</code> system property, 5 by default). Therefore response bodies are always read
+ * completely, also of error responses, and connections are only disconnected after I/O errors. Responses are
+ * requested gzip or deflate compressed.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class AebnHttpClient implements AebnTransport {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AebnHttpClient.class);
+	private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 6.1; WOW64; rv:40.0) Gecko/20100101 Firefox/40.0";
+
+	private final int connectTimeout;
+	private final int readTimeout;
+
+
+	/**
+	 * Creates a client with the timeouts configured by the {@link AebnSettings}.
+	 */
+	AebnHttpClient() {
+		this(AebnSettings.getConnectTimeout(), AebnSettings.getReadTimeout());
+	}
+
+
+	/**
+	 * @param connectTimeout
+	 *            connect timeout in milliseconds
+	 * @param readTimeout
+	 *            read timeout in milliseconds
+	 */
+	AebnHttpClient(int connectTimeout, int readTimeout) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+
+
+	@Override
+	public AebnResponse get(String url, Map<String, String> headers) throws IOException {
+		LOGGER.debug("AEBN: GET {}", url);
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		try {
+			connection.setConnectTimeout(connectTimeout);
+			connection.setReadTimeout(readTimeout);
+			connection.setRequestProperty("User-Agent", USER_AGENT);
+			connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+			for (Map.Entry<String, String> header : headers.entrySet()) {
+				connection.setRequestProperty(header.getKey(), header.getValue());
+			}
+
+			int status = connection.getResponseCode();
+			if (status >= 400) {
+				// read the error page, so the connection can be reused
+				InputStream error = connection.getErrorStream();
+				if (error != null) {
+					try {
+						readFully(error);
+					} finally {
+						error.close();
+					}
+				}
+				throw new AebnHttpException(url, status, connection.getHeaderField("Retry-After"));
+			}
+			byte[] body = new byte[0];
+			if (status != HttpURLConnection.HTTP_NOT_MODIFIED) {
+				InputStream in = connection.getInputStream();
+				try {
+					body = decode(readFully(in), connection.getContentEncoding());
+				} finally {
+					in.close();
+				}
+			}
+			return new AebnResponse(status, connection.getHeaderField("ETag"),
+					connection.getHeaderField("Last-Modified"), body,
+					getContentLength(connection.getHeaderField("Content-Range"), body.length));
+		} catch (IOException e) {
+			// the connection may be in an undefined state, do not return it to the pool
+			connection.disconnect();
+			throw e;
+		}
+	}
+
+
+	/**
+	 * Decodes a compressed response body.
+	 *
+	 * @param body
+	 *            the raw body
+	 * @param contentEncoding
+	 *            value of the Content-Encoding header, may be null
+	 * @return the decoded body
+	 * @throws IOException
+	 *             if the body could not be decoded
+	 */
+	static byte[] decode(byte[] body, String contentEncoding) throws IOException {
+		if (contentEncoding == null || body.length == 0) {
+			return body;
+		}
+		String encoding = contentEncoding.trim();
+		InputStream in;
+		if ("gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding)) {
+			in = new GZIPInputStream(new ByteArrayInputStream(body));
+		} else if ("deflate".equalsIgnoreCase(encoding)) {
+			// "deflate" should be zlib wrapped, but some servers send raw deflate data
+			boolean zlib = body.length > 1 && (body[0] & 0x0f) == 8
+					&& (((body[0] & 0xff) << 8) | (body[1] & 0xff)) % 31 == 0;
+			in = new InflaterInputStream(new ByteArrayInputStream(body), new Inflater(!zlib));
+		} else {
+			return body;
+		}
+		try {
+			return readFully(in);
+		} finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Gets the full length of a resource from the Content-Range header of a partial response.
+	 *
+	 * @param contentRange
+	 *            value of the Content-Range header (<code>bytes 0-1023/146515</code>), may be null
+	 * @param bodyLength
+	 *            length of the received body, used if the full length is not known
+	 * @return the full length in bytes
+	 */
+	static long getContentLength(String contentRange, int bodyLength) {
+		if (contentRange != null) {
+			int slash = contentRange.lastIndexOf('/');
+			try {
+				return Long.parseLong(contentRange.substring(slash + 1).trim());
+			} catch (NumberFormatException e) {
+				// "*" for an unknown length
+			}
+		}
+		return bodyLength;
+	}
+
+
+	static byte[] readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(32768);
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.IOException;
+
+/**
+ * An error status answered by the AEBN web site.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class AebnHttpException extends IOException {
+	private static final long serialVersionUID = 1L;
+
+	private final int status;
+	private final long retryAfterMillis;
+
+
+	/**
+	 * @param url
+	 *            the requested url
+	 * @param status
+	 *            the HTTP status code
+	 * @param retryAfter
+	 *            value of the Retry-After header, may be null
+	 */
+	AebnHttpException(String url, int status, String retryAfter) {
+		super("HTTP " + status + " for " + url);
+		this.status = status;
+		this.retryAfterMillis = parseRetryAfter(retryAfter);
+	}
+
+
+	int getStatus() {
+		return status;
+	}
+
+
+	/**
+	 * Gets the time the server asked to wait before the next request.
+	 *
+	 * @return the time in milliseconds, 0 if the server did not send a (delay seconds) Retry-After header
+	 */
+	long getRetryAfterMillis() {
+		return retryAfterMillis;
+	}
+
+
+	/**
+	 * Whether the request may succeed if it is sent again later.
+	 *
+	 * @return true for 429 (too many requests) and 5xx responses
+	 */
+	boolean isTransient() {
+		return status == 429 || status >= 500;
+	}
+
+
+	private static long parseRetryAfter(String retryAfter) {
+		if (retryAfter == null) {
+			return 0;
+		}
+		try {
+			return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+		} catch (NumberFormatException e) {
+			// HTTP dates are not supported, the default backoff is used then
+			return 0;
+		}
+	}
+
+}
@@ -13,19 +13,36 @@
 
 package org.tinymediamanager.scraper.aebn;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tinymediamanager.scraper.Certification;
@@ -35,13 +52,15 @@ import org.tinymediamanager.scraper.MediaArtwork.MediaArtworkType;
 import org.tinymediamanager.scraper.MediaCastMember;
 import org.tinymediamanager.scraper.MediaCastMember.CastType;
 import org.tinymediamanager.scraper.MediaGenres;
+import org.tinymediamanager.scraper.MediaLanguages;
 import org.tinymediamanager.scraper.MediaMetadata;
 import org.tinymediamanager.scraper.MediaProviderInfo;
 import org.tinymediamanager.scraper.MediaScrapeOptions;
 import org.tinymediamanager.scraper.MediaSearchOptions;
 import org.tinymediamanager.scraper.MediaSearchResult;
 import org.tinymediamanager.scraper.MediaType;
-import org.tinymediamanager.scraper.http.Url;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Counter;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Phase;
 import org.tinymediamanager.scraper.mediaprovider.IMediaArtworkProvider;
 import org.tinymediamanager.scraper.mediaprovider.IMovieMetadataProvider;
 import org.tinymediamanager.scraper.util.MetadataUtil;
@@ -63,20 +82,52 @@ import net.xeoh.plugins.base.annotations.PluginImplementation;
  */
 @PluginImplementation
 public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtworkProvider {
-	private static AebnMetadataProvider instance;
 	private static final String AEBNID = "AebnID";
-	private static MediaProviderInfo providerInfo = createMediaProviderInfo();
+	private static final MediaProviderInfo providerInfo = createMediaProviderInfo();
 	private static final Logger LOGGER = LoggerFactory.getLogger(AebnMetadataProvider.class);
-	private static final String BASE_DATAURL = "http://theater.aebn.net";
-	private static final String BASE_IMGURL = "http://pic.aebn.net";
+	private static final String BASE_DATAURL = AebnSettings.getDataUrl();
+	private static final String BASE_IMGURL = AebnSettings.getImageUrl();
 	private static final Integer SEARCH_COUNT = 60;
+	private static final int DEFAULT_PAGE_SIZE = 10;
+	private static final Pattern[] AEBN_ID_PATTERNS = { Pattern.compile("movieId=(\\d+)"),
+			Pattern.compile("aebn\\.(?:net|com)/(?:\\S*/)?movies/(\\d+)", Pattern.CASE_INSENSITIVE),
+			// explicit tags only, so titles like "AEBN 5" or "aebn-2019 collection" are not taken for ids
+			Pattern.compile("\\baebnid\\s*[_:=#-]\\s*(\\d{3,})\\b", Pattern.CASE_INSENSITIVE),
+			Pattern.compile("\\baebn_(\\d{3,})\\b", Pattern.CASE_INSENSITIVE),
+			Pattern.compile("[\\[({]\\s*aebn\\s*[_:=#-]\\s*(\\d{3,})\\s*[\\])}]", Pattern.CASE_INSENSITIVE) };
+	private static final AebnTransport TRANSPORT = AebnTransport.create();
+	private static final StarFetcher STAR_FETCHER = new StarFetcher(AebnSettings.getStarThreads(),
+			StarDetailsCache.create(), TRANSPORT);
+	private static final PageLoader PAGE_LOADER = PageLoader.create(TRANSPORT);
+	private static final SearchResultCache SEARCH_CACHE = SearchResultCache.create();
+	private static final TitleIndex TITLE_INDEX = TitleIndex.create();
+	private static final ArtworkProber ARTWORK_PROBER = ArtworkProber.create(TRANSPORT);
+	private static final RefreshStore REFRESH_STORE = RefreshStore.create();
+	private static final LruCache<String, List<String>> SCENE_THUMBNAILS = new LruCache<String, List<String>>(200,
+			TimeUnit.HOURS.toMillis(1));
+	private static final SingleFlight<String, MovieDetails> MOVIE_DETAILS = new SingleFlight<String, MovieDetails>(
+			Counter.DETAIL_COALESCED);
+	private static final ExecutorService LANGUAGE_PAGES = AebnExecutors.newExecutor("aebn-languages",
+			AebnSettings.getBatchThreads());
+	private static final SingleFlight<String, List<String>> SCENE_THUMBNAIL_LOADS =
+			new SingleFlight<String, List<String>>(Counter.SCENE_COALESCED);
 
 
-	public static synchronized AebnMetadataProvider getInstance() {
-		if (instance == null) {
-			instance = new AebnMetadataProvider();
-		}
-		return instance;
+	/**
+	 * Gets the shared provider. All its state is static and safe for concurrent calls, so instances created with the
+	 * public constructor behave the same.
+	 *
+	 * @return the provider
+	 */
+	public static AebnMetadataProvider getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	/**
+	 * Creates the shared provider on first use, without locking afterwards.
+	 */
+	private static final class InstanceHolder {
+		static final AebnMetadataProvider INSTANCE = new AebnMetadataProvider();
 	}
 
 
@@ -107,8 +158,6 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 	@Override
 	public List<MediaSearchResult> search(MediaSearchOptions query) throws Exception {
 		LOGGER.debug("AEBN: search() {}", query);
-		List<MediaSearchResult> resultList = new ArrayList<MediaSearchResult>();
-		Elements movies = null;
 		String searchString = "";
 
 		// Search for query
@@ -116,85 +165,274 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 			searchString = query.get(MediaSearchOptions.SearchParam.QUERY);
 		}
 
+		// AEBN urls or ids (e.g. in file names or NFOs) are looked up directly
+		Integer aebnId = findAebnId(searchString);
+		if (aebnId == null) {
+			aebnId = findAebnId(query.get(MediaSearchOptions.SearchParam.TITLE));
+		}
+		if (aebnId != null) {
+			MediaSearchResult direct = searchById(aebnId,
+					StringUtils.defaultString(query.get(MediaSearchOptions.SearchParam.LANGUAGE)), searchString);
+			if (direct != null) {
+				List<MediaSearchResult> resultList = new ArrayList<MediaSearchResult>();
+				resultList.add(direct);
+				return resultList;
+			}
+		}
+
+		// queries differing only in stop words, years or punctuation share their (rescored) results
+		String cleanedQuery = cleanSearchQuery(searchString);
+		List<SearchResultCache.Entry> cached = SEARCH_CACHE.get(cleanedQuery);
+		if (cached != null) {
+			LOGGER.debug("AEBN: using cached search results for {}", cleanedQuery);
+			AebnMetrics.count(Counter.SEARCH_CACHE_HIT);
+			return createSearchResults(cached, searchString);
+		}
+		AebnMetrics.count(Counter.SEARCH_CACHE_MISS);
+
+		// titles seen before are found without asking the site; similar titles (e.g. other parts of a series) are not
+		// trusted, as the index only knows the movies seen so far
+		if (TITLE_INDEX != null) {
+			List<MediaSearchResult> indexed = searchIndex(searchString);
+			if (!indexed.isEmpty()) {
+				LOGGER.debug("AEBN: using {} indexed titles for {}", indexed.size(), searchString);
+				AebnMetrics.count(Counter.INDEX_HIT);
+				return indexed;
+			}
+			AebnMetrics.count(Counter.INDEX_MISS);
+		}
+
 		// Search
-		String searchUrl = BASE_DATAURL + "/dispatcher/fts?userQuery="
-				+ URLEncoder.encode(cleanSearchQuery(searchString), "UTF-8")
-				+ "&targetSearchMode=basic&isAdvancedSearch=true&isFlushAdvancedSearchCriteria=false" + "&count="
-				+ SEARCH_COUNT.toString() + "&imageType=Large&sortType=Relevance";
+		int pageSize = AebnSettings.getSearchPageSize();
+		if (pageSize > 0) {
+			return searchPaged(cleanedQuery, searchString, pageSize);
+		}
+		String searchUrl = getSearchUrl(cleanedQuery, SEARCH_COUNT, 1);
+		String page;
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.SEARCH_FETCH, searchUrl);
 		try {
 			LOGGER.info("========= BEGIN AEBN Scraper Search for: {}", searchString);
-			Url url = new Url(searchUrl);
-			InputStream in = url.getInputStream();
-			Document doc = Jsoup.parse(in, "UTF-8", "");
-			in.close();
-
-			// only look for movie links like
-			// <a id="FTSMovieSearch_link_title_detail_30" ... </a>
-			movies = doc.getElementsByAttributeValueMatching("id", "FTSMovieSearch_link_title_detail_\\d+");
-			LOGGER.debug("AEBN: found {} search results", movies.size());
+			page = PAGE_LOADER.loadResponse(searchUrl).getText();
+			timer.success();
 		} catch (Exception e) {
 			LOGGER.error("AEBN: failed to search for {}: ", searchString, e);
+			return new ArrayList<MediaSearchResult>();
+		} finally {
+			timer.stop();
 		}
 
-		if (movies == null || movies.isEmpty()) {
+		List<MediaSearchResult> resultList;
+		timer = AebnMetrics.start(Phase.SEARCH_PARSE, searchString);
+		try {
+			resultList = parseSearchResults(page, searchString);
+			timer.success();
+		} finally {
+			timer.stop();
+		}
+		SEARCH_CACHE.put(cleanedQuery, resultList);
+		indexSearchResults(resultList);
+		if (resultList.isEmpty()) {
 			LOGGER.debug("AEBN: no movie found");
-			return resultList;
 		}
+		return resultList;
+	}
 
-		// there are search results, so fill media data structure
-		HashSet<String> foundResultUrls = new HashSet<String>();
-		for (Element anchor : movies) {
-			try {
-				String movieUrl = BASE_DATAURL + StrgUtils.substr(anchor.toString(), "href=\\\"(.*?)\\\"");
-				String movieId = StrgUtils.substr(anchor.toString(), "movieId=(\\d+)");
-				String movieName = StringEscapeUtils.unescapeHtml4(anchor.text());
-				String posterUrl = BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + movieId + "_160w.jpg";
-				LOGGER.debug("AEBN: found movie {} (id{})", movieName, movieId);
-
-				// check if it is a valid AEBN id
-				if (!isValidAebnId(Integer.parseInt(movieId))) {
-					LOGGER.error("AEBN: id({}) is not a valid aebn id", movieId);
-				}
 
-				MediaSearchResult sr = new MediaSearchResult(providerInfo.getId());
-				sr.setId(movieId);
-				sr.setIMDBId("");
-				sr.setTitle(movieName);
-				sr.setOriginalTitle(movieName);
-				// sr.setYear not possible, no data at this point
-				sr.setYear(null);
-				sr.setMediaType(MediaType.MOVIE);
-				sr.setUrl(movieUrl);
-				sr.setPosterUrl(posterUrl);
-
-				// compare score based on names
-				float score = MetadataUtil.calculateScore(searchString, movieName);
-				if (posterUrl.isEmpty() || posterUrl.contains("nopicture")) {
-					LOGGER.debug("AEBN: no poster - downgrading score by 0.01");
-					score = score - 0.01f;
+	/**
+	 * Finds an AEBN movie id in a text, e.g. a movie detail url (<code>movieId=183071</code>), a movie url of the new
+	 * site (<code>aebn.com/.../movies/183071/...</code>) or an explicit tag like <code>aebnid:183071</code>,
+	 * <code>aebn_183071</code> or <code>[aebn-183071]</code> (with at least 3 digits).
+	 *
+	 * @param text
+	 *            the text, may be null
+	 * @return the (valid) AEBN id or null if there is none
+	 */
+	static Integer findAebnId(String text) {
+		if (StringUtils.isBlank(text)) {
+			return null;
+		}
+		for (Pattern pattern : AEBN_ID_PATTERNS) {
+			Matcher matcher = pattern.matcher(text);
+			if (matcher.find()) {
+				try {
+					Integer aebnId = Integer.valueOf(matcher.group(1));
+					if (isValidAebnId(aebnId)) {
+						return aebnId;
+					}
+				} catch (NumberFormatException e) {
+					// too many digits
 				}
-				sr.setScore(score);
+			}
+		}
+		return null;
+	}
 
-				// check if result has at least a title and id
-				if (StringUtils.isBlank(sr.getTitle()) || StringUtils.isBlank(sr.getId())) {
-					LOGGER.warn("AEBN: no title nor id, skipping");
-					continue;
-				}
 
-				// check if the movie has been already added to the search results
-				if (foundResultUrls.contains(sr.getUrl())) {
-					continue;
-				}
-				foundResultUrls.add(sr.getUrl());
+	/**
+	 * Creates the search result of a known AEBN id from its movie detail page, without a full text search.
+	 *
+	 * @param aebnId
+	 *            the AEBN id
+	 * @param locale
+	 *            the locale of the page, may be blank
+	 * @param searchString
+	 *            the search query
+	 * @return the search result or null if there is no such movie
+	 */
+	private static MediaSearchResult searchById(Integer aebnId, String locale, String searchString) {
+		LOGGER.debug("AEBN: search for aebnId({})", aebnId);
+		TitleIndex.Entry indexed = TITLE_INDEX == null ? null : TITLE_INDEX.get(aebnId);
+		if (indexed != null) {
+			AebnMetrics.count(Counter.SEARCH_DIRECT_ID);
+			return createDirectSearchResult(aebnId, indexed.title, locale, searchString);
+		}
+		try {
+			MovieDetails details = loadMovieDetails(aebnId, locale);
+			if (StringUtils.isBlank(details.title)) {
+				LOGGER.warn("AEBN: no movie with aebnId({}) found", aebnId);
+				return null;
+			}
+			AebnMetrics.count(Counter.SEARCH_DIRECT_ID);
+			MediaSearchResult sr = createDirectSearchResult(aebnId, details.title, locale, searchString);
+			sr.setYear(details.year);
+			return sr;
+		} catch (Exception e) {
+			LOGGER.warn("AEBN: could not load aebnId({}), searching by title: {}", aebnId, e.getMessage());
+			return null;
+		}
+	}
 
-				// populate extra arguments (deprecated)
-				// MetadataUtil.copySearchQueryToSearchResult(query, sr);
 
-				resultList.add(sr);
-			} catch (Exception e) {
-				LOGGER.warn("AEBN: error parsing search result: {}", e);
+	private static MediaSearchResult createDirectSearchResult(Integer aebnId, String title, String locale,
+			String searchString) {
+		MediaSearchResult sr = createSearchResult(aebnId.toString(), title, getMovieDetailUrl(aebnId, locale),
+				BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId + "_160w.jpg", searchString);
+		// the id is certain, whatever the title
+		sr.setScore(1.0f);
+		return sr;
+	}
+
+
+	/**
+	 * Searches the local title index for movies with exactly the searched title.
+	 *
+	 * @param searchString
+	 *            the search query
+	 * @return the indexed search results, best match first, or an empty list if no indexed title equals the query
+	 */
+	private static List<MediaSearchResult> searchIndex(String searchString) {
+		List<MediaSearchResult> resultList = new ArrayList<MediaSearchResult>();
+		for (TitleIndex.Entry entry : TITLE_INDEX.findExact(searchString)) {
+			resultList.add(createSearchResult(Integer.toString(entry.aebnId), entry.title,
+					getMovieDetailUrl(entry.aebnId, ""),
+					BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + entry.aebnId + "_160w.jpg", searchString));
+		}
+		Collections.sort(resultList);
+		Collections.reverse(resultList);
+		return resultList;
+	}
+
+
+	private static void indexSearchResults(List<MediaSearchResult> resultList) {
+		if (TITLE_INDEX == null) {
+			return;
+		}
+		List<TitleIndex.Entry> entries = new ArrayList<TitleIndex.Entry>(resultList.size());
+		for (MediaSearchResult sr : resultList) {
+			if (!StringUtils.isNumeric(sr.getId())) {
+				continue;
 			}
+			entries.add(new TitleIndex.Entry(Integer.parseInt(sr.getId()), sr.getTitle(), null, null));
+		}
+		TITLE_INDEX.addAll(entries);
+	}
+
+
+	/**
+	 * Searches page by page until a confident match is found.
+	 *
+	 * @param cleanedQuery
+	 *            the cleaned search query
+	 * @param searchString
+	 *            the search query, used for scoring
+	 * @param pageSize
+	 *            number of results requested per page
+	 * @return the search results, best match first
+	 */
+	private List<MediaSearchResult> searchPaged(String cleanedQuery, String searchString, int pageSize) {
+		LOGGER.info("========= BEGIN AEBN Scraper Search for: {}", searchString);
+		SearchPager pager = new SearchPager(PAGE_LOADER, cleanedQuery, searchString, pageSize, SEARCH_COUNT,
+				AebnSettings.getSearchConfidence());
+		List<MediaSearchResult> resultList = new ArrayList<MediaSearchResult>();
+		while (pager.hasNext()) {
+			resultList.add(pager.next());
+		}
+		LOGGER.debug("AEBN: found {} search results on {} pages", resultList.size(), pager.getPages());
+		Collections.sort(resultList);
+		Collections.reverse(resultList);
+		indexSearchResults(resultList);
+		if (!pager.isFailed()) {
+			// results missing a failed page would be served for the whole cache lifetime
+			SEARCH_CACHE.put(cleanedQuery, resultList);
+		}
+		return resultList;
+	}
+
+
+	/**
+	 * Searches for movies at aebn.net, requesting further result pages only while the returned iterator is consumed.
+	 *
+	 * @param query
+	 *            the search options
+	 * @return the search results in page order, best match first within a page
+	 * @throws Exception
+	 *             if the query could not be encoded
+	 */
+	public Iterator<MediaSearchResult> searchPaged(MediaSearchOptions query) throws Exception {
+		String searchString = StringUtils.defaultString(query.get(MediaSearchOptions.SearchParam.QUERY));
+		int pageSize = AebnSettings.getSearchPageSize();
+		return new SearchPager(PAGE_LOADER, cleanSearchQuery(searchString), searchString,
+				pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE, Integer.MAX_VALUE, Float.MAX_VALUE);
+	}
+
+
+	/**
+	 * Builds the url of a search page.
+	 *
+	 * @param cleanedQuery
+	 *            the cleaned search query
+	 * @param count
+	 *            number of results per page
+	 * @param page
+	 *            number of the page, starting with 1
+	 * @return the search page url
+	 * @throws UnsupportedEncodingException
+	 *             never
+	 */
+	static String getSearchUrl(String cleanedQuery, int count, int page) throws UnsupportedEncodingException {
+		String searchUrl = BASE_DATAURL + "/dispatcher/fts?userQuery=" + URLEncoder.encode(cleanedQuery, "UTF-8")
+				+ "&targetSearchMode=basic&isAdvancedSearch=true&isFlushAdvancedSearchCriteria=false" + "&count="
+				+ count + "&imageType=Large&sortType=Relevance";
+		if (page > 1) {
+			searchUrl = searchUrl + "&page=" + page;
 		}
+		return searchUrl;
+	}
+
+
+	/**
+	 * Parses the movies of a search page into search results, best match first.
+	 *
+	 * @param page
+	 *            the search page
+	 * @param searchString
+	 *            the search query, used for scoring
+	 * @return at most {@link #SEARCH_COUNT} distinct search results
+	 */
+	static List<MediaSearchResult> parseSearchResults(String page, String searchString) {
+		List<MediaSearchResult> resultList = parseSearchPage(page, searchString, new HashSet<String>(), SEARCH_COUNT,
+				Float.MAX_VALUE);
+		LOGGER.debug("AEBN: found {} search results", resultList.size());
 		Collections.sort(resultList);
 		Collections.reverse(resultList);
 
@@ -202,34 +440,329 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 	}
 
 
+	/**
+	 * Parses the movies of a search page into search results, in page order.
+	 *
+	 * @param page
+	 *            the search page
+	 * @param searchString
+	 *            the search query, used for scoring
+	 * @param foundResultUrls
+	 *            urls of the results found so far (e.g. on previous pages), which are skipped; the urls of the new
+	 *            results are added
+	 * @param limit
+	 *            maximum number of new results
+	 * @param confidence
+	 *            parsing stops after a result scoring at least this
+	 * @return the new search results
+	 */
+	static List<MediaSearchResult> parseSearchPage(String page, final String searchString,
+			final Set<String> foundResultUrls, final int limit, final float confidence) {
+		final List<MediaSearchResult> resultList = new ArrayList<MediaSearchResult>();
+
+		// only look for movie links like
+		// <a id="FTSMovieSearch_link_title_detail_30" ... </a>
+		SearchResultParser.parse(page, new SearchResultParser.Listener() {
+			@Override
+			public boolean found(String href, String movieId, String title) {
+				try {
+					String movieUrl = BASE_DATAURL + href;
+					String movieName = StringEscapeUtils.unescapeHtml4(title);
+					String posterUrl = BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + movieId + "_160w.jpg";
+					LOGGER.debug("AEBN: found movie {} (id{})", movieName, movieId);
+
+					// check if it is a valid AEBN id
+					if (!isValidAebnId(Integer.parseInt(movieId))) {
+						LOGGER.error("AEBN: id({}) is not a valid aebn id", movieId);
+					}
+
+					MediaSearchResult sr = createSearchResult(movieId, movieName, movieUrl, posterUrl, searchString);
+
+					// check if result has at least a title and id
+					if (StringUtils.isBlank(sr.getTitle()) || StringUtils.isBlank(sr.getId())) {
+						LOGGER.warn("AEBN: no title nor id, skipping");
+						return true;
+					}
+
+					// check if the movie has been already added to the search results
+					if (!foundResultUrls.add(sr.getUrl())) {
+						return true;
+					}
+
+					// populate extra arguments (deprecated)
+					// MetadataUtil.copySearchQueryToSearchResult(query, sr);
+
+					resultList.add(sr);
+					if (sr.getScore() >= confidence) {
+						LOGGER.debug("AEBN: confident match {}, stop parsing", movieName);
+						return false;
+					}
+				} catch (Exception e) {
+					LOGGER.warn("AEBN: error parsing search result: {}", e);
+				}
+				// stop parsing as soon as there are enough distinct movies
+				return resultList.size() < limit;
+			}
+		});
+		return resultList;
+	}
+
+
+	/**
+	 * Creates search results from cached ones, scored for the given search query.
+	 *
+	 * @param cached
+	 *            the cached search results
+	 * @param searchString
+	 *            the search query, used for scoring
+	 * @return the search results, best match first
+	 */
+	static List<MediaSearchResult> createSearchResults(List<SearchResultCache.Entry> cached, String searchString) {
+		List<MediaSearchResult> resultList = new ArrayList<MediaSearchResult>(cached.size());
+		for (SearchResultCache.Entry entry : cached) {
+			resultList.add(createSearchResult(entry.id, entry.title, entry.url, entry.posterUrl, searchString));
+		}
+		Collections.sort(resultList);
+		Collections.reverse(resultList);
+		return resultList;
+	}
+
+
+	/**
+	 * Creates a search result.
+	 *
+	 * @param movieId
+	 *            the AEBN id of the movie
+	 * @param movieName
+	 *            the title of the movie
+	 * @param movieUrl
+	 *            the url of the movie detail page
+	 * @param posterUrl
+	 *            the url of the poster
+	 * @param searchString
+	 *            the search query, used for scoring
+	 * @return the search result
+	 */
+	private static MediaSearchResult createSearchResult(String movieId, String movieName, String movieUrl,
+			String posterUrl, String searchString) {
+		MediaSearchResult sr = new MediaSearchResult(providerInfo.getId());
+		sr.setId(movieId);
+		sr.setIMDBId("");
+		sr.setTitle(movieName);
+		sr.setOriginalTitle(movieName);
+		// sr.setYear not possible, no data at this point
+		sr.setYear(null);
+		sr.setMediaType(MediaType.MOVIE);
+		sr.setUrl(movieUrl);
+		sr.setPosterUrl(posterUrl);
+
+		// compare score based on names
+		float score = MetadataUtil.calculateScore(searchString, movieName);
+		if (posterUrl.isEmpty() || posterUrl.contains("nopicture")
+				|| (ARTWORK_PROBER != null && ARTWORK_PROBER.isKnownMissing(movieId, posterUrl))) {
+			LOGGER.debug("AEBN: no poster - downgrading score by 0.01");
+			score = score - 0.01f;
+		}
+		sr.setScore(score);
+		return sr;
+	}
+
+
 	/**
 	 * Get movie meta data from aebn.net.
 	 *
 	 */
 	@Override
 	public MediaMetadata getMetadata(MediaScrapeOptions options) throws Exception {
+		return scrape(options, null, false);
+	}
+
+
+	/**
+	 * Scrapes the meta data of a movie without waiting for the star (actor) detail pages.
+	 * <p>
+	 * The meta data is returned as soon as the movie detail page is parsed, with all actors named but without their
+	 * images and fanart. A background thread fills a separate copy of the meta data (with the actor images and fanart)
+	 * once the star detail pages arrived; the returned meta data is never changed afterwards.
+	 *
+	 * @param options
+	 *            the scrape options
+	 * @param starsLoaded
+	 *            called with the completely filled meta data: with a separate copy by the background thread, or with
+	 *            the returned meta data in the calling thread if nothing had to be downloaded; may be null
+	 * @return the meta data, without actor images and fanart
+	 * @throws Exception
+	 *             if the scrape failed
+	 */
+	public MediaMetadata getMetadata(MediaScrapeOptions options, Consumer<MediaMetadata> starsLoaded)
+			throws Exception {
+		return scrape(options, starsLoaded, true);
+	}
+
+
+	private MediaMetadata scrape(MediaScrapeOptions options, final Consumer<MediaMetadata> starsLoaded, boolean lazy)
+			throws Exception {
 		LOGGER.debug("AEBN: getMetadata() {}", options);
 
 		// check if there is already meta data present in the result
 		if ((options.getResult() != null) && (options.getResult().getMediaMetadata() != null)) {
 			LOGGER.debug("AEBN: return metadata from cache");
-			return options.getResult().getMediaMetadata();
+			return reportStarsLoaded(options.getResult().getMediaMetadata(), starsLoaded);
+		}
+
+		MediaMetadata md = createPresetMetadata(options);
+		Integer aebnId = getAebnId(options);
+		if (!isValidAebnId(aebnId)) {
+			LOGGER.warn("AEBN: no or incorrect aebnId, aborting");
+			return reportStarsLoaded(md, starsLoaded);
 		}
 
+		// ID
+		md.setId(providerInfo.getId(), aebnId);
+		LOGGER.debug("AEBN: aebnId({})", aebnId);
+
+		// Base download url for data scraping
+		String locale = options.getLanguage().name();
+		String downloadUrl = getMovieDetailUrl(aebnId, locale);
+
+		// begin download and scrape
+		try {
+			LOGGER.debug("AEBN: download movie detail page");
+			MovieDetails details = loadMovieDetails(aebnId, locale);
+			if (lazy) {
+				fillMetadataLazily(md, aebnId, details, getStars(aebnId, locale, details, null), options)
+						.thenAccept(new Consumer<MediaMetadata>() {
+							@Override
+							public void accept(MediaMetadata filled) {
+								reportStarsLoaded(filled, starsLoaded);
+							}
+						});
+				return md;
+			}
+			fillMetadata(md, aebnId, details, getStars(aebnId, locale, details, null), options);
+		} catch (Exception e) {
+			LOGGER.error("AEBN: Error parsing {}: {}", downloadUrl, e);
+		}
+
+		return reportStarsLoaded(md, starsLoaded);
+	}
+
+
+	/**
+	 * Scrapes the meta data of a movie in several languages at once.
+	 * <p>
+	 * The movie detail pages of all languages are downloaded in parallel. The fields which do not depend on the
+	 * language (runtime, year, studio, scene thumbnails and the cast with its images and fanart) are taken from the
+	 * page of the first language, so the star detail pages are requested only once.
+	 *
+	 * @param options
+	 *            the scrape options, their language is ignored
+	 * @param languages
+	 *            the languages to scrape, the first one is preferred for the language independent fields
+	 * @return the meta data per language, in the order of the languages; without details for languages whose page
+	 *         could not be loaded
+	 * @throws Exception
+	 *             if the scrape failed
+	 */
+	public Map<MediaLanguages, MediaMetadata> getLocalizedMetadata(MediaScrapeOptions options,
+			List<MediaLanguages> languages) throws Exception {
+		LOGGER.debug("AEBN: getLocalizedMetadata() {} in {}", options, languages);
+		Map<MediaLanguages, MediaMetadata> result = new LinkedHashMap<MediaLanguages, MediaMetadata>();
+		Integer aebnId = getAebnId(options);
+		for (MediaLanguages language : languages) {
+			MediaMetadata md = createPresetMetadata(options);
+			if (isValidAebnId(aebnId)) {
+				md.setId(providerInfo.getId(), aebnId);
+			}
+			result.put(language, md);
+		}
+		if (!isValidAebnId(aebnId)) {
+			LOGGER.warn("AEBN: no or incorrect aebnId, aborting");
+			return result;
+		}
+
+		// the pages of all but the first language are loaded in the background
+		final Integer movieId = aebnId;
+		Map<MediaLanguages, CompletableFuture<MovieDetails>> pages =
+				new LinkedHashMap<MediaLanguages, CompletableFuture<MovieDetails>>();
+		for (final MediaLanguages language : result.keySet()) {
+			if (pages.isEmpty()) {
+				pages.put(language, null);
+				continue;
+			}
+			pages.put(language, CompletableFuture.supplyAsync(new Supplier<MovieDetails>() {
+				@Override
+				public MovieDetails get() {
+					try {
+						return loadMovieDetails(movieId, language.name());
+					} catch (IOException e) {
+						throw new CompletionException(e);
+					}
+				}
+			}, LANGUAGE_PAGES));
+		}
+
+		Map<MediaLanguages, MovieDetails> loaded = new LinkedHashMap<MediaLanguages, MovieDetails>();
+		for (Map.Entry<MediaLanguages, CompletableFuture<MovieDetails>> page : pages.entrySet()) {
+			String locale = page.getKey().name();
+			try {
+				loaded.put(page.getKey(), page.getValue() == null ? loadMovieDetails(aebnId, locale)
+						: page.getValue().join());
+			} catch (Exception e) {
+				LOGGER.error("AEBN: Error parsing {}: {}", getMovieDetailUrl(aebnId, locale),
+						e instanceof CompletionException ? e.getCause() : e);
+			}
+		}
+		if (loaded.isEmpty()) {
+			return result;
+		}
+
+		// the cast is taken from the first page loaded, so its star details are shared by all languages
+		Map.Entry<MediaLanguages, MovieDetails> shared = loaded.entrySet().iterator().next();
+		List<CompletableFuture<StarDetails>> stars = getStars(aebnId, shared.getKey().name(), shared.getValue(),
+				null);
+		for (Map.Entry<MediaLanguages, MovieDetails> page : loaded.entrySet()) {
+			MovieDetails details = page.getValue() == shared.getValue() ? page.getValue()
+					: page.getValue().withLanguageIndependentFields(shared.getValue());
+			fillMetadata(result.get(page.getKey()), aebnId, details, stars, options);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Creates meta data preset with the titles of the previous search result (if there is one).
+	 *
+	 * @param options
+	 *            the scrape options
+	 * @return the meta data
+	 */
+	private static MediaMetadata createPresetMetadata(MediaScrapeOptions options) {
 		MediaMetadata md = new MediaMetadata(providerInfo.getId());
-		Elements elements = null;
-		Element element = null;
+		if ((options.getResult() != null) && (options.getResult().getId() != null)) {
+			// Use core.Utils.RemoveSortableName() if you want e.g. "Bourne Legacy, The" -> "The Bourne Legacy".
+			md.storeMetadata(MediaMetadata.ORIGINAL_TITLE,
+					StrgUtils.removeCommonSortableName(options.getResult().getOriginalTitle()));
+			md.storeMetadata(MediaMetadata.TITLE, StrgUtils.removeCommonSortableName(options.getResult().getTitle()));
+		}
+		return md;
+	}
+
+
+	/**
+	 * Gets the AEBN id of the movie to scrape: from the previous search result, or else from the options.
+	 *
+	 * @param options
+	 *            the scrape options
+	 * @return the AEBN id, 0 if there is none
+	 */
+	private static Integer getAebnId(MediaScrapeOptions options) {
 		Integer aebnId = 0;
 
 		// get AebnId from previous search result
 		if ((options.getResult() != null) && (options.getResult().getId() != null)) {
 			aebnId = Integer.parseInt(options.getResult().getId());
 			LOGGER.debug("AEBN: aebnId() from previous search result = {}", aebnId);
-			// preset some values from search result (if there is one)
-			// Use core.Utils.RemoveSortableName() if you want e.g. "Bourne Legacy, The" -> "The Bourne Legacy".
-			md.storeMetadata(MediaMetadata.ORIGINAL_TITLE,
-					StrgUtils.removeCommonSortableName(options.getResult().getOriginalTitle()));
-			md.storeMetadata(MediaMetadata.TITLE, StrgUtils.removeCommonSortableName(options.getResult().getTitle()));
 		}
 
 		// or get AebnId from options
@@ -237,133 +770,377 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 			LOGGER.debug("AEBN: aebnId() from options = {}", options.getId(AEBNID));
 			aebnId = Integer.parseInt(options.getId(AEBNID));
 		}
+		return aebnId;
+	}
 
-		if (!isValidAebnId(aebnId)) {
-			LOGGER.warn("AEBN: no or incorrect aebnId, aborting");
-			return md;
+
+	private static MediaMetadata reportStarsLoaded(MediaMetadata md, Consumer<MediaMetadata> starsLoaded) {
+		if (starsLoaded != null) {
+			starsLoaded.accept(md);
 		}
+		return md;
+	}
 
-		// ID
-		md.setId(providerInfo.getId(), aebnId);
-		LOGGER.debug("AEBN: aebnId({})", aebnId);
 
-		// Base download url for data scraping
-		String downloadUrl = BASE_DATAURL + "/dispatcher/movieDetail?movieId=" + aebnId;
-		String locale = options.getLanguage().name();
-		if (!StringUtils.isBlank(locale)) {
-			downloadUrl = downloadUrl + "&locale=" + locale;
-			LOGGER.debug("AEBN: used locale({})", locale);
+	/**
+	 * Downloads (or gets from cache) and parses a movie detail page.
+	 * <p>
+	 * Concurrent calls for the same movie and locale share one download and parse.
+	 *
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param locale
+	 *            the locale of the page, may be blank
+	 * @return the movie details
+	 * @throws IOException
+	 *             if the page could not be loaded
+	 */
+	static MovieDetails loadMovieDetails(final Integer aebnId, final String locale) throws IOException {
+		return MOVIE_DETAILS.execute(aebnId + "/" + locale, new Callable<MovieDetails>() {
+			@Override
+			public MovieDetails call() throws IOException {
+				return fetchMovieDetails(aebnId, locale);
+			}
+		});
+	}
+
+
+	private static MovieDetails fetchMovieDetails(Integer aebnId, String locale) throws IOException {
+		String url = getMovieDetailUrl(aebnId, locale);
+		if (REFRESH_STORE != null) {
+			return fetchMovieDetailsIncrementally(aebnId, locale, url);
 		}
+		return extractMovieDetails(aebnId, locale, url, loadMovieDetailPage(url));
+	}
 
-		// begin download and scrape
+
+	/**
+	 * Loads a movie detail page, but only parses it if it changed since its last snapshot.
+	 *
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param locale
+	 *            the locale of the page, may be blank
+	 * @param url
+	 *            the movie detail page url
+	 * @return the movie details of the snapshot if the page did not change, else the new movie details
+	 * @throws IOException
+	 *             if the page could not be loaded
+	 */
+	private static MovieDetails fetchMovieDetailsIncrementally(Integer aebnId, String locale, String url)
+			throws IOException {
+		RefreshStore.Snapshot snapshot = REFRESH_STORE.get(aebnId, locale);
+		AebnResponse response;
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.DETAIL_FETCH, url);
 		try {
-			LOGGER.debug("AEBN: download movie detail page");
-			Url url = new Url(downloadUrl);
-			InputStream in = url.getInputStream();
-			Document document = Jsoup.parse(in, "UTF-8", "");
-			in.close();
-
-			// Title
-			// <h1 itemprop="name" class="md-movieTitle" >Titelname</h1>
-			LOGGER.debug("AEBN: parse title");
-			elements = document.getElementsByAttributeValue("class", "md-movieTitle");
-			if (elements.size() > 0) {
-				LOGGER.debug("AEBN: {} elements found (should be one!)", elements.size());
-				element = elements.first();
-				String movieTitle = cleanString(element.text());
-				LOGGER.debug("AEBN: title({})", movieTitle);
-				md.storeMetadata(MediaMetadata.TITLE, movieTitle);
+			if (snapshot == null) {
+				response = PAGE_LOADER.loadResponse(url);
+			} else {
+				response = PAGE_LOADER.loadResponse(url, snapshot.etag, snapshot.lastModified);
 			}
+			timer.success();
+		} finally {
+			timer.stop();
+		}
 
-			// Poster
-			// front cover:
-			// http://pic.aebn.net/Stream/Movie/Boxcovers/a66568_xlf.jpg
-			String posterUrl = BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString() + "_xlf.jpg";
-			md.storeMetadata(MediaMetadata.POSTER_URL, posterUrl);
-
-			// Fanart/Background
-			// http://pic.aebn.net/Stream/Movie/Scenes/a113324_s534541.jpg
-			// <img class="sceneThumbnail" alt="Scene Thumbnail" title="Scene Thumbnail" onError="..."
-			// src="http://pic.aebn.net/Stream/Movie/Scenes/a113324_s534544.jpg" onclick="..." />
-			LOGGER.debug("AEBN: parse fanart / scene thumbs");
-			elements = document.getElementsByAttributeValue("class", "SceneThumbnail");
-			LOGGER.debug("AEBN: {} elements found", elements.size());
-			int i = 1;
-			for (Element anchor : elements) {
-				String backgroundUrl = anchor.attr("src");
-				LOGGER.debug("AEBN: backgroundUrl{}({})", i, backgroundUrl);
-				md.storeMetadata("backgroundUrl" + Integer.valueOf(i).toString(), backgroundUrl);
-				i++;
-			}
+		String fingerprint = null;
+		if (response.getStatus() != HttpURLConnection.HTTP_NOT_MODIFIED) {
+			fingerprint = RefreshStore.fingerprint(response.getBody());
+		}
+		if (snapshot != null && (fingerprint == null ? response.getStatus() == HttpURLConnection.HTTP_NOT_MODIFIED
+				: fingerprint.equals(snapshot.fingerprint))) {
+			LOGGER.debug("AEBN: movie detail page of aebnId({}) did not change", aebnId);
+			AebnMetrics.count(Counter.DETAIL_UNCHANGED);
+			SCENE_THUMBNAILS.put(aebnId + "/" + locale, snapshot.details.sceneThumbnails);
+			return snapshot.details;
+		}
+		if (response.getStatus() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+			// not modified, but no snapshot (any more)
+			response = PAGE_LOADER.loadResponse(url);
+			fingerprint = RefreshStore.fingerprint(response.getBody());
+		}
 
-			// Runtime
-			LOGGER.debug("AEBN: parse runtime");
-			elements = document.getElementsByAttributeValue("id", "md-details").select("[itemprop=duration]");
-			if (elements.size() > 0) {
-				LOGGER.debug("AEBN: " + elements.size() + " elements found (should be one!)");
-				element = elements.first();
-				String movieRuntime = cleanString(element.attr("content"));
-				movieRuntime = StrgUtils.substr(movieRuntime, "PT(\\d+)M");
-				LOGGER.debug("AEBN: runtime({})", movieRuntime);
-				md.storeMetadata(MediaMetadata.RUNTIME, movieRuntime);
-			}
+		Document document;
+		timer = AebnMetrics.start(Phase.DETAIL_PARSE, url);
+		try {
+			document = response.parse("");
+			timer.success();
+		} finally {
+			timer.stop();
+		}
+		MovieDetails details = extractMovieDetails(aebnId, locale, url, document);
+		if (fingerprint != null) {
+			REFRESH_STORE.put(aebnId, locale, new RefreshStore.Snapshot(fingerprint, response.getEtag(),
+					response.getLastModified(), details, null));
+		}
+		return details;
+	}
 
-			// Year
-			LOGGER.debug("AEBN: parse year");
-			elements = document.getElementsByAttributeValue("id", "md-details").select("[itemprop=datePublished]");
-			if (elements.size() > 0) {
-				LOGGER.debug("AEBN: " + elements.size() + " elements found (should be one!)");
-				element = elements.first();
-				String movieYear = cleanString(element.attr("content"));
-				movieYear = StrgUtils.substr(movieYear, "(\\d+)-");
-				LOGGER.debug("AEBN: year({})", movieYear);
-				md.storeMetadata(MediaMetadata.YEAR, movieYear);
-			}
 
-			// Series (Collection)
-			LOGGER.debug("AEBN: parse collection");
-			elements = document.getElementsByAttributeValue("id", "md-details").select("[class=series]");
-			if (elements.size() > 0) {
-				LOGGER.debug("AEBN: {} elements found (should be one!)", elements.size());
-				element = elements.first();
-				String movieCollection = cleanString(element.text());
+	private static MovieDetails extractMovieDetails(Integer aebnId, String locale, String url, Document document) {
+		MovieDetails details;
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.DETAIL_EXTRACT, url);
+		try {
+			details = MovieDetails.parse(document);
+			timer.success();
+		} finally {
+			timer.stop();
+		}
+		SCENE_THUMBNAILS.put(aebnId + "/" + locale, details.sceneThumbnails);
+		if (TITLE_INDEX != null) {
+			TITLE_INDEX.add(aebnId, details.title, details.series, details.studio);
+		}
+		return details;
+	}
+
+
+	/**
+	 * Downloads (or gets from cache) and parses a movie detail page, timing both phases.
+	 *
+	 * @param url
+	 *            the movie detail page url
+	 * @return the parsed page
+	 * @throws IOException
+	 *             if the page could not be loaded
+	 */
+	private static Document loadMovieDetailPage(String url) throws IOException {
+		AebnResponse response;
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.DETAIL_FETCH, url);
+		try {
+			response = PAGE_LOADER.loadResponse(url);
+			timer.success();
+		} finally {
+			timer.stop();
+		}
+
+		timer = AebnMetrics.start(Phase.DETAIL_PARSE, url);
+		try {
+			Document document = response.parse("");
+			timer.success();
+			return document;
+		} finally {
+			timer.stop();
+		}
+	}
 
-				// Fake a TMDB_SET based on the hash value of the collection name
-				int movieCollectionHash = movieCollection.hashCode();
 
-				md.storeMetadata(MediaMetadata.COLLECTION_NAME, movieCollection);
-				md.storeMetadata(MediaMetadata.TMDB_SET, movieCollectionHash);
-				LOGGER.debug("AEBN: collection({}), hashcode({})", movieCollection, movieCollectionHash);
+	/**
+	 * Gets the star details of all (named) actors of a movie: from its snapshot if the movie did not change since it
+	 * was scraped (see {@link RefreshStore}), else by downloading the star detail pages.
+	 *
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param locale
+	 *            the locale of the movie detail page, may be blank
+	 * @param details
+	 *            the movie details
+	 * @param inFlight
+	 *            star details shared between several movies (keyed by star id), may be null
+	 * @return the future star details, in the order of the named actors
+	 */
+	static List<CompletableFuture<StarDetails>> getStars(final Integer aebnId, final String locale,
+			MovieDetails details, ConcurrentMap<String, CompletableFuture<StarDetails>> inFlight) {
+		final RefreshStore.Snapshot snapshot = REFRESH_STORE == null ? null : REFRESH_STORE.get(aebnId, locale);
+		if (snapshot == null || snapshot.details != details) {
+			return submitStars(details, inFlight);
+		}
+		if (snapshot.stars != null) {
+			List<CompletableFuture<StarDetails>> stars = new ArrayList<CompletableFuture<StarDetails>>();
+			for (StarDetails star : snapshot.stars) {
+				stars.add(CompletableFuture.completedFuture(star));
 			}
+			return stars;
+		}
 
-			// Studio
-			LOGGER.debug("AEBN: parse studio");
-			elements = document.getElementsByAttributeValue("id", "md-details").select("[itemprop=productionCompany]");
-			if (elements.size() > 0) {
-				LOGGER.debug("AEBN: {} elements found (should be one!)", elements.size());
-				String movieStudio = cleanString(elements.first().text());
-				LOGGER.debug("AEBN: studio({})", movieStudio);
-				md.storeMetadata(MediaMetadata.PRODUCTION_COMPANY, movieStudio);
+		// a new snapshot: store the star details once all are loaded
+		final List<CompletableFuture<StarDetails>> stars = submitStars(details, inFlight);
+		CompletableFuture.allOf(stars.toArray(new CompletableFuture<?>[0])).thenRun(new Runnable() {
+			@Override
+			public void run() {
+				List<StarDetails> loaded = new ArrayList<StarDetails>(stars.size());
+				for (CompletableFuture<StarDetails> star : stars) {
+					loaded.add(star.join());
+				}
+				REFRESH_STORE.put(aebnId, locale, snapshot.withStars(loaded));
 			}
+		});
+		return stars;
+	}
+
 
-			// Genre
-			LOGGER.debug("AEBN: parse genre");
-			elements = document.getElementsByAttributeValue("id", "md-details").select("[itemprop=genre]");
-			for (Element g : elements) {
-				md.addGenre(getTmmGenre(g.text()));
+	/**
+	 * Schedules the download of the star detail pages of all (named) actors of a movie.
+	 *
+	 * @param details
+	 *            the movie details
+	 * @param inFlight
+	 *            star details shared between several movies (keyed by star id), may be null
+	 * @return the future star details, in the order of the named actors
+	 */
+	static List<CompletableFuture<StarDetails>> submitStars(MovieDetails details,
+			ConcurrentMap<String, CompletableFuture<StarDetails>> inFlight) {
+		List<CompletableFuture<StarDetails>> stars = new ArrayList<CompletableFuture<StarDetails>>();
+		for (MovieDetails.Person actor : details.actors) {
+			if (!actor.name.isEmpty()) {
+				stars.add(STAR_FETCHER.submit(actor.id, BASE_DATAURL + actor.detailsUrl, inFlight));
 			}
-			// add basic genre, since all genres at AEBN could be summarised
-			// into this one
-			md.addGenre(MediaGenres.EROTIC);
-
-			// Certification
-			// no data scrapeable---but obviously it's adult only, so simply
-			// generate it
-			String movieCertification = null;
-			Certification certification = null;
-			String country = options.getCountry().getAlpha2();
-			LOGGER.debug("AEBN: generate certification for {}", country);
-			// @formatter:off
+		}
+		return stars;
+	}
+
+
+	/**
+	 * Creates empty meta data for a movie.
+	 *
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @return the meta data with the id set
+	 */
+	static MediaMetadata createMetadata(Integer aebnId) {
+		MediaMetadata md = new MediaMetadata(providerInfo.getId());
+		md.setId(providerInfo.getId(), aebnId);
+		return md;
+	}
+
+
+	/**
+	 * Fills the meta data of a movie.
+	 *
+	 * @param md
+	 *            the meta data to fill
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param details
+	 *            the movie details
+	 * @param stars
+	 *            the star details of the named actors (see {@link #submitStars(MovieDetails, ConcurrentMap)}), this
+	 *            method waits for them
+	 * @param options
+	 *            the scrape options (used for the certification)
+	 */
+	static void fillMetadata(MediaMetadata md, Integer aebnId, MovieDetails details,
+			List<? extends Future<StarDetails>> stars, MediaScrapeOptions options) {
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.METADATA_FILL, aebnId.toString());
+		try {
+			storeMetadata(md, aebnId, details, stars, options);
+			timer.success();
+		} finally {
+			timer.stop();
+		}
+	}
+
+
+	/**
+	 * Fills the meta data of a movie without waiting for the star details.
+	 * <p>
+	 * The actors are added by name at once. Once all star details are available, the thread completing the last of
+	 * them fills a separate copy of the meta data with the actor images and fanart; the given meta data is not touched
+	 * after this method returned, so the caller may hand it on.
+	 *
+	 * @param md
+	 *            the meta data to fill
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param details
+	 *            the movie details
+	 * @param stars
+	 *            the star details of the named actors (see {@link #submitStars(MovieDetails, ConcurrentMap)})
+	 * @param options
+	 *            the scrape options (used for the certification and the preset titles of the copy)
+	 * @return the completely filled copy, once all star details are loaded (also if some star pages failed)
+	 */
+	static CompletableFuture<MediaMetadata> fillMetadataLazily(MediaMetadata md, final Integer aebnId,
+			final MovieDetails details, final List<CompletableFuture<StarDetails>> stars,
+			final MediaScrapeOptions options) {
+		fillMetadata(md, aebnId, details, null, options);
+
+		return CompletableFuture.allOf(stars.toArray(new CompletableFuture<?>[0]))
+				.handle(new BiFunction<Void, Throwable, MediaMetadata>() {
+					@Override
+					public MediaMetadata apply(Void loaded, Throwable error) {
+						// failed star pages are logged by storeMetadata, their actors stay without image
+						MediaMetadata filled = createPresetMetadata(options);
+						filled.setId(providerInfo.getId(), aebnId);
+						storeMetadata(filled, aebnId, details, stars, options);
+						return filled;
+					}
+				});
+	}
+
+
+	/**
+	 * Stores the meta data of a movie.
+	 */
+	private static void storeMetadata(MediaMetadata md, Integer aebnId, MovieDetails details,
+			List<? extends Future<StarDetails>> stars, MediaScrapeOptions options) {
+		// Title
+		// <h1 itemprop="name" class="md-movieTitle" >Titelname</h1>
+		if (details.title != null) {
+			LOGGER.debug("AEBN: title({})", details.title);
+			md.storeMetadata(MediaMetadata.TITLE, details.title);
+		}
+
+		// Poster
+		// front cover:
+		// http://pic.aebn.net/Stream/Movie/Boxcovers/a66568_xlf.jpg
+		String posterUrl = BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString() + "_xlf.jpg";
+		md.storeMetadata(MediaMetadata.POSTER_URL, posterUrl);
+
+		// Fanart/Background
+		// http://pic.aebn.net/Stream/Movie/Scenes/a113324_s534541.jpg
+		// <img class="sceneThumbnail" alt="Scene Thumbnail" title="Scene Thumbnail" onError="..."
+		// src="http://pic.aebn.net/Stream/Movie/Scenes/a113324_s534544.jpg" onclick="..." />
+		int i = 1;
+		for (String backgroundUrl : details.sceneThumbnails) {
+			LOGGER.debug("AEBN: backgroundUrl{}({})", i, backgroundUrl);
+			md.storeMetadata("backgroundUrl" + Integer.valueOf(i).toString(), backgroundUrl);
+			i++;
+		}
+
+		// Runtime
+		if (details.runtime != null) {
+			LOGGER.debug("AEBN: runtime({})", details.runtime);
+			md.storeMetadata(MediaMetadata.RUNTIME, details.runtime);
+		}
+
+		// Year
+		if (details.year != null) {
+			LOGGER.debug("AEBN: year({})", details.year);
+			md.storeMetadata(MediaMetadata.YEAR, details.year);
+		}
+
+		// Series (Collection)
+		if (details.series != null) {
+			// Fake a TMDB_SET based on the hash value of the collection name
+			int movieCollectionHash = details.series.hashCode();
+
+			md.storeMetadata(MediaMetadata.COLLECTION_NAME, details.series);
+			md.storeMetadata(MediaMetadata.TMDB_SET, movieCollectionHash);
+			LOGGER.debug("AEBN: collection({}), hashcode({})", details.series, movieCollectionHash);
+		}
+
+		// Studio
+		if (details.studio != null) {
+			LOGGER.debug("AEBN: studio({})", details.studio);
+			md.storeMetadata(MediaMetadata.PRODUCTION_COMPANY, details.studio);
+		}
+
+		// Genre
+		for (String genre : details.genres) {
+			md.addGenre(getTmmGenre(genre));
+		}
+		// add basic genre, since all genres at AEBN could be summarised
+		// into this one
+		md.addGenre(MediaGenres.EROTIC);
+
+		// Certification
+		// no data scrapeable---but obviously it's adult only, so simply
+		// generate it
+		String movieCertification = null;
+		Certification certification = null;
+		String country = options.getCountry().getAlpha2();
+		LOGGER.debug("AEBN: generate certification for {}", country);
+		// @formatter:off
             if (country.equals("DE")) {	movieCertification = "FSK 18"; }
             if (country.equals("US")) {	movieCertification = "NC-17"; }
             if (country.equals("GB")) {	movieCertification = "R18"; }
@@ -373,106 +1150,69 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
             if (country.equals("IT")) { movieCertification = "V.M.18"; }
             if (country.equals("NL")) {	movieCertification = "16"; }
             // @formatter:on
-			certification = Certification.getCertification(options.getCountry(), movieCertification);
-			if (certification != null) {
-				LOGGER.debug("AEBN: certification({})", certification);
-				md.addCertification(certification);
-			}
-
-			// Plot and Tagline
-			LOGGER.debug("AEBN: parse plot");
-			elements = document.getElementsByAttributeValue("id", "md-details").select("[itemprop=about]");
-			if (elements.size() > 0) {
-				LOGGER.debug("AEBN: {} elements found (should be one!)", elements.size());
-				String moviePlot = cleanString(elements.first().text());
-				md.storeMetadata(MediaMetadata.PLOT, moviePlot);
-				// no separate tagline available, so extract the first sentence
-				// from the movie plot
-				String movieTagline = StrgUtils.substr(moviePlot, "^(.*?[.!?:])");
-				LOGGER.debug("AEBN: tagline(" + movieTagline + ")");
-				md.storeMetadata(MediaMetadata.TAGLINE, movieTagline);
-			}
-
-			// Actors
-			LOGGER.debug("AEBN: parse actors");
-			elements = document.getElementsByAttributeValue("id", "md-details").select("[itemprop=actor]");
-			LOGGER.debug("AEBN: {} actors found", elements.size());
-			for (Element anchor : elements) {
-				String actorid = StrgUtils.substr(anchor.toString(), "starId=(\\d+)");
-				String actorname = cleanString(anchor.select("[itemprop=name]").first().text());
-				String actordetailsurl = BASE_DATAURL + anchor.attr("href");
-				if (!actorname.isEmpty()) {
-					LOGGER.debug("AEBN: add actor id({}), name({}), details({})", actorid, actorname, actordetailsurl);
-					MediaCastMember cm = new MediaCastMember();
-					cm.setType(MediaCastMember.CastType.ACTOR);
-					cm.setName(actorname);
-					if (!actorid.isEmpty()) {
-						cm.setId(actorid);
-					}
+		certification = Certification.getCertification(options.getCountry(), movieCertification);
+		if (certification != null) {
+			LOGGER.debug("AEBN: certification({})", certification);
+			md.addCertification(certification);
+		}
 
-					// Actor detail page
-					try {
-						Url starurl = new Url(actordetailsurl);
-						InputStream starurlstream = starurl.getInputStream();
-						Document stardocument = Jsoup.parse(starurlstream, "UTF-8", "");
-						starurlstream.close();
-						Elements elements2 = stardocument.getElementsByAttributeValue("class", "StarInfo");
-						if (elements2.size() == 0) {
-							LOGGER.debug("AEBN: no additional actor details found");
-						} else {
-							// Actor image
-							String actorimage = elements2.select("[itemprop=image]").first().attr("src");
-							LOGGER.debug("AEBN: actor image({})", actorimage);
-							if (!actorimage.isEmpty()) {
-								cm.setImageUrl(actorimage);
-							}
-							// Actor 'fanart' images
-							// unsure if this is ever shown in tmm
-							elements2 = stardocument.getElementsByAttributeValue("class", "StarDetailGallery")
-									.select("a");
-							LOGGER.debug("AEBN: {} gallery images found", elements2.size());
-							for (Element thumbnail : elements2) {
-								LOGGER.debug("AEBN: add fanart image({})", thumbnail.attr("href"));
-								cm.addFanart(thumbnail.attr("href"));
-							}
-						}
-					} catch (Exception e) {
-						LOGGER.error("AEBN: Error downloading {}: {}", actordetailsurl, e);
-					}
+		// Plot and Tagline
+		if (details.plot != null) {
+			md.storeMetadata(MediaMetadata.PLOT, details.plot);
+			// no separate tagline available, so extract the first sentence
+			// from the movie plot
+			String movieTagline = StrgUtils.substr(details.plot, "^(.*?[.!?:])");
+			LOGGER.debug("AEBN: tagline({})", movieTagline);
+			md.storeMetadata(MediaMetadata.TAGLINE, movieTagline);
+		}
 
-					md.addCastMember(cm);
+		// Actors
+		// the star detail pages are downloaded in parallel, but the cast members are added in page order
+		LOGGER.debug("AEBN: {} actors found", details.actors.size());
+		int j = 0;
+		for (MovieDetails.Person actor : details.actors) {
+			String actordetailsurl = BASE_DATAURL + actor.detailsUrl;
+			if (!actor.name.isEmpty()) {
+				LOGGER.debug("AEBN: add actor id({}), name({}), details({})", actor.id, actor.name, actordetailsurl);
+				MediaCastMember cm = new MediaCastMember();
+				cm.setType(MediaCastMember.CastType.ACTOR);
+				cm.setName(actor.name);
+				if (!actor.id.isEmpty()) {
+					cm.setId(actor.id);
 				}
-			}
-
-			// Director
-			LOGGER.debug("AEBN: parse director");
-			elements = document.getElementsByAttributeValue("id", "md-details").select("[itemprop=director]");
-			if (elements.size() > 0) {
-				LOGGER.debug("AEBN: {} elements found (should be one!)", elements.size());
-				String directorid = StrgUtils.substr(elements.toString(), "directorID=(\\d+)");
-				String directorname = cleanString(elements.select("[itemprop=name]").first().text());
-				if (!directorname.isEmpty()) {
-					MediaCastMember cm = new MediaCastMember(CastType.DIRECTOR);
-					cm.setName(directorname);
-					if (!directorid.isEmpty()) {
-						cm.setId(directorid);
+				// Actor detail page
+				try {
+					if (stars != null) {
+						stars.get(j).get().applyTo(cm);
 					}
-					cm.setImageUrl("");
-					md.addCastMember(cm);
-					LOGGER.debug("AEBN: add director id({}), name({})", directorid, directorname);
+				} catch (ExecutionException e) {
+					LOGGER.error("AEBN: Error downloading {}: {}", actordetailsurl, e.getCause());
+				} catch (InterruptedException e) {
+					LOGGER.error("AEBN: interrupted while downloading {}", actordetailsurl);
+					Thread.currentThread().interrupt();
 				}
+				md.addCastMember(cm);
+				j++;
 			}
+		}
 
-			// Original Title
-			// if we have no original title, just copy the title
-			if (StringUtils.isBlank(md.getStringValue(MediaMetadata.ORIGINAL_TITLE))) {
-				md.storeMetadata(MediaMetadata.ORIGINAL_TITLE, md.getStringValue(MediaMetadata.TITLE));
+		// Director
+		if (details.director != null && !details.director.name.isEmpty()) {
+			MediaCastMember cm = new MediaCastMember(CastType.DIRECTOR);
+			cm.setName(details.director.name);
+			if (!details.director.id.isEmpty()) {
+				cm.setId(details.director.id);
 			}
-		} catch (Exception e) {
-			LOGGER.error("AEBN: Error parsing {}: {}", options.getResult().getUrl(), e);
+			cm.setImageUrl("");
+			md.addCastMember(cm);
+			LOGGER.debug("AEBN: add director id({}), name({})", details.director.id, details.director.name);
 		}
 
-		return md;
+		// Original Title
+		// if we have no original title, just copy the title
+		if (StringUtils.isBlank(md.getStringValue(MediaMetadata.ORIGINAL_TITLE))) {
+			md.storeMetadata(MediaMetadata.ORIGINAL_TITLE, md.getStringValue(MediaMetadata.TITLE));
+		}
 	}
 
 
@@ -487,7 +1227,6 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 	public List<MediaArtwork> getArtwork(MediaScrapeOptions options) throws Exception {
 		LOGGER.debug("AEBN: getArtwork() {}", options);
 		List<MediaArtwork> artwork = new ArrayList<MediaArtwork>();
-		MediaMetadata md;
 		Integer aebnId = 0;
 
 		// get aebnId from options
@@ -500,74 +1239,217 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 			return artwork;
 		}
 
+		boolean posters = (options.getArtworkType() == MediaArtworkType.ALL)
+				|| (options.getArtworkType() == MediaArtworkType.POSTER);
+		boolean backs = (options.getArtworkType() == MediaArtworkType.ALL)
+				|| (options.getArtworkType() == MediaArtworkType.DISC);
+		boolean backgrounds = (options.getArtworkType() == MediaArtworkType.ALL)
+				|| (options.getArtworkType() == MediaArtworkType.BACKGROUND);
+		String boxcoverUrl = BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString();
+		// only the scene thumbnails of the movie detail page are needed, no full meta data scrape
+		List<String> backgroundUrls = backgrounds ? getSceneThumbnails(options, aebnId) : new ArrayList<String>();
+
+		// check all candidate images at once, null if they are not checked
+		Map<String, ArtworkProber.Image> images = null;
+		if (ARTWORK_PROBER != null) {
+			List<String> urls = new ArrayList<String>();
+			if (posters) {
+				urls.addAll(
+						Arrays.asList(boxcoverUrl + "_xlf.jpg", boxcoverUrl + "_bf.jpg", boxcoverUrl + "_160w.jpg"));
+			}
+			if (backs) {
+				urls.addAll(Arrays.asList(boxcoverUrl + "_xlb.jpg", boxcoverUrl + "_bb.jpg"));
+			}
+			for (String backgroundUrl : backgroundUrls) {
+				urls.add(backgroundUrl);
+				urls.add(backgroundUrl.replace("_179_101", ""));
+			}
+			images = ARTWORK_PROBER.probe(aebnId.toString(), urls);
+		}
+
 		// Poster
-		if ((options.getArtworkType() == MediaArtworkType.ALL)
-				|| (options.getArtworkType() == MediaArtworkType.POSTER)) {
+		if (posters) {
 			// http://pic.aebn.net/Stream/Movie/Boxcovers/a136807_xlf.jpg
 			// http://pic.aebn.net/Stream/Movie/Boxcovers/a136807_bf.jpg
 			// http://pic.aebn.net/Stream/Movie/Boxcovers/a136807_160w.jpg
 			MediaArtwork ma = new MediaArtwork();
 			ma.setProviderId(providerInfo.getId());
-			String posterpreviewUrl = BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString() + "_xlf.jpg";
-			String posterUrl = posterpreviewUrl;
-			ma.setDefaultUrl(posterUrl);
-			ma.setPreviewUrl(posterpreviewUrl);
-			ma.addImageSize(380, 540, BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString() + "_xlf.jpg");
-			ma.addImageSize(220, 313, BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString() + "_bf.jpg");
-			ma.addImageSize(160, 227, BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString() + "_160w.jpg");
-			ma.setSizeOrder(FanartSizes.MEDIUM.getOrder());
-			ma.setLanguage(options.getLanguage().name());
-			ma.setType(MediaArtworkType.POSTER);
-			artwork.add(ma);
-			LOGGER.debug("AEBN: add poster({})", posterpreviewUrl);
+			String posterUrl = addImageSize(ma, 380, 540, boxcoverUrl + "_xlf.jpg", images, null);
+			posterUrl = addImageSize(ma, 220, 313, boxcoverUrl + "_bf.jpg", images, posterUrl);
+			posterUrl = addImageSize(ma, 160, 227, boxcoverUrl + "_160w.jpg", images, posterUrl);
+			if (posterUrl != null) {
+				ma.setDefaultUrl(posterUrl);
+				ma.setPreviewUrl(posterUrl);
+				ma.setSizeOrder(FanartSizes.MEDIUM.getOrder());
+				ma.setLanguage(options.getLanguage().name());
+				ma.setType(MediaArtworkType.POSTER);
+				artwork.add(ma);
+				LOGGER.debug("AEBN: add poster({})", posterUrl);
+			}
 		}
 
 		// Poster Back (stored as Disc)
-		if ((options.getArtworkType() == MediaArtworkType.ALL) || (options.getArtworkType() == MediaArtworkType.DISC)) {
+		if (backs) {
 			// http://pic.aebn.net/Stream/Movie/Boxcovers/a136807_xlb.jpg
 			// http://pic.aebn.net/Stream/Movie/Boxcovers/a136807_bb.jpg
 			MediaArtwork ma = new MediaArtwork();
 			ma.setProviderId(providerInfo.getId());
-			String posterpreviewUrl = BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString() + "_xlb.jpg";
-			String posterUrl = posterpreviewUrl;
-			ma.setDefaultUrl(posterUrl);
-			ma.setPreviewUrl(posterpreviewUrl);
-			ma.addImageSize(380, 540, BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString() + "_xlb.jpg");
-			ma.addImageSize(220, 313, BASE_IMGURL + "/Stream/Movie/Boxcovers/a" + aebnId.toString() + "_bb.jpg");
-			ma.setSizeOrder(FanartSizes.MEDIUM.getOrder());
-			ma.setLanguage(options.getLanguage().name());
-			ma.setType(MediaArtworkType.DISC);
-			artwork.add(ma);
-			LOGGER.debug("AEBN: add poster({})", posterpreviewUrl);
-		}
-
-		if ((options.getArtworkType() == MediaArtworkType.ALL)
-				|| (options.getArtworkType() == MediaArtworkType.BACKGROUND)) {
-			// Need to scrape movie metadata first (see getMetaData() -> Fanart/Background)
-			md = getMetadata(options);
-			LOGGER.debug("AEBN: return from media metadata scraping");
-			aebnId = Integer.parseInt(options.getId(AEBNID));
-			int i = 1;
-			while (!md.getStringValue("backgroundUrl" + Integer.valueOf(i).toString()).isEmpty()) {
-				MediaArtwork ma = new MediaArtwork();
-				ma.setProviderId(providerInfo.getId());
-				String backgroundUrl = md.getStringValue("backgroundUrl" + Integer.valueOf(i).toString());
-				ma.setDefaultUrl(backgroundUrl);
-				ma.setPreviewUrl(backgroundUrl.replace("_179_101", ""));
-				ma.addImageSize(179, 101, backgroundUrl);
-				ma.addImageSize(120, 68, backgroundUrl.replace("_179_101", ""));
+			String posterUrl = addImageSize(ma, 380, 540, boxcoverUrl + "_xlb.jpg", images, null);
+			posterUrl = addImageSize(ma, 220, 313, boxcoverUrl + "_bb.jpg", images, posterUrl);
+			if (posterUrl != null) {
+				ma.setDefaultUrl(posterUrl);
+				ma.setPreviewUrl(posterUrl);
+				ma.setSizeOrder(FanartSizes.MEDIUM.getOrder());
+				ma.setLanguage(options.getLanguage().name());
+				ma.setType(MediaArtworkType.DISC);
+				artwork.add(ma);
+				LOGGER.debug("AEBN: add poster({})", posterUrl);
+			}
+		}
+
+		for (String backgroundUrl : backgroundUrls) {
+			MediaArtwork ma = new MediaArtwork();
+			ma.setProviderId(providerInfo.getId());
+			String defaultUrl = addImageSize(ma, 179, 101, backgroundUrl, images, null);
+			String previewUrl = addImageSize(ma, 120, 68, backgroundUrl.replace("_179_101", ""), images, null);
+			if (defaultUrl == null) {
+				defaultUrl = previewUrl;
+			}
+			if (defaultUrl != null) {
+				ma.setDefaultUrl(defaultUrl);
+				ma.setPreviewUrl(previewUrl != null ? previewUrl : defaultUrl);
 				ma.setSizeOrder(FanartSizes.SMALL.getOrder());
 				ma.setLanguage(options.getLanguage().name());
 				ma.setType(MediaArtworkType.BACKGROUND);
 				artwork.add(ma);
-				LOGGER.debug("AEBN: add background({})", backgroundUrl);
-				i++;
+				LOGGER.debug("AEBN: add background({})", defaultUrl);
 			}
 		}
 		return artwork;
 	}
 
 
+	/**
+	 * Adds a candidate image size to an artwork, unless probing found the image missing.
+	 *
+	 * @param ma
+	 *            the artwork
+	 * @param width
+	 *            the expected width
+	 * @param height
+	 *            the expected height
+	 * @param url
+	 *            the image url
+	 * @param images
+	 *            the existing images (see {@link ArtworkProber}), null if the images are not probed
+	 * @param firstUrl
+	 *            the url of the first size added, null if none has been added
+	 * @return the url of the first size added, null if none has been added
+	 */
+	private static String addImageSize(MediaArtwork ma, int width, int height, String url,
+			Map<String, ArtworkProber.Image> images, String firstUrl) {
+		if (images != null) {
+			ArtworkProber.Image image = images.get(url);
+			if (image == null) {
+				LOGGER.debug("AEBN: skipping missing image {}", url);
+				return firstUrl;
+			}
+			if (image.width > 0 && image.height > 0) {
+				width = image.width;
+				height = image.height;
+			}
+		}
+		ma.addImageSize(width, height, url);
+		return firstUrl != null ? firstUrl : url;
+	}
+
+
+	/**
+	 * Gets the scene thumbnail urls of a movie for the background artwork.
+	 * <p>
+	 * They are taken from the meta data of a previous search result, the scene thumbnails of recently scraped movies
+	 * or the movie detail page (in this order), so at most one page is loaded and no actor pages at all.
+	 *
+	 * @param options
+	 *            the scrape options
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @return the scene thumbnail urls
+	 */
+	private List<String> getSceneThumbnails(MediaScrapeOptions options, Integer aebnId) {
+		List<String> backgroundUrls = new ArrayList<String>();
+		if ((options.getResult() != null) && (options.getResult().getMediaMetadata() != null)) {
+			MediaMetadata md = options.getResult().getMediaMetadata();
+			int i = 1;
+			while (!md.getStringValue("backgroundUrl" + Integer.valueOf(i).toString()).isEmpty()) {
+				backgroundUrls.add(md.getStringValue("backgroundUrl" + Integer.valueOf(i).toString()));
+				i++;
+			}
+			return backgroundUrls;
+		}
+
+		String locale = options.getLanguage().name();
+		List<String> cached = SCENE_THUMBNAILS.get(aebnId + "/" + locale);
+		if (cached != null) {
+			LOGGER.debug("AEBN: scene thumbnails of aebnId({}) found in cache", aebnId);
+			AebnMetrics.count(Counter.SCENE_CACHE_HIT);
+			return cached;
+		}
+		AebnMetrics.count(Counter.SCENE_CACHE_MISS);
+
+		final String downloadUrl = getMovieDetailUrl(aebnId, locale);
+		try {
+			// share the page with a running metadata scrape of this movie
+			CompletableFuture<MovieDetails> running = MOVIE_DETAILS.getRunning(aebnId + "/" + locale);
+			if (running != null) {
+				return SingleFlight.await(running).sceneThumbnails;
+			}
+			backgroundUrls = SCENE_THUMBNAIL_LOADS.execute(aebnId + "/" + locale, new Callable<List<String>>() {
+				@Override
+				public List<String> call() throws IOException {
+					return fetchSceneThumbnails(downloadUrl);
+				}
+			});
+			SCENE_THUMBNAILS.put(aebnId + "/" + locale, backgroundUrls);
+		} catch (Exception e) {
+			LOGGER.error("AEBN: Error parsing {}: {}", downloadUrl, e);
+		}
+		return backgroundUrls;
+	}
+
+
+	private static List<String> fetchSceneThumbnails(String downloadUrl) throws IOException {
+		Document document = loadMovieDetailPage(downloadUrl);
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.SCENE_EXTRACT, downloadUrl);
+		try {
+			List<String> backgroundUrls = MovieDetails.parseSceneThumbnails(document);
+			timer.success();
+			return backgroundUrls;
+		} finally {
+			timer.stop();
+		}
+	}
+
+
+	/**
+	 * Builds the url of a movie detail page.
+	 *
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param locale
+	 *            the locale of the page, may be blank
+	 * @return the movie detail page url
+	 */
+	private static String getMovieDetailUrl(Integer aebnId, String locale) {
+		String downloadUrl = BASE_DATAURL + "/dispatcher/movieDetail?movieId=" + aebnId;
+		if (!StringUtils.isBlank(locale)) {
+			downloadUrl = downloadUrl + "&locale=" + locale;
+			LOGGER.debug("AEBN: used locale({})", locale);
+		}
+		return downloadUrl;
+	}
+
+
 	/**
 	 * Maps scraper genres to internal TMM genres.
 	 *
@@ -575,7 +1457,7 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 	 *            genre name to map
 	 * @return MediaGenres genre
 	 */
-	private MediaGenres getTmmGenre(String genre) {
+	private static MediaGenres getTmmGenre(String genre) {
 		LOGGER.debug("AEBN: getTmmGenre() {}", genre);
 		MediaGenres g = null;
 		if (genre.isEmpty()) {
@@ -596,7 +1478,7 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 	 *            string to clean
 	 * @return the cleaned string
 	 */
-	private String cleanString(String oldString) {
+	static String cleanString(String oldString) {
 		if (StringUtils.isEmpty(oldString)) {
 			return "";
 		}
@@ -620,7 +1502,7 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 	 *            search query string to clean
 	 * @return the cleaned search query string
 	 */
-	private String cleanSearchQuery(String query) {
+	static String cleanSearchQuery(String query) {
 		if (StringUtils.isEmpty(query)) {
 			return "";
 		}
@@ -645,7 +1527,7 @@ public class AebnMetadataProvider implements IMovieMetadataProvider, IMediaArtwo
 	 *            the AEBN id to be validated
 	 * @return true if is a valid AEBN id, false otherwise
 	 */
-	private static boolean isValidAebnId(Integer aebnId) {
+	static boolean isValidAebnId(Integer aebnId) {
 		return ((aebnId != null) && (aebnId.intValue() > 0) && (aebnId.intValue() < 1000000));
 	}
 
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counters and latency histograms of the AEBN scraper.
+ * <p>
+ * Every timed phase is also reported as {@link AebnPhaseEvent} to Java Flight Recorder if the JVM has it. The metrics
+ * are exposed by the {@link AebnMetricsMXBean} named <code>org.tinymediamanager.scraper.aebn:type=Metrics</code>.
+ * <p>
+ * Latencies are counted in power of two microsecond buckets, so recording is lock free and constant time; percentiles
+ * are reported as the upper bound of their bucket.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+final class AebnMetrics {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AebnMetrics.class);
+	private static final int BUCKETS = 40;
+	static final String OBJECT_NAME = "org.tinymediamanager.scraper.aebn:type=Metrics";
+
+	/**
+	 * The timed phases.
+	 */
+	enum Phase {
+		/** download of a search (fts) page */
+		SEARCH_FETCH,
+		/** parsing of a search page */
+		SEARCH_PARSE,
+		/** download of a movie detail page */
+		DETAIL_FETCH,
+		/** Jsoup parsing of a movie detail page */
+		DETAIL_PARSE,
+		/** extraction of the md-details block */
+		DETAIL_EXTRACT,
+		/** extraction of the scene thumbnails */
+		SCENE_EXTRACT,
+		/** filling of the meta data, including the wait for the star details */
+		METADATA_FILL,
+		/** download of a star detail page */
+		STAR_FETCH,
+		/** parsing of a star detail page */
+		STAR_PARSE
+	}
+
+	/**
+	 * The plain counters.
+	 */
+	enum Counter {
+		SEARCH_CACHE_HIT,
+		SEARCH_CACHE_MISS,
+		/** searches answered by the movie detail page of an id found in the query */
+		SEARCH_DIRECT_ID,
+		/** searches answered by the local title index */
+		INDEX_HIT,
+		/** searches the local title index had no confident match for */
+		INDEX_MISS,
+		PAGE_CACHE_HIT,
+		PAGE_CACHE_MISS,
+		PAGE_CACHE_REVALIDATED,
+		PAGE_CACHE_STALE,
+		SCENE_CACHE_HIT,
+		SCENE_CACHE_MISS,
+		STAR_CACHE_HIT,
+		STAR_CACHE_MISS,
+		/** movie detail pages filled from a snapshot because they did not change */
+		DETAIL_UNCHANGED,
+		/** callers sharing a running movie detail page download */
+		DETAIL_COALESCED,
+		/** callers sharing a running star detail page download */
+		STAR_COALESCED,
+		/** callers sharing a running scene thumbnail load */
+		SCENE_COALESCED,
+		/** pages and star details loaded by another installation sharing the cache while waiting for it */
+		SHARED_CACHE_WAIT,
+		/** retried requests */
+		HTTP_RETRY,
+		/** 429 and 503 responses */
+		HTTP_THROTTLED,
+		/** requests failed fast by an open circuit breaker */
+		HTTP_REJECTED
+	}
+
+	private static final Map<Counter, LongAdder> COUNTERS = new EnumMap<Counter, LongAdder>(Counter.class);
+	private static final Map<Phase, Histogram> HISTOGRAMS = new EnumMap<Phase, Histogram>(Phase.class);
+
+	static {
+		for (Counter counter : Counter.values()) {
+			COUNTERS.put(counter, new LongAdder());
+		}
+		for (Phase phase : Phase.values()) {
+			HISTOGRAMS.put(phase, new Histogram());
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), new ObjectName(OBJECT_NAME));
+		} catch (JMException e) {
+			LOGGER.debug("AEBN: could not register metrics MBean: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * A running phase, see {@link AebnMetrics#start(Phase, String)}.
+	 */
+	static final class Timer {
+		private final Phase phase;
+		private final long start;
+		private final AebnPhaseEvent event;
+		private boolean succeeded;
+
+
+		private Timer(Phase phase, String subject) {
+			this.phase = phase;
+			this.start = System.nanoTime();
+			this.event = AebnPhaseEvent.begin(phase.name(), subject);
+		}
+
+
+		/**
+		 * Marks the phase as successful; phases stopped without are counted as failures.
+		 */
+		void success() {
+			succeeded = true;
+		}
+
+
+		/**
+		 * Stops the phase and records its latency.
+		 */
+		void stop() {
+			HISTOGRAMS.get(phase).record(System.nanoTime() - start, succeeded);
+			event.end(succeeded);
+		}
+	}
+
+	/**
+	 * Latency histogram of one phase.
+	 */
+	private static final class Histogram {
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+
+
+		void record(long nanos, boolean succeeded) {
+			long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+			buckets.incrementAndGet(Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros)));
+			totalNanos.add(nanos);
+			if (!succeeded) {
+				failures.increment();
+			}
+		}
+
+
+		long count() {
+			long count = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				count += buckets.get(i);
+			}
+			return count;
+		}
+
+
+		double percentileMillis(double percentile) {
+			long count = count();
+			if (count == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(count * percentile);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += buckets.get(i);
+				if (seen >= rank) {
+					return (1L << (i + 1)) / 1000.0;
+				}
+			}
+			return (1L << BUCKETS) / 1000.0;
+		}
+
+
+		void reset() {
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets.set(i, 0);
+			}
+			failures.reset();
+			totalNanos.reset();
+		}
+	}
+
+
+	private AebnMetrics() {
+	}
+
+
+	/**
+	 * Starts timing a phase.
+	 *
+	 * @param phase
+	 *            the phase
+	 * @param subject
+	 *            what the phase works on (e.g. the url), reported to JFR only
+	 * @return the running phase
+	 */
+	static Timer start(Phase phase, String subject) {
+		return new Timer(phase, subject);
+	}
+
+
+	/**
+	 * Increments a counter.
+	 *
+	 * @param counter
+	 *            the counter
+	 */
+	static void count(Counter counter) {
+		COUNTERS.get(counter).increment();
+	}
+
+
+	/**
+	 * Gets the value of a counter.
+	 *
+	 * @param counter
+	 *            the counter
+	 * @return the number of events since start or the last reset
+	 */
+	static long get(Counter counter) {
+		return COUNTERS.get(counter).sum();
+	}
+
+
+	/**
+	 * Gets the number of recorded runs of a phase.
+	 *
+	 * @param phase
+	 *            the phase
+	 * @return the number of runs since start or the last reset
+	 */
+	static long getCount(Phase phase) {
+		return HISTOGRAMS.get(phase).count();
+	}
+
+
+	/**
+	 * Gets the number of failed runs of a phase.
+	 *
+	 * @param phase
+	 *            the phase
+	 * @return the number of failures since start or the last reset
+	 */
+	static long getFailures(Phase phase) {
+		return HISTOGRAMS.get(phase).failures.sum();
+	}
+
+
+	/**
+	 * Resets all metrics.
+	 */
+	static void reset() {
+		for (LongAdder counter : COUNTERS.values()) {
+			counter.reset();
+		}
+		for (Histogram histogram : HISTOGRAMS.values()) {
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * JMX view of the metrics.
+	 */
+	private static final class MXBean implements AebnMetricsMXBean {
+		@Override
+		public Map<String, Long> getCounters() {
+			Map<String, Long> values = new LinkedHashMap<String, Long>();
+			for (Counter counter : Counter.values()) {
+				values.put(counter.name(), get(counter));
+			}
+			return values;
+		}
+
+
+		@Override
+		public Map<String, Long> getCounts() {
+			Map<String, Long> values = new LinkedHashMap<String, Long>();
+			for (Phase phase : Phase.values()) {
+				values.put(phase.name(), getCount(phase));
+			}
+			return values;
+		}
+
+
+		@Override
+		public Map<String, Long> getFailures() {
+			Map<String, Long> values = new LinkedHashMap<String, Long>();
+			for (Phase phase : Phase.values()) {
+				values.put(phase.name(), AebnMetrics.getFailures(phase));
+			}
+			return values;
+		}
+
+
+		@Override
+		public Map<String, Double> getMeanMillis() {
+			Map<String, Double> values = new LinkedHashMap<String, Double>();
+			for (Phase phase : Phase.values()) {
+				Histogram histogram = HISTOGRAMS.get(phase);
+				long count = histogram.count();
+				values.put(phase.name(), count == 0 ? 0 : histogram.totalNanos.sum() / 1e6 / count);
+			}
+			return values;
+		}
+
+
+		@Override
+		public Map<String, Double> getMedianMillis() {
+			return getPercentileMillis(0.5);
+		}
+
+
+		@Override
+		public Map<String, Double> getP99Millis() {
+			return getPercentileMillis(0.99);
+		}
+
+
+		private Map<String, Double> getPercentileMillis(double percentile) {
+			Map<String, Double> values = new LinkedHashMap<String, Double>();
+			for (Phase phase : Phase.values()) {
+				values.put(phase.name(), HISTOGRAMS.get(phase).percentileMillis(percentile));
+			}
+			return values;
+		}
+
+
+		@Override
+		public void reset() {
+			AebnMetrics.reset();
+		}
+	}
+
+}
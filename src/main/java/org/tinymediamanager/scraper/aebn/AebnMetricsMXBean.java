@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.util.Map;
+
+/**
+ * JMX interface of the AEBN scraper metrics, registered as <code>org.tinymediamanager.scraper.aebn:type=Metrics</code>.
+ * <p>
+ * All maps are keyed by counter or phase name.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+public interface AebnMetricsMXBean {
+
+	/**
+	 * @return cache hits and misses, retries and rejected requests
+	 */
+	Map<String, Long> getCounters();
+
+
+	/**
+	 * @return number of runs per phase
+	 */
+	Map<String, Long> getCounts();
+
+
+	/**
+	 * @return number of failed runs per phase
+	 */
+	Map<String, Long> getFailures();
+
+
+	/**
+	 * @return mean latency per phase in milliseconds
+	 */
+	Map<String, Double> getMeanMillis();
+
+
+	/**
+	 * @return median latency per phase in milliseconds
+	 */
+	Map<String, Double> getMedianMillis();
+
+
+	/**
+	 * @return 99th percentile latency per phase in milliseconds
+	 */
+	Map<String, Double> getP99Millis();
+
+
+	/**
+	 * Resets all metrics.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Java Flight Recorder event of a timed scraper phase (see {@link AebnMetrics.Phase}).
+ * <p>
+ * The event type is created at runtime by the <code>jdk.jfr.EventFactory</code>, which is looked up reflectively, so
+ * the scraper still runs on JVMs without Flight Recorder; there every event is a no-op.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+final class AebnPhaseEvent {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AebnPhaseEvent.class);
+	static final String NAME = "org.tinymediamanager.scraper.aebn.Phase";
+
+	private static final int PHASE = 0;
+	private static final int SUBJECT = 1;
+	private static final int SUCCEEDED = 2;
+
+	private static final AebnPhaseEvent DISABLED = new AebnPhaseEvent(null);
+
+	private static Object factory;
+	private static Method newEvent;
+	private static Method begin;
+	private static Method end;
+	private static Method shouldCommit;
+	private static Method commit;
+	private static Method set;
+
+	static {
+		try {
+			Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+			Constructor<?> annotation = annotationElement.getConstructor(Class.class, Object.class);
+			Constructor<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class,
+					String.class, List.class);
+			Class<?> name = Class.forName("jdk.jfr.Name");
+			Class<?> label = Class.forName("jdk.jfr.Label");
+			Class<?> description = Class.forName("jdk.jfr.Description");
+
+			List<Object> annotations = Arrays.asList(annotation.newInstance(name, NAME),
+					annotation.newInstance(label, "AEBN Scraper Phase"),
+					annotation.newInstance(Class.forName("jdk.jfr.Category"),
+							new String[] { "tinyMediaManager", "AEBN Scraper" }),
+					annotation.newInstance(Class.forName("jdk.jfr.StackTrace"), Boolean.FALSE));
+			List<Object> fields = Arrays.asList(
+					valueDescriptor.newInstance(String.class, "phase",
+							Collections.singletonList(annotation.newInstance(label, "Phase"))),
+					valueDescriptor.newInstance(String.class, "subject",
+							Arrays.asList(annotation.newInstance(label, "Subject"),
+									annotation.newInstance(description, "The url or id the phase works on"))),
+					valueDescriptor.newInstance(boolean.class, "succeeded",
+							Collections.singletonList(annotation.newInstance(label, "Succeeded"))));
+
+			Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+			Class<?> event = Class.forName("jdk.jfr.Event");
+			newEvent = eventFactory.getMethod("newEvent");
+			begin = event.getMethod("begin");
+			end = event.getMethod("end");
+			shouldCommit = event.getMethod("shouldCommit");
+			commit = event.getMethod("commit");
+			set = event.getMethod("set", int.class, Object.class);
+			factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+		} catch (Exception | LinkageError e) {
+			LOGGER.debug("AEBN: Java Flight Recorder not available, phases are not recorded: {}", e.toString());
+			factory = null;
+		}
+	}
+
+	private final Object event;
+
+
+	private AebnPhaseEvent(Object event) {
+		this.event = event;
+	}
+
+
+	/**
+	 * Checks whether the events are recorded by Java Flight Recorder.
+	 *
+	 * @return true if Flight Recorder is available in this JVM
+	 */
+	static boolean isAvailable() {
+		return factory != null;
+	}
+
+
+	/**
+	 * Begins the event of a phase.
+	 *
+	 * @param phase
+	 *            the phase name
+	 * @param subject
+	 *            the url or id the phase works on
+	 * @return the running event, a no-op if Flight Recorder is not available
+	 */
+	static AebnPhaseEvent begin(String phase, String subject) {
+		if (factory == null) {
+			return DISABLED;
+		}
+		try {
+			Object event = newEvent.invoke(factory);
+			set.invoke(event, PHASE, phase);
+			set.invoke(event, SUBJECT, subject);
+			begin.invoke(event);
+			return new AebnPhaseEvent(event);
+		} catch (Exception e) {
+			LOGGER.debug("AEBN: could not begin flight recorder event: {}", e.toString());
+			return DISABLED;
+		}
+	}
+
+
+	/**
+	 * Ends the event and commits it if the recording wants it.
+	 *
+	 * @param succeeded
+	 *            whether the phase succeeded
+	 */
+	void end(boolean succeeded) {
+		if (event == null) {
+			return;
+		}
+		try {
+			end.invoke(event);
+			if ((Boolean) shouldCommit.invoke(event)) {
+				set.invoke(event, SUCCEEDED, succeeded);
+				commit.invoke(event);
+			}
+		} catch (Exception e) {
+			LOGGER.debug("AEBN: could not commit flight recorder event: {}", e.toString());
+		}
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+/**
+ * A HTTP response of the AEBN web site.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class AebnResponse {
+	private final int status;
+	private final String etag;
+	private final String lastModified;
+	private final byte[] body;
+	private final long contentLength;
+
+
+	/**
+	 * @param status
+	 *            HTTP status code
+	 * @param etag
+	 *            value of the ETag header, empty if not sent
+	 * @param lastModified
+	 *            value of the Last-Modified header, empty if not sent
+	 * @param body
+	 *            the (decoded) response body
+	 */
+	AebnResponse(int status, String etag, String lastModified, byte[] body) {
+		this(status, etag, lastModified, body, body.length);
+	}
+
+
+	/**
+	 * @param status
+	 *            HTTP status code
+	 * @param etag
+	 *            value of the ETag header, empty if not sent
+	 * @param lastModified
+	 *            value of the Last-Modified header, empty if not sent
+	 * @param body
+	 *            the (decoded) response body
+	 * @param contentLength
+	 *            the full length of the resource, which is more than the body length for partial (206) responses
+	 */
+	AebnResponse(int status, String etag, String lastModified, byte[] body, long contentLength) {
+		this.status = status;
+		this.etag = etag == null ? "" : etag;
+		this.lastModified = lastModified == null ? "" : lastModified;
+		this.body = body;
+		this.contentLength = contentLength;
+	}
+
+
+	int getStatus() {
+		return status;
+	}
+
+
+	String getEtag() {
+		return etag;
+	}
+
+
+	String getLastModified() {
+		return lastModified;
+	}
+
+
+	byte[] getBody() {
+		return body;
+	}
+
+
+	/**
+	 * Gets the full length of the resource.
+	 *
+	 * @return the length in bytes; for partial responses the total length announced by the server
+	 */
+	long getContentLength() {
+		return contentLength;
+	}
+
+
+	/**
+	 * Gets the response body as text.
+	 *
+	 * @return the UTF-8 decoded body
+	 */
+	String getText() {
+		return new String(body, StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Parses the response body as HTML page.
+	 *
+	 * @param baseUrl
+	 *            base url to resolve relative links
+	 * @return the parsed page
+	 * @throws IOException
+	 *             if the body could not be parsed
+	 */
+	Document parse(String baseUrl) throws IOException {
+		return Jsoup.parse(new ByteArrayInputStream(body), "UTF-8", baseUrl);
+	}
+
+}
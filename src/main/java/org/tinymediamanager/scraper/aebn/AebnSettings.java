@@ -0,0 +1,436 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.File;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tuning options of the AEBN scraper.
+ * <p>
+ * All options are read from system properties, e.g. <code>-Daebn.stars.threads=8</code> in the tmm launcher
+ * configuration. Invalid values are logged and replaced by their defaults.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnMetadataProvider
+ *
+ */
+final class AebnSettings {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AebnSettings.class);
+
+
+	private AebnSettings() {
+	}
+
+
+	/**
+	 * Maximum number of star (actor) detail pages fetched in parallel for one movie.
+	 *
+	 * @return the number of parallel star page downloads, at least 1
+	 */
+	static int getStarThreads() {
+		return Math.max(1, getInt("aebn.stars.threads", 4));
+	}
+
+
+	/**
+	 * Whether snapshots of scraped movies are kept, so refreshes of unchanged movies neither parse the movie detail
+	 * page nor request star pages.
+	 *
+	 * @return true if refreshes are incremental
+	 */
+	static boolean isRefreshIncremental() {
+		return getBoolean("aebn.refresh.incremental", false);
+	}
+
+
+	/**
+	 * Maximum number of movie detail pages downloaded in parallel by the {@link AebnBatchScraper}.
+	 *
+	 * @return the number of parallel movie page downloads, at least 1
+	 */
+	static int getBatchThreads() {
+		return Math.max(1, getInt("aebn.batch.threads", 4));
+	}
+
+
+	/**
+	 * Whether virtual threads should be used for parallel downloads (if the running JVM supports them).
+	 *
+	 * @return true if virtual threads are requested
+	 */
+	static boolean useVirtualThreads() {
+		return getBoolean("aebn.virtualThreads", false);
+	}
+
+
+	/**
+	 * Base directory of the persistent caches.
+	 *
+	 * @return the cache directory
+	 */
+	static File getCacheDirectory() {
+		return new File(System.getProperty("aebn.cache.dir", "cache" + File.separator + "aebn"));
+	}
+
+
+	/**
+	 * Where the page and star caches keep their entries: <code>file</code> in a directory, or <code>memory</code> in
+	 * memory only.
+	 *
+	 * @return the cache backend
+	 * @see AebnCacheBackend
+	 */
+	static String getCacheBackend() {
+		String backend = System.getProperty("aebn.cache.backend", "file").trim().toLowerCase(Locale.ROOT);
+		if (!"file".equals(backend) && !"memory".equals(backend)) {
+			LOGGER.warn("AEBN: invalid value aebn.cache.backend={}, using file", backend);
+			return "file";
+		}
+		return backend;
+	}
+
+
+	/**
+	 * Directory shared by several installations for the page and star caches (e.g. on NFS), null to use the
+	 * {@link #getCacheDirectory()}.
+	 *
+	 * @return the shared cache directory or null
+	 */
+	static File getSharedCacheDirectory() {
+		String directory = System.getProperty("aebn.cache.shared");
+		if (StringUtils.isBlank(directory)) {
+			return null;
+		}
+		return new File(directory.trim());
+	}
+
+
+	/**
+	 * Maximum size of the page and of the star cache each if they are kept in memory only.
+	 *
+	 * @return the size in megabytes
+	 */
+	static int getCacheMemoryMegabytes() {
+		return Math.max(1, getInt("aebn.cache.memoryMB", 64));
+	}
+
+
+	/**
+	 * Maximum number of star details kept in memory.
+	 *
+	 * @return the number of cached star details
+	 */
+	static int getStarCacheEntries() {
+		return Math.max(0, getInt("aebn.stars.cacheEntries", 2000));
+	}
+
+
+	/**
+	 * Maximum number of star details kept on disk, 0 disables the persistent cache.
+	 *
+	 * @return the number of cached star detail files
+	 */
+	static int getStarCacheFiles() {
+		return Math.max(0, getInt("aebn.stars.cacheFiles", 50000));
+	}
+
+
+	/**
+	 * Time to live of cached star details.
+	 *
+	 * @return the time to live in hours
+	 */
+	static int getStarCacheHours() {
+		return Math.max(0, getInt("aebn.stars.cacheHours", 24 * 30));
+	}
+
+
+	/**
+	 * Time to live of cached movie detail and search pages, 0 disables the page cache.
+	 *
+	 * @return the time to live in hours
+	 */
+	static int getPageCacheHours() {
+		return Math.max(0, getInt("aebn.pages.cacheHours", 24));
+	}
+
+
+	/**
+	 * Maximum number of movie detail and search pages kept on disk.
+	 *
+	 * @return the number of cached pages
+	 */
+	static int getPageCacheFiles() {
+		return Math.max(1, getInt("aebn.pages.cacheFiles", 20000));
+	}
+
+
+	/**
+	 * Number of results requested per search page; 0 requests all results with one page.
+	 *
+	 * @return the page size
+	 */
+	static int getSearchPageSize() {
+		return Math.max(0, getInt("aebn.search.pageSize", 0));
+	}
+
+
+	/**
+	 * Score (0 to 1) of a search result after which no further search page is requested.
+	 *
+	 * @return the confidence threshold
+	 */
+	static float getSearchConfidence() {
+		String value = System.getProperty("aebn.search.confidence");
+		if (StringUtils.isBlank(value)) {
+			return 0.95f;
+		}
+		try {
+			return Float.parseFloat(value.trim());
+		} catch (NumberFormatException e) {
+			LOGGER.warn("AEBN: invalid value aebn.search.confidence={}, using 0.95", value);
+			return 0.95f;
+		}
+	}
+
+
+	/**
+	 * Maximum number of search queries whose results are kept in memory, 0 disables the search cache.
+	 *
+	 * @return the number of cached search queries
+	 */
+	static int getSearchCacheEntries() {
+		return Math.max(0, getInt("aebn.search.cacheEntries", 500));
+	}
+
+
+	/**
+	 * Time to live of cached search results.
+	 *
+	 * @return the time to live in minutes
+	 */
+	static int getSearchCacheMinutes() {
+		return Math.max(0, getInt("aebn.search.cacheMinutes", 60));
+	}
+
+
+	/**
+	 * Whether search results are cached on disk, too.
+	 *
+	 * @return true if the search cache is persistent
+	 */
+	static boolean isSearchCachePersistent() {
+		return getBoolean("aebn.search.persistent", false);
+	}
+
+
+	/**
+	 * Whether a local index of all titles seen is kept, and searches for an indexed title are answered from it.
+	 *
+	 * @return true if the title index is enabled
+	 */
+	static boolean isTitleIndexEnabled() {
+		return getBoolean("aebn.index", false);
+	}
+
+
+	/**
+	 * Whether artwork images are checked for existence (and their real dimensions) before they are returned.
+	 *
+	 * @return true if artwork is probed
+	 */
+	static boolean isArtworkProbing() {
+		return getBoolean("aebn.artwork.probe", false);
+	}
+
+
+	/**
+	 * Maximum number of artwork images probed in parallel.
+	 *
+	 * @return the number of parallel image requests, at least 1
+	 */
+	static int getArtworkThreads() {
+		return Math.max(1, getInt("aebn.artwork.threads", 4));
+	}
+
+
+	/**
+	 * Base url of the AEBN web site pages.
+	 *
+	 * @return the base url without trailing slash
+	 */
+	static String getDataUrl() {
+		return StringUtils.removeEnd(System.getProperty("aebn.dataUrl", "http://theater.aebn.net").trim(), "/");
+	}
+
+
+	/**
+	 * Base url of the AEBN images.
+	 *
+	 * @return the base url without trailing slash
+	 */
+	static String getImageUrl() {
+		return StringUtils.removeEnd(System.getProperty("aebn.imageUrl", "http://pic.aebn.net").trim(), "/");
+	}
+
+
+	/**
+	 * Connect timeout of HTTP requests.
+	 *
+	 * @return the timeout in milliseconds, at least 1
+	 */
+	static int getConnectTimeout() {
+		return Math.max(1, getInt("aebn.http.connectTimeout", 10000));
+	}
+
+
+	/**
+	 * Read timeout of HTTP requests.
+	 *
+	 * @return the timeout in milliseconds, at least 1
+	 */
+	static int getReadTimeout() {
+		return Math.max(1, getInt("aebn.http.readTimeout", 30000));
+	}
+
+
+	/**
+	 * Maximum number of requests per second to one AEBN host; the rate is lowered automatically while the site is
+	 * overloaded.
+	 *
+	 * @return the request rate, at least 1
+	 */
+	static int getRequestRate() {
+		return Math.max(1, getInt("aebn.http.rate", 10));
+	}
+
+
+	/**
+	 * Maximum number of retries of a request failing with a connection error, 429 or 5xx.
+	 *
+	 * @return the number of retries
+	 */
+	static int getRetries() {
+		return Math.max(0, getInt("aebn.http.retries", 3));
+	}
+
+
+	/**
+	 * Number of consecutive failed requests after which requests to a host fail fast.
+	 *
+	 * @return the number of failures, at least 1
+	 */
+	static int getBreakerThreshold() {
+		return Math.max(1, getInt("aebn.http.breakerThreshold", 5));
+	}
+
+
+	/**
+	 * Time requests to a failing host fail fast before it is tried again.
+	 *
+	 * @return the time in seconds
+	 */
+	static int getBreakerSeconds() {
+		return Math.max(0, getInt("aebn.http.breakerSeconds", 30));
+	}
+
+
+	/**
+	 * Longest Retry-After delay of a 429 or 503 response that is waited for; requests asked to wait longer fail at
+	 * once.
+	 *
+	 * @return the time in seconds
+	 */
+	static int getMaxRetryAfterSeconds() {
+		return Math.max(0, getInt("aebn.http.maxRetryAfter", 10));
+	}
+
+
+	/**
+	 * How requests are sent: <code>live</code> to the web site, <code>record</code> to the web site recording all
+	 * responses, or <code>replay</code> from the recorded responses only.
+	 *
+	 * @return the transport mode
+	 */
+	static String getTransportMode() {
+		String mode = System.getProperty("aebn.transport", "live").trim().toLowerCase(Locale.ROOT);
+		if (!"live".equals(mode) && !"record".equals(mode) && !"replay".equals(mode)) {
+			LOGGER.warn("AEBN: invalid value aebn.transport={}, using live", mode);
+			return "live";
+		}
+		return mode;
+	}
+
+
+	/**
+	 * Directory of the recorded responses (see {@link #getTransportMode()}).
+	 *
+	 * @return the recordings directory
+	 */
+	static File getTransportDirectory() {
+		String directory = System.getProperty("aebn.transport.dir");
+		if (StringUtils.isBlank(directory)) {
+			return new File(getCacheDirectory(), "recordings");
+		}
+		return new File(directory.trim());
+	}
+
+
+	/**
+	 * Reads an integer option.
+	 *
+	 * @param key
+	 *            system property name
+	 * @param defaultValue
+	 *            value used if the option is not set or invalid
+	 * @return the option value
+	 */
+	static int getInt(String key, int defaultValue) {
+		String value = System.getProperty(key);
+		if (StringUtils.isBlank(value)) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			LOGGER.warn("AEBN: invalid value {}={}, using {}", key, value, defaultValue);
+			return defaultValue;
+		}
+	}
+
+
+	/**
+	 * Reads a boolean option.
+	 *
+	 * @param key
+	 *            system property name
+	 * @param defaultValue
+	 *            value used if the option is not set
+	 * @return the option value
+	 */
+	static boolean getBoolean(String key, boolean defaultValue) {
+		String value = System.getProperty(key);
+		if (StringUtils.isBlank(value)) {
+			return defaultValue;
+		}
+		return Boolean.parseBoolean(value.trim());
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The transport used for all requests to the AEBN web site.
+ * <p>
+ * Besides the live site ({@link AebnHttpClient}), responses can be recorded to a directory ({@link RecordingTransport})
+ * and replayed from it later ({@link ReplayTransport}), e.g. for deterministic offline tests. The mode is selected by
+ * {@link AebnSettings#getTransportMode()}. Requests to the live site are throttled and retried by the
+ * {@link ResilientTransport}.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+interface AebnTransport {
+
+	/**
+	 * Sends a GET request.
+	 *
+	 * @param url
+	 *            the url to get
+	 * @param headers
+	 *            additional request headers
+	 * @return the response; 304 (not modified) responses have an empty body
+	 * @throws IOException
+	 *             if the request failed, {@link AebnHttpException} if the server answered with an error status
+	 */
+	AebnResponse get(String url, Map<String, String> headers) throws IOException;
+
+
+	/**
+	 * Creates the transport configured by the {@link AebnSettings}.
+	 *
+	 * @return the transport
+	 */
+	static AebnTransport create() {
+		Logger logger = LoggerFactory.getLogger(AebnTransport.class);
+		String mode = AebnSettings.getTransportMode();
+		File directory = AebnSettings.getTransportDirectory();
+		if ("replay".equals(mode)) {
+			logger.info("AEBN: replaying responses from {}", directory);
+			return new ReplayTransport(directory);
+		}
+		AebnTransport live = new ResilientTransport(new AebnHttpClient());
+		if ("record".equals(mode)) {
+			logger.info("AEBN: recording responses to {}", directory);
+			return new RecordingTransport(live, directory);
+		}
+		return live;
+	}
+
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks which artwork images of a movie actually exist, and reads their real dimensions.
+ * <p>
+ * Only the first 16 KB of every image are requested (which hold the dimensions of all usual images) and the full
+ * length is taken from the Content-Range header, so one small request per image does the job of a HEAD request and
+ * more. The images are probed in parallel; the results are cached per movie. Images which cannot be probed because of
+ * network or server errors are assumed to exist, but not cached.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class ArtworkProber {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ArtworkProber.class);
+	private static final int HEAD_BYTES = 16384;
+	private static final Image MISSING = new Image(0, 0, 0);
+	private static final Image UNKNOWN = new Image(0, 0, 0);
+
+	private final AebnTransport transport;
+	private final ExecutorService executor;
+	private final LruCache<String, ConcurrentMap<String, Image>> probed;
+
+	/**
+	 * A probed image.
+	 */
+	static final class Image {
+		/** width in pixels, 0 if unknown */
+		final int width;
+		/** height in pixels, 0 if unknown */
+		final int height;
+		/** length in bytes, 0 if unknown */
+		final long length;
+
+
+		Image(int width, int height, long length) {
+			this.width = width;
+			this.height = height;
+			this.length = length;
+		}
+	}
+
+
+	/**
+	 * @param transport
+	 *            the transport for the image requests
+	 * @param threads
+	 *            maximum number of images probed in parallel
+	 * @param maxMovies
+	 *            maximum number of movies whose results are cached
+	 * @param ttlMillis
+	 *            time to live of cached results in milliseconds
+	 */
+	ArtworkProber(AebnTransport transport, int threads, int maxMovies, long ttlMillis) {
+		this.transport = transport;
+		this.executor = AebnExecutors.newExecutor("aebn-artwork", threads);
+		this.probed = new LruCache<String, ConcurrentMap<String, Image>>(maxMovies, ttlMillis);
+	}
+
+
+	/**
+	 * Creates the prober configured by the {@link AebnSettings}.
+	 *
+	 * @param transport
+	 *            the transport for the image requests
+	 * @return the artwork prober or null if probing is disabled
+	 */
+	static ArtworkProber create(AebnTransport transport) {
+		if (!AebnSettings.isArtworkProbing()) {
+			return null;
+		}
+		return new ArtworkProber(transport, AebnSettings.getArtworkThreads(), 1000, TimeUnit.HOURS.toMillis(24));
+	}
+
+
+	/**
+	 * Probes the artwork images of a movie.
+	 *
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param urls
+	 *            the image urls
+	 * @return the existing images, keyed by url
+	 */
+	Map<String, Image> probe(String aebnId, Collection<String> urls) {
+		ConcurrentMap<String, Image> known = getKnown(aebnId);
+		Map<String, Future<Image>> running = new LinkedHashMap<String, Future<Image>>();
+		for (final String url : urls) {
+			if (!known.containsKey(url) && !running.containsKey(url)) {
+				running.put(url, executor.submit(new Callable<Image>() {
+					@Override
+					public Image call() throws IOException {
+						return probe(url);
+					}
+				}));
+			}
+		}
+
+		Map<String, Image> images = new HashMap<String, Image>();
+		for (Map.Entry<String, Future<Image>> entry : running.entrySet()) {
+			try {
+				known.put(entry.getKey(), entry.getValue().get());
+			} catch (ExecutionException e) {
+				LOGGER.debug("AEBN: could not probe {}: {}", entry.getKey(), e.getCause().getMessage());
+				images.put(entry.getKey(), UNKNOWN);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				images.put(entry.getKey(), UNKNOWN);
+			}
+		}
+		for (String url : urls) {
+			Image image = known.get(url);
+			if (image != null && image != MISSING) {
+				images.put(url, image);
+			}
+		}
+		return images;
+	}
+
+
+	/**
+	 * Checks whether an image is known to be missing, without probing it.
+	 *
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param url
+	 *            the image url
+	 * @return true if the image has been probed and does not exist
+	 */
+	boolean isKnownMissing(String aebnId, String url) {
+		Map<String, Image> known = probed.get(aebnId);
+		return known != null && known.get(url) == MISSING;
+	}
+
+
+	private ConcurrentMap<String, Image> getKnown(String aebnId) {
+		synchronized (probed) {
+			ConcurrentMap<String, Image> known = probed.get(aebnId);
+			if (known == null) {
+				known = new ConcurrentHashMap<String, Image>();
+				probed.put(aebnId, known);
+			}
+			return known;
+		}
+	}
+
+
+	private Image probe(String url) throws IOException {
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put("Range", "bytes=0-" + (HEAD_BYTES - 1));
+		// the dimensions have to be read from the raw image data
+		headers.put("Accept-Encoding", "identity");
+		AebnResponse response;
+		try {
+			response = transport.get(url, headers);
+		} catch (AebnHttpException e) {
+			if (e.isTransient()) {
+				throw e;
+			}
+			LOGGER.debug("AEBN: image {} does not exist ({})", url, e.getStatus());
+			return MISSING;
+		}
+
+		byte[] head = response.getBody();
+		if (!isImage(head)) {
+			LOGGER.debug("AEBN: {} is no image", url);
+			return MISSING;
+		}
+		int[] size = readDimensions(head);
+		if (size == null) {
+			return new Image(0, 0, response.getContentLength());
+		}
+		return new Image(size[0], size[1], response.getContentLength());
+	}
+
+
+	/**
+	 * Checks the signature of a JPEG, PNG or GIF image.
+	 *
+	 * @param head
+	 *            the first bytes of the file
+	 * @return true if it is an image
+	 */
+	static boolean isImage(byte[] head) {
+		if (head.length >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+			return true;
+		}
+		if (head.length >= 8 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+			return true;
+		}
+		return head.length >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F';
+	}
+
+
+	/**
+	 * Reads the dimensions of a JPEG, PNG or GIF image from its first bytes.
+	 *
+	 * @param head
+	 *            the first bytes of the file
+	 * @return width and height, or null if they are not within the given bytes
+	 */
+	static int[] readDimensions(byte[] head) {
+		if (!isImage(head)) {
+			return null;
+		}
+		if (head[0] == 'G') {
+			if (head.length < 10) {
+				return null;
+			}
+			return new int[] { (head[6] & 0xFF) | (head[7] & 0xFF) << 8, (head[8] & 0xFF) | (head[9] & 0xFF) << 8 };
+		}
+		if ((head[0] & 0xFF) == 0x89) {
+			// the IHDR chunk comes first
+			if (head.length < 24) {
+				return null;
+			}
+			return new int[] { readInt(head, 16), readInt(head, 20) };
+		}
+
+		// JPEG: walk the marker segments up to the start of frame
+		int pos = 2;
+		while (pos + 9 < head.length) {
+			if ((head[pos] & 0xFF) != 0xFF) {
+				return null;
+			}
+			int marker = head[pos + 1] & 0xFF;
+			if (marker == 0xFF) {
+				// fill byte
+				pos++;
+				continue;
+			}
+			if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+				int height = (head[pos + 5] & 0xFF) << 8 | (head[pos + 6] & 0xFF);
+				int width = (head[pos + 7] & 0xFF) << 8 | (head[pos + 8] & 0xFF);
+				return new int[] { width, height };
+			}
+			pos += 2 + ((head[pos + 2] & 0xFF) << 8 | (head[pos + 3] & 0xFF));
+		}
+		return null;
+	}
+
+
+	private static int readInt(byte[] bytes, int offset) {
+		return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8
+				| (bytes[offset + 3] & 0xFF);
+	}
+
+}
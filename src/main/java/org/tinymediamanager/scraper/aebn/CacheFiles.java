@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helpers for the file based caches.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+final class CacheFiles {
+	private static final Logger LOGGER = LoggerFactory.getLogger(CacheFiles.class);
+
+
+	private CacheFiles() {
+	}
+
+	/**
+	 * Writes the content of a cache file.
+	 */
+	interface Writer {
+		void write(OutputStream out) throws IOException;
+	}
+
+
+	/**
+	 * Writes a cache file atomically: the content is written to a temporary file first, which is then renamed. Readers
+	 * therefore never see partially written files.
+	 *
+	 * @param file
+	 *            the cache file
+	 * @param writer
+	 *            writes the content
+	 * @throws IOException
+	 *             if the file could not be written
+	 */
+	static void writeAtomically(File file, Writer writer) throws IOException {
+		File directory = file.getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+			throw new IOException("could not create cache directory " + directory);
+		}
+		// unique across threads and installations sharing the directory
+		File tempFile = File.createTempFile(file.getName() + ".", ".tmp", directory);
+		try {
+			OutputStream out = new FileOutputStream(tempFile);
+			try {
+				writer.write(out);
+			} finally {
+				out.close();
+			}
+			if (!tempFile.renameTo(file)) {
+				file.delete();
+				if (!tempFile.renameTo(file)) {
+					throw new IOException("could not rename " + tempFile);
+				}
+			}
+		} finally {
+			tempFile.delete();
+		}
+	}
+
+
+	/**
+	 * Deletes the oldest cache files if there are more than allowed. Pruning is best effort: files changed or deleted
+	 * meanwhile (e.g. by another installation sharing the directory) are skipped, and failures are only logged.
+	 *
+	 * @param directory
+	 *            the cache directory
+	 * @param suffix
+	 *            file name suffix of the cache files
+	 * @param maxFiles
+	 *            maximum number of files to keep
+	 */
+	static void prune(File directory, final String suffix, int maxFiles) {
+		try {
+			File[] files = directory.listFiles(new FilenameFilter() {
+				@Override
+				public boolean accept(File dir, String name) {
+					return name.endsWith(suffix);
+				}
+			});
+			if (files == null || files.length <= maxFiles) {
+				return;
+			}
+			// the times are read once, as other writers keep touching the files while sorting
+			final long[] modified = new long[files.length];
+			Integer[] order = new Integer[files.length];
+			for (int i = 0; i < files.length; i++) {
+				modified[i] = files[i].lastModified();
+				order[i] = i;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer i1, Integer i2) {
+					return Long.compare(modified[i1], modified[i2]);
+				}
+			});
+			int toDelete = files.length - maxFiles;
+			LOGGER.debug("AEBN: pruning {} files from {}", toDelete, directory);
+			for (int i = 0; i < toDelete; i++) {
+				files[order[i]].delete();
+			}
+		} catch (RuntimeException e) {
+			LOGGER.warn("AEBN: could not prune {}: {}", directory, e.getMessage());
+		}
+	}
+
+}
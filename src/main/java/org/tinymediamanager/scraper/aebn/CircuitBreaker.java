@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+/**
+ * A circuit breaker for one host.
+ * <p>
+ * After a number of consecutive failures the circuit opens and requests fail fast for a cool down period. Then a
+ * single trial request is let through (half open): if it succeeds the circuit closes again, otherwise it stays open
+ * for another period.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see ResilientTransport
+ *
+ */
+class CircuitBreaker {
+	private final int threshold;
+	private final long cooldownMillis;
+	private int failures;
+	private long openUntil;
+	private Thread trial;
+
+
+	/**
+	 * @param threshold
+	 *            number of consecutive failures opening the circuit
+	 * @param cooldownMillis
+	 *            time the circuit stays open in milliseconds
+	 */
+	CircuitBreaker(int threshold, long cooldownMillis) {
+		this.threshold = threshold;
+		this.cooldownMillis = cooldownMillis;
+	}
+
+
+	/**
+	 * Checks whether a request may be sent.
+	 *
+	 * @return false if the circuit is open and the request should fail fast
+	 */
+	synchronized boolean allowRequest() {
+		if (failures < threshold) {
+			return true;
+		}
+		if (System.currentTimeMillis() < openUntil || trial != null) {
+			return false;
+		}
+		trial = Thread.currentThread();
+		return true;
+	}
+
+
+	/**
+	 * Signals a request answered by the healthy host.
+	 */
+	synchronized void onSuccess() {
+		failures = 0;
+		trial = null;
+	}
+
+
+	/**
+	 * Signals a failed request.
+	 */
+	synchronized void onFailure() {
+		failures++;
+		trial = null;
+		if (failures >= threshold) {
+			openUntil = System.currentTimeMillis() + cooldownMillis;
+		}
+	}
+
+
+	/**
+	 * Signals a request given up before it was sent, e.g. because the thread was interrupted while waiting for the rate
+	 * limiter. The trial request granted to the current thread, if any, is released for the next caller.
+	 */
+	synchronized void onCancel() {
+		if (trial == Thread.currentThread()) {
+			trial = null;
+		}
+	}
+
+
+	synchronized boolean isOpen() {
+		return failures >= threshold;
+	}
+
+}
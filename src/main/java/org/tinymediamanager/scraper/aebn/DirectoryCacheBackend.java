@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache backend storing one file per entry in a directory, which may be shared by several installations (e.g. on
+ * NFS).
+ * <p>
+ * Files are written to a uniquely named temporary file and renamed (see {@link CacheFiles#writeAtomically}), so
+ * readers need no locks. Claims are lock files created atomically next to the entries; a lock file older than the
+ * lease is considered abandoned. If there are more files than allowed, the oldest ones are deleted.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class DirectoryCacheBackend implements AebnCacheBackend {
+	private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryCacheBackend.class);
+	private static final String LOCK_SUFFIX = ".lock";
+
+	private final File directory;
+	private final String suffix;
+	private final int maxFiles;
+	private final AtomicInteger writesSincePrune = new AtomicInteger();
+
+
+	/**
+	 * @param directory
+	 *            the cache directory
+	 * @param suffix
+	 *            file name suffix of the entries
+	 * @param maxFiles
+	 *            maximum number of entries
+	 */
+	DirectoryCacheBackend(File directory, String suffix, int maxFiles) {
+		this.directory = directory;
+		this.suffix = suffix;
+		this.maxFiles = maxFiles;
+	}
+
+
+	@Override
+	public byte[] get(String key) throws IOException {
+		try {
+			return Files.readAllBytes(getFile(key).toPath());
+		} catch (NoSuchFileException | FileNotFoundException e) {
+			return null;
+		}
+	}
+
+
+	@Override
+	public void put(String key, final byte[] value) throws IOException {
+		CacheFiles.writeAtomically(getFile(key), new CacheFiles.Writer() {
+			@Override
+			public void write(OutputStream out) throws IOException {
+				out.write(value);
+			}
+		});
+
+		// checking the number of files is expensive, so only do it every now and then
+		if (writesSincePrune.incrementAndGet() >= Math.max(1, maxFiles / 10)) {
+			writesSincePrune.set(0);
+			prune();
+		}
+	}
+
+
+	@Override
+	public List<String> keys() {
+		String[] names = directory.list(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(suffix);
+			}
+		});
+		List<String> keys = new ArrayList<String>();
+		if (names != null) {
+			for (String name : names) {
+				keys.add(name.substring(0, name.length() - suffix.length()));
+			}
+		}
+		return keys;
+	}
+
+
+	@Override
+	public synchronized void prune() {
+		CacheFiles.prune(directory, suffix, maxFiles);
+	}
+
+
+	@Override
+	public boolean claim(String key, long leaseMillis) {
+		File lock = new File(directory, key + LOCK_SUFFIX);
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+				return true;
+			}
+			if (lock.createNewFile()) {
+				return true;
+			}
+			long modified = lock.lastModified();
+			if (modified != 0 && System.currentTimeMillis() - modified > leaseMillis) {
+				LOGGER.debug("AEBN: taking over abandoned claim {}", lock);
+				lock.delete();
+				return lock.createNewFile();
+			}
+			return false;
+		} catch (IOException e) {
+			// without a working lock, loading twice is better than not at all
+			LOGGER.debug("AEBN: could not claim {}: {}", lock, e.getMessage());
+			return true;
+		}
+	}
+
+
+	@Override
+	public void release(String key) {
+		new File(directory, key + LOCK_SUFFIX).delete();
+	}
+
+
+	private File getFile(String key) {
+		return new File(directory, key + suffix);
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small thread safe in-memory LRU cache with a time to live.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            value type
+ */
+class LruCache<K, V> {
+	private final Map<K, CacheEntry<V>> entries;
+	private final long ttlMillis;
+
+
+	/**
+	 * @param maxEntries
+	 *            maximum number of entries, the least recently used one is dropped first
+	 * @param ttlMillis
+	 *            time to live of an entry in milliseconds
+	 */
+	LruCache(final int maxEntries, long ttlMillis) {
+		this.ttlMillis = ttlMillis;
+		this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+
+	/**
+	 * Gets a cached value.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the value or null if there is none or it is expired
+	 */
+	synchronized V get(K key) {
+		CacheEntry<V> entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (isExpired(entry.created)) {
+			entries.remove(key);
+			return null;
+		}
+		return entry.value;
+	}
+
+
+	/**
+	 * Caches a value created now.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 */
+	void put(K key, V value) {
+		put(key, value, System.currentTimeMillis());
+	}
+
+
+	/**
+	 * Caches a value.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 * @param created
+	 *            creation time of the value (used for the time to live)
+	 */
+	synchronized void put(K key, V value, long created) {
+		if (!isExpired(created)) {
+			entries.put(key, new CacheEntry<V>(value, created));
+		}
+	}
+
+
+	/**
+	 * Removes a cached value.
+	 *
+	 * @param key
+	 *            the key
+	 */
+	synchronized void remove(K key) {
+		entries.remove(key);
+	}
+
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+
+	/**
+	 * Checks if a value created at the given time is expired.
+	 *
+	 * @param created
+	 *            creation time of the value
+	 * @return true if the value must not be used any more
+	 */
+	boolean isExpired(long created) {
+		return System.currentTimeMillis() - created > ttlMillis;
+	}
+
+	private static class CacheEntry<V> {
+		private final V value;
+		private final long created;
+
+
+		CacheEntry(V value, long created) {
+			this.value = value;
+			this.created = created;
+		}
+	}
+
+}
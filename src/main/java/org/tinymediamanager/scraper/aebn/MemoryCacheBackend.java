@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache backend keeping the entries in memory, bounded by their total size. The least recently used entries are
+ * dropped first.
+ * <p>
+ * Claims are always granted: within one process, parallel loads of the same page are already shared.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class MemoryCacheBackend implements AebnCacheBackend {
+	private final Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>(16, 0.75f, true);
+	private final long maxBytes;
+	private long bytes;
+
+
+	/**
+	 * @param maxBytes
+	 *            maximum total size of the entries
+	 */
+	MemoryCacheBackend(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+
+	@Override
+	public synchronized byte[] get(String key) {
+		return entries.get(key);
+	}
+
+
+	@Override
+	public synchronized void put(String key, byte[] value) {
+		byte[] old = entries.put(key, value);
+		bytes += value.length - (old == null ? 0 : old.length);
+		Iterator<byte[]> eldest = entries.values().iterator();
+		while (bytes > maxBytes && eldest.hasNext()) {
+			bytes -= eldest.next().length;
+			eldest.remove();
+		}
+	}
+
+
+	@Override
+	public synchronized List<String> keys() {
+		return new ArrayList<String>(entries.keySet());
+	}
+
+
+	@Override
+	public void prune() {
+		// done on every put
+	}
+
+
+	@Override
+	public boolean claim(String key, long leaseMillis) {
+		return true;
+	}
+
+
+	@Override
+	public void release(String key) {
+	}
+
+}
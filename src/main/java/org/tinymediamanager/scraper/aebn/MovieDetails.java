@@ -0,0 +1,275 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+/**
+ * The fields of a movie detail page: its title, scene thumbnails and the <code>md-details</code> block.
+ * <p>
+ * Single valued fields are null if the page does not contain them.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see MovieDetailsExtractor
+ *
+ */
+class MovieDetails implements MovieDetailsExtractor.Sink {
+	String title;
+	List<String> sceneThumbnails = Collections.emptyList();
+	String runtime;
+	String year;
+	String series;
+	String studio;
+	String plot;
+	final List<String> genres = new ArrayList<String>();
+	final List<Person> actors = new ArrayList<Person>();
+	Person director;
+
+	/**
+	 * An actor or director.
+	 */
+	static class Person {
+		final String id;
+		final String name;
+		final String detailsUrl;
+
+
+		Person(String id, String name, String detailsUrl) {
+			this.id = id;
+			this.name = name;
+			this.detailsUrl = detailsUrl;
+		}
+	}
+
+
+	/**
+	 * Extracts the movie details of a movie detail page.
+	 *
+	 * @param document
+	 *            the movie detail page
+	 * @return the movie details
+	 */
+	static MovieDetails parse(Document document) {
+		MovieDetails details = new MovieDetails();
+
+		// <h1 itemprop="name" class="md-movieTitle" >Titelname</h1>
+		Elements elements = document.getElementsByAttributeValue("class", "md-movieTitle");
+		if (elements.size() > 0) {
+			details.title = AebnMetadataProvider.cleanString(elements.first().text());
+		}
+		details.sceneThumbnails = parseSceneThumbnails(document);
+
+		// all remaining fields are extracted from the md-details block in one pass
+		MovieDetailsExtractor.extract(document, details);
+		return details;
+	}
+
+
+	/**
+	 * Extracts the scene thumbnail urls from a movie detail page.
+	 *
+	 * @param document
+	 *            the movie detail page
+	 * @return the scene thumbnail urls in page order
+	 */
+	static List<String> parseSceneThumbnails(Document document) {
+		Elements elements = document.getElementsByAttributeValue("class", "SceneThumbnail");
+		List<String> backgroundUrls = new ArrayList<String>(elements.size());
+		for (Element thumbnail : elements) {
+			backgroundUrls.add(thumbnail.attr("src"));
+		}
+		return Collections.unmodifiableList(backgroundUrls);
+	}
+
+
+	/**
+	 * Combines the language dependent fields (title, plot, genres and series) of these movie details with the
+	 * language independent ones (scene thumbnails, runtime, year, studio, actors and director) of the same movie in
+	 * another language, so both have the same cast.
+	 *
+	 * @param shared
+	 *            the movie details of the same movie in another language
+	 * @return the combined movie details
+	 */
+	MovieDetails withLanguageIndependentFields(MovieDetails shared) {
+		MovieDetails details = new MovieDetails();
+		details.title = title;
+		details.plot = plot;
+		details.series = series;
+		details.genres.addAll(genres);
+		details.sceneThumbnails = shared.sceneThumbnails;
+		details.runtime = shared.runtime;
+		details.year = shared.year;
+		details.studio = shared.studio;
+		details.actors.addAll(shared.actors);
+		details.director = shared.director;
+		return details;
+	}
+
+
+	/**
+	 * Writes the movie details in a compact binary form.
+	 *
+	 * @param out
+	 *            the output to write to
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void writeTo(DataOutput out) throws IOException {
+		writeNullable(out, title);
+		out.writeInt(sceneThumbnails.size());
+		for (String sceneThumbnail : sceneThumbnails) {
+			out.writeUTF(sceneThumbnail);
+		}
+		writeNullable(out, runtime);
+		writeNullable(out, year);
+		writeNullable(out, series);
+		writeNullable(out, studio);
+		writeNullable(out, plot);
+		out.writeInt(genres.size());
+		for (String genre : genres) {
+			out.writeUTF(genre);
+		}
+		out.writeInt(actors.size());
+		for (Person actor : actors) {
+			writePerson(out, actor);
+		}
+		out.writeBoolean(director != null);
+		if (director != null) {
+			writePerson(out, director);
+		}
+	}
+
+
+	/**
+	 * Reads movie details written by {@link #writeTo(DataOutput)}.
+	 *
+	 * @param in
+	 *            the input to read from
+	 * @return the movie details
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	static MovieDetails readFrom(DataInput in) throws IOException {
+		MovieDetails details = new MovieDetails();
+		details.title = readNullable(in);
+		int count = in.readInt();
+		List<String> sceneThumbnails = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			sceneThumbnails.add(in.readUTF());
+		}
+		details.sceneThumbnails = Collections.unmodifiableList(sceneThumbnails);
+		details.runtime = readNullable(in);
+		details.year = readNullable(in);
+		details.series = readNullable(in);
+		details.studio = readNullable(in);
+		details.plot = readNullable(in);
+		count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			details.genres.add(in.readUTF());
+		}
+		count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			details.actors.add(readPerson(in));
+		}
+		if (in.readBoolean()) {
+			details.director = readPerson(in);
+		}
+		return details;
+	}
+
+
+	private static void writePerson(DataOutput out, Person person) throws IOException {
+		writeNullable(out, person.id);
+		writeNullable(out, person.name);
+		writeNullable(out, person.detailsUrl);
+	}
+
+
+	private static Person readPerson(DataInput in) throws IOException {
+		return new Person(readNullable(in), readNullable(in), readNullable(in));
+	}
+
+
+	private static void writeNullable(DataOutput out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+
+	private static String readNullable(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+
+	@Override
+	public void runtime(String runtime) {
+		this.runtime = runtime;
+	}
+
+
+	@Override
+	public void year(String year) {
+		this.year = year;
+	}
+
+
+	@Override
+	public void series(String series) {
+		this.series = series;
+	}
+
+
+	@Override
+	public void studio(String studio) {
+		this.studio = studio;
+	}
+
+
+	@Override
+	public void genre(String genre) {
+		genres.add(genre);
+	}
+
+
+	@Override
+	public void plot(String plot) {
+		this.plot = plot;
+	}
+
+
+	@Override
+	public void actor(String starId, String name, String detailsUrl) {
+		actors.add(new Person(starId, name, detailsUrl));
+	}
+
+
+	@Override
+	public void director(String directorId, String name) {
+		director = new Person(directorId, name, "");
+	}
+
+}
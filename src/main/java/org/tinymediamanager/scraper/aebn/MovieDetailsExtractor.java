@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.tinymediamanager.scraper.util.StrgUtils;
+
+/**
+ * Extracts the movie details from the <code>md-details</code> block of a movie detail page.
+ * <p>
+ * The block is walked only once; every element is dispatched on its <code>itemprop</code> (or <code>class</code>)
+ * attribute into a {@link Sink}. For single valued fields only the first matching element is used.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see MovieDetails
+ *
+ */
+final class MovieDetailsExtractor {
+
+	/**
+	 * Receives the extracted fields, in page order. Values are already cleaned.
+	 */
+	interface Sink {
+		/** Runtime in minutes, e.g. "144". */
+		void runtime(String runtime);
+
+
+		/** Year of publication, e.g. "2014". */
+		void year(String year);
+
+
+		/** Series (collection) name. */
+		void series(String series);
+
+
+		/** Studio name. */
+		void studio(String studio);
+
+
+		/** A genre (category) name, uncleaned. */
+		void genre(String genre);
+
+
+		/** The plot. */
+		void plot(String plot);
+
+
+		/** An actor with its AEBN star id (may be empty) and the (relative) url of its detail page. */
+		void actor(String starId, String name, String detailsUrl);
+
+
+		/** The director with its AEBN director id (may be empty). */
+		void director(String directorId, String name);
+	}
+
+
+	private MovieDetailsExtractor() {
+	}
+
+
+	/**
+	 * Extracts the <code>md-details</code> block of a movie detail page.
+	 *
+	 * @param document
+	 *            the movie detail page
+	 * @param sink
+	 *            receives the extracted fields
+	 */
+	static void extract(Document document, Sink sink) {
+		boolean runtime = false;
+		boolean year = false;
+		boolean series = false;
+		boolean studio = false;
+		boolean plot = false;
+		boolean director = false;
+
+		for (Element details : document.getElementsByAttributeValue("id", "md-details")) {
+			for (Element element : details.getAllElements()) {
+				// <a href="..." class="series">, with or without an itemprop
+				if (!series && "series".equalsIgnoreCase(element.attr("class").trim())) {
+					series = true;
+					sink.series(AebnMetadataProvider.cleanString(element.text()));
+				}
+
+				String itemprop = element.attr("itemprop").trim();
+				if (itemprop.isEmpty()) {
+					continue;
+				}
+				if ("actor".equalsIgnoreCase(itemprop)) {
+					String name = getName(element);
+					if (name != null) {
+						sink.actor(getId(element, "starId=(\\d+)"), AebnMetadataProvider.cleanString(name),
+								element.attr("href"));
+					}
+				} else if ("genre".equalsIgnoreCase(itemprop)) {
+					sink.genre(element.text());
+				} else if (!runtime && "duration".equalsIgnoreCase(itemprop)) {
+					runtime = true;
+					sink.runtime(StrgUtils.substr(AebnMetadataProvider.cleanString(element.attr("content")),
+							"PT(\\d+)M"));
+				} else if (!year && "datePublished".equalsIgnoreCase(itemprop)) {
+					year = true;
+					sink.year(StrgUtils.substr(AebnMetadataProvider.cleanString(element.attr("content")), "(\\d+)-"));
+				} else if (!studio && "productionCompany".equalsIgnoreCase(itemprop)) {
+					studio = true;
+					sink.studio(AebnMetadataProvider.cleanString(element.text()));
+				} else if (!plot && "about".equalsIgnoreCase(itemprop)) {
+					plot = true;
+					sink.plot(AebnMetadataProvider.cleanString(element.text()));
+				} else if (!director && "director".equalsIgnoreCase(itemprop)) {
+					String name = getName(element);
+					if (name != null) {
+						director = true;
+						sink.director(getId(element, "directorID=(\\d+)"), AebnMetadataProvider.cleanString(name));
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Gets the text of the first <code>itemprop="name"</code> element of a person.
+	 */
+	private static String getName(Element person) {
+		for (Element element : person.getAllElements()) {
+			if ("name".equalsIgnoreCase(element.attr("itemprop").trim())) {
+				return element.text();
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Gets the id of a person from its link; the whole element is only serialized if the link does not contain it.
+	 */
+	private static String getId(Element person, String regex) {
+		String id = StrgUtils.substr(person.attr("href"), regex);
+		if (StringUtils.isEmpty(id)) {
+			id = StrgUtils.substr(person.outerHtml(), regex);
+		}
+		return id;
+	}
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Counter;
+
+/**
+ * Loads the movie detail and search (fts) pages of the AEBN web site through the {@link ResponseCache}.
+ * <p>
+ * Cached pages younger than the configured time to live are used without any request. Older pages are revalidated
+ * with a conditional request (If-None-Match / If-Modified-Since) if the server sent validators, otherwise they are
+ * downloaded again. If the site is not reachable, a stale cached page is used rather than none.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class PageLoader {
+	private static final Logger LOGGER = LoggerFactory.getLogger(PageLoader.class);
+
+	/** time an installation sharing the cache may take to download a page before others download it themselves */
+	private static final long CLAIM_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	private final AebnTransport client;
+	private final ResponseCache cache;
+	private final long ttlMillis;
+
+
+	/**
+	 * @param client
+	 *            the transport sending the requests
+	 * @param cache
+	 *            the response cache, null to disable caching
+	 * @param ttlMillis
+	 *            time to live of cached pages in milliseconds
+	 */
+	PageLoader(AebnTransport client, ResponseCache cache, long ttlMillis) {
+		this.client = client;
+		this.cache = cache;
+		this.ttlMillis = ttlMillis;
+	}
+
+
+	/**
+	 * Creates the page loader configured by the {@link AebnSettings}.
+	 *
+	 * @param client
+	 *            the transport sending the requests
+	 * @return the page loader
+	 */
+	static PageLoader create(AebnTransport client) {
+		ResponseCache cache = null;
+		if (AebnSettings.getPageCacheHours() > 0) {
+			cache = new ResponseCache(AebnCacheBackend.create("pages", ResponseCache.SUFFIX,
+					AebnSettings.getPageCacheFiles()));
+		}
+		return new PageLoader(client, cache,
+				TimeUnit.HOURS.toMillis(AebnSettings.getPageCacheHours()));
+	}
+
+
+	/**
+	 * Loads and parses a page.
+	 *
+	 * @param url
+	 *            the page url
+	 * @return the parsed page
+	 * @throws IOException
+	 *             if the page could neither be downloaded nor found in the cache
+	 */
+	Document load(String url) throws IOException {
+		return loadResponse(url).parse("");
+	}
+
+
+	/**
+	 * Loads a page.
+	 *
+	 * @param url
+	 *            the page url
+	 * @return the response
+	 * @throws IOException
+	 *             if the page could neither be downloaded nor found in the cache
+	 */
+	AebnResponse loadResponse(String url) throws IOException {
+		return loadResponse(url, "", "");
+	}
+
+
+	/**
+	 * Loads a page; if it is not cached, it is requested conditionally with the given validators (e.g. of a page
+	 * processed earlier).
+	 *
+	 * @param url
+	 *            the page url
+	 * @param etag
+	 *            ETag of the page known to the caller, may be empty
+	 * @param lastModified
+	 *            Last-Modified date of the page known to the caller, may be empty
+	 * @return the response; a 304 (not modified) response with an empty body if the page is not cached and did not
+	 *         change according to the given validators
+	 * @throws IOException
+	 *             if the page could neither be downloaded nor found in the cache
+	 */
+	AebnResponse loadResponse(String url, String etag, String lastModified) throws IOException {
+		if (cache == null || !isCacheable(url)) {
+			return client.get(url, getValidators(etag, lastModified));
+		}
+
+		ResponseCache.Entry cached = cache.get(url);
+		if (cached != null && System.currentTimeMillis() - cached.stored <= ttlMillis) {
+			LOGGER.debug("AEBN: using cached page {}", url);
+			AebnMetrics.count(Counter.PAGE_CACHE_HIT);
+			return cached.response;
+		}
+
+		Map<String, String> headers;
+		boolean claimed = false;
+		if (cached != null) {
+			headers = getValidators(cached.response.getEtag(), cached.response.getLastModified());
+		} else {
+			headers = getValidators(etag, lastModified);
+			claimed = cache.claim(url, CLAIM_MILLIS);
+			if (!claimed) {
+				// another installation sharing the cache is downloading the page right now
+				ResponseCache.Entry loaded = cache.await(url, CLAIM_MILLIS);
+				if (loaded != null) {
+					LOGGER.debug("AEBN: using page {} downloaded by another installation", url);
+					AebnMetrics.count(Counter.SHARED_CACHE_WAIT);
+					return loaded.response;
+				}
+			}
+		}
+
+		try {
+			return download(url, headers, cached);
+		} finally {
+			if (claimed) {
+				cache.release(url);
+			}
+		}
+	}
+
+
+	private AebnResponse download(String url, Map<String, String> headers, ResponseCache.Entry cached)
+			throws IOException {
+		AebnResponse response;
+		try {
+			response = client.get(url, headers);
+		} catch (IOException e) {
+			if (cached == null) {
+				throw e;
+			}
+			LOGGER.warn("AEBN: could not download {}, using stale cached page: {}", url, e.getMessage());
+			AebnMetrics.count(Counter.PAGE_CACHE_STALE);
+			return cached.response;
+		}
+
+		if (response.getStatus() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+			LOGGER.debug("AEBN: page {} not modified", url);
+			AebnMetrics.count(Counter.PAGE_CACHE_REVALIDATED);
+			if (cached == null) {
+				return response;
+			}
+			cache.put(url, cached.response);
+			return cached.response;
+		}
+		AebnMetrics.count(Counter.PAGE_CACHE_MISS);
+		cache.put(url, response);
+		return response;
+	}
+
+
+	private static Map<String, String> getValidators(String etag, String lastModified) {
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		if (!etag.isEmpty()) {
+			headers.put("If-None-Match", etag);
+		}
+		if (!lastModified.isEmpty()) {
+			headers.put("If-Modified-Since", lastModified);
+		}
+		return headers;
+	}
+
+
+	/**
+	 * Only movie detail and search pages are cached.
+	 *
+	 * @param url
+	 *            the page url
+	 * @return true if the page may be cached
+	 */
+	static boolean isCacheable(String url) {
+		return url.contains("/dispatcher/movieDetail") || url.contains("/dispatcher/fts");
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An adaptive token bucket limiting the request rate to one host.
+ * <p>
+ * The rate is halved whenever the server signals overload (429 or 503) and slowly raised again with every successful
+ * request, up to the configured maximum (additive increase, multiplicative decrease). A Retry-After delay sent by the
+ * server pauses the bucket for that time.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see ResilientTransport
+ *
+ */
+class RateLimiter {
+	private final double maxRate;
+	private final double minRate;
+	private double rate;
+	private double tokens;
+	private long lastRefill;
+
+
+	/**
+	 * @param maxRate
+	 *            maximum (and initial) number of requests per second
+	 */
+	RateLimiter(double maxRate) {
+		this.maxRate = maxRate;
+		this.minRate = Math.min(maxRate, 0.5);
+		this.rate = maxRate;
+		this.tokens = getBurst();
+		this.lastRefill = System.nanoTime();
+	}
+
+
+	/**
+	 * Waits until a request may be sent.
+	 *
+	 * @throws InterruptedIOException
+	 *             if the thread was interrupted while waiting
+	 */
+	void acquire() throws InterruptedIOException {
+		long waitNanos = reserve();
+		if (waitNanos > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(waitNanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for the rate limiter");
+			}
+		}
+	}
+
+
+	/**
+	 * Takes a token from the bucket.
+	 *
+	 * @return the time to wait until the token is available in nanoseconds, 0 if it is available now
+	 */
+	synchronized long reserve() {
+		refill();
+		tokens -= 1;
+		return tokens >= 0 ? 0 : (long) (-tokens / rate * 1e9);
+	}
+
+
+	/**
+	 * Signals a successful request, raising the rate a little.
+	 */
+	synchronized void onSuccess() {
+		if (rate < maxRate) {
+			refill();
+			rate = Math.min(maxRate, rate + maxRate / 20);
+		}
+	}
+
+
+	/**
+	 * Signals that the server is overloaded, halving the rate.
+	 *
+	 * @param retryAfterMillis
+	 *            the time the server asked to wait (bounded by the caller), 0 if unknown
+	 */
+	synchronized void onThrottled(long retryAfterMillis) {
+		refill();
+		rate = Math.max(minRate, rate / 2);
+		tokens = Math.min(tokens, 0);
+		if (retryAfterMillis > 0) {
+			tokens = Math.min(tokens, -rate * retryAfterMillis / 1000.0);
+		}
+	}
+
+
+	synchronized double getRate() {
+		return rate;
+	}
+
+
+	private void refill() {
+		long now = System.nanoTime();
+		tokens = Math.min(getBurst(), tokens + (now - lastRefill) / 1e9 * rate);
+		lastRefill = now;
+	}
+
+
+	private double getBurst() {
+		return Math.max(1, rate);
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends requests through another transport and records all successful responses to a directory, so they can be
+ * replayed by the {@link ReplayTransport} or the stand-in server of the tests later.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class RecordingTransport implements AebnTransport {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RecordingTransport.class);
+
+	private final AebnTransport delegate;
+	private final ResponseCache recordings;
+
+
+	/**
+	 * @param delegate
+	 *            the transport sending the requests
+	 * @param directory
+	 *            the directory the responses are recorded to
+	 */
+	RecordingTransport(AebnTransport delegate, File directory) {
+		this.delegate = delegate;
+		this.recordings = ReplayTransport.openRecordings(directory);
+	}
+
+
+	@Override
+	public AebnResponse get(String url, Map<String, String> headers) throws IOException {
+		AebnResponse response = delegate.get(url, headers);
+		// 304 responses have no body, the recording of the full response is kept
+		if (response.getStatus() == HttpURLConnection.HTTP_OK) {
+			LOGGER.debug("AEBN: recording {}", url);
+			recordings.put(ReplayTransport.getKey(url), response);
+		}
+		return response;
+	}
+
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Snapshots of scraped movies for incremental refreshes.
+ * <p>
+ * A snapshot holds a fingerprint of the parts of the movie detail page the meta data is taken from (the
+ * <code>md-details</code> block, the title and the scene thumbnails), the validators (ETag, Last-Modified) of the
+ * page, its movie details and the star details of its actors. If the page still has the same fingerprint, the meta
+ * data is filled from the snapshot: neither the page is parsed nor are star pages requested. The fingerprint is taken
+ * from the raw HTML, without parsing it.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class RefreshStore {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RefreshStore.class);
+	private static final int FORMAT_VERSION = 1;
+	private static final String SUFFIX = ".movie";
+	private static final Pattern DETAILS = Pattern.compile("<(\\w+)[^>]*\\bid\\s*=\\s*[\"']md-details[\"']",
+			Pattern.CASE_INSENSITIVE);
+	private static final Pattern TITLE = Pattern.compile("<h1[^>]*md-movieTitle.*?</h1>",
+			Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	private static final Pattern SCENE_THUMBNAIL = Pattern.compile("<img[^>]*SceneThumbnail[^>]*>",
+			Pattern.CASE_INSENSITIVE);
+
+	private final File directory;
+	private final int maxFiles;
+	private final LruCache<String, Snapshot> memory;
+	private final AtomicInteger writesSincePrune = new AtomicInteger();
+
+	/**
+	 * A scraped movie.
+	 */
+	static final class Snapshot {
+		final String fingerprint;
+		final String etag;
+		final String lastModified;
+		final MovieDetails details;
+		/** the star details of the named actors, null if they are not (completely) known */
+		final List<StarDetails> stars;
+
+
+		Snapshot(String fingerprint, String etag, String lastModified, MovieDetails details, List<StarDetails> stars) {
+			this.fingerprint = fingerprint;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.details = details;
+			this.stars = stars;
+		}
+
+
+		/**
+		 * Creates a copy with the star details.
+		 *
+		 * @param stars
+		 *            the star details of the named actors
+		 * @return the new snapshot
+		 */
+		Snapshot withStars(List<StarDetails> stars) {
+			return new Snapshot(fingerprint, etag, lastModified, details, stars);
+		}
+	}
+
+
+	/**
+	 * @param directory
+	 *            directory of the snapshot files, null for a memory only store
+	 * @param maxEntries
+	 *            maximum number of snapshots kept in memory
+	 * @param maxFiles
+	 *            maximum number of snapshots kept on disk
+	 */
+	RefreshStore(File directory, int maxEntries, int maxFiles) {
+		this.directory = directory;
+		this.maxFiles = maxFiles;
+		this.memory = new LruCache<String, Snapshot>(maxEntries, Long.MAX_VALUE);
+	}
+
+
+	/**
+	 * Creates the store configured by the {@link AebnSettings}.
+	 *
+	 * @return the refresh store or null if incremental refreshes are disabled
+	 */
+	static RefreshStore create() {
+		if (!AebnSettings.isRefreshIncremental()) {
+			return null;
+		}
+		return open();
+	}
+
+
+	/**
+	 * Opens the store in the configured cache directory, also if incremental refreshes are disabled.
+	 *
+	 * @return the refresh store
+	 */
+	static RefreshStore open() {
+		return new RefreshStore(new File(AebnSettings.getCacheDirectory(), "movies"), 500,
+				AebnSettings.getPageCacheFiles());
+	}
+
+
+	/**
+	 * Gets the snapshot of a movie.
+	 *
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param locale
+	 *            the locale of the movie detail page, may be blank
+	 * @return the snapshot or null if there is none
+	 */
+	Snapshot get(Integer aebnId, String locale) {
+		String key = getKey(aebnId, locale);
+		Snapshot snapshot = memory.get(key);
+		if (snapshot != null || directory == null) {
+			return snapshot;
+		}
+
+		File file = new File(directory, key + SUFFIX);
+		if (!file.isFile()) {
+			return null;
+		}
+		snapshot = read(file);
+		if (snapshot != null) {
+			memory.put(key, snapshot);
+		}
+		return snapshot;
+	}
+
+
+	/**
+	 * Visits all stored snapshots, one at a time.
+	 *
+	 * @param visitor
+	 *            called for every snapshot
+	 * @throws IOException
+	 *             if the visitor failed
+	 */
+	void forEach(Visitor visitor) throws IOException {
+		File[] files = directory == null ? null : directory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(SUFFIX);
+			}
+		});
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			String key = file.getName().substring(0, file.getName().length() - SUFFIX.length());
+			int separator = key.indexOf('_');
+			Integer aebnId;
+			try {
+				aebnId = Integer.valueOf(separator < 0 ? key : key.substring(0, separator));
+			} catch (NumberFormatException e) {
+				LOGGER.debug("AEBN: skipping unknown file {}", file);
+				continue;
+			}
+			Snapshot snapshot = read(file);
+			if (snapshot != null) {
+				visitor.visit(aebnId, separator < 0 ? "" : key.substring(separator + 1), snapshot);
+			}
+		}
+	}
+
+	/**
+	 * Receives the snapshots of {@link RefreshStore#forEach(Visitor)}.
+	 */
+	interface Visitor {
+		void visit(Integer aebnId, String locale, Snapshot snapshot) throws IOException;
+	}
+
+
+	private Snapshot read(File file) {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != FORMAT_VERSION) {
+					return null;
+				}
+				String fingerprint = in.readUTF();
+				String etag = in.readUTF();
+				String lastModified = in.readUTF();
+				MovieDetails details = MovieDetails.readFrom(in);
+				List<StarDetails> stars = null;
+				int count = in.readInt();
+				if (count >= 0) {
+					stars = new ArrayList<StarDetails>(count);
+					for (int i = 0; i < count; i++) {
+						stars.add(StarDetails.readFrom(in));
+					}
+				}
+				return new Snapshot(fingerprint, etag, lastModified, details, stars);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not read movie snapshot {}: {}", file, e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Stores the snapshot of a movie.
+	 *
+	 * @param aebnId
+	 *            the AEBN id of the movie
+	 * @param locale
+	 *            the locale of the movie detail page, may be blank
+	 * @param snapshot
+	 *            the snapshot
+	 */
+	void put(Integer aebnId, String locale, final Snapshot snapshot) {
+		String key = getKey(aebnId, locale);
+		memory.put(key, snapshot);
+		if (directory == null) {
+			return;
+		}
+
+		File file = new File(directory, key + SUFFIX);
+		try {
+			CacheFiles.writeAtomically(file, new CacheFiles.Writer() {
+				@Override
+				public void write(OutputStream stream) throws IOException {
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+					out.writeInt(FORMAT_VERSION);
+					out.writeUTF(snapshot.fingerprint);
+					out.writeUTF(snapshot.etag);
+					out.writeUTF(snapshot.lastModified);
+					snapshot.details.writeTo(out);
+					if (snapshot.stars == null) {
+						out.writeInt(-1);
+					} else {
+						out.writeInt(snapshot.stars.size());
+						for (StarDetails star : snapshot.stars) {
+							star.writeTo(out);
+						}
+					}
+					out.flush();
+				}
+			});
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not store movie snapshot {}: {}", file, e);
+		}
+
+		// checking the number of files is expensive, so only do it every now and then
+		if (writesSincePrune.incrementAndGet() >= Math.max(1, maxFiles / 10)) {
+			writesSincePrune.set(0);
+			CacheFiles.prune(directory, SUFFIX, maxFiles);
+		}
+	}
+
+
+	/**
+	 * Calculates the fingerprint of a movie detail page from its title, scene thumbnails and <code>md-details</code>
+	 * block.
+	 *
+	 * @param page
+	 *            the raw movie detail page
+	 * @return the fingerprint or null if the page has no <code>md-details</code> block
+	 */
+	static String fingerprint(byte[] page) {
+		String html = new String(page, StandardCharsets.UTF_8);
+		Matcher details = DETAILS.matcher(html);
+		if (!details.find()) {
+			return null;
+		}
+		int end = findEndOfElement(html, details.start(), details.group(1).toLowerCase(Locale.ROOT));
+
+		StringBuilder content = new StringBuilder(html.length() / 4);
+		Matcher title = TITLE.matcher(html);
+		if (title.find()) {
+			content.append(title.group());
+		}
+		Matcher sceneThumbnail = SCENE_THUMBNAIL.matcher(html);
+		while (sceneThumbnail.find()) {
+			content.append(sceneThumbnail.group());
+		}
+		content.append(html, details.start(), end);
+		return ResponseCache.sha1(content.toString());
+	}
+
+
+	/**
+	 * Finds the end of an element by counting the opening and closing tags of its name.
+	 *
+	 * @param html
+	 *            the page
+	 * @param start
+	 *            start of the opening tag
+	 * @param name
+	 *            the lower case tag name
+	 * @return the end of the closing tag, or the end of the page if the element is not closed
+	 */
+	static int findEndOfElement(String html, int start, String name) {
+		String lowerCase = html.toLowerCase(Locale.ROOT);
+		String open = "<" + name;
+		String close = "</" + name;
+		int depth = 0;
+		int pos = start;
+		while (pos < lowerCase.length()) {
+			int nextOpen = lowerCase.indexOf(open, pos);
+			int nextClose = lowerCase.indexOf(close, pos);
+			if (nextClose < 0) {
+				return html.length();
+			}
+			if (nextOpen >= 0 && nextOpen < nextClose) {
+				char next = nextOpen + open.length() < lowerCase.length() ? lowerCase.charAt(nextOpen + open.length())
+						: '>';
+				// e.g. <div must not match <divider
+				if (!Character.isLetterOrDigit(next)) {
+					depth++;
+				}
+				pos = nextOpen + open.length();
+			} else {
+				char next = nextClose + close.length() < lowerCase.length()
+						? lowerCase.charAt(nextClose + close.length()) : '>';
+				if (Character.isLetterOrDigit(next)) {
+					pos = nextClose + close.length();
+					continue;
+				}
+				depth--;
+				int endOfTag = lowerCase.indexOf('>', nextClose);
+				pos = endOfTag < 0 ? html.length() : endOfTag + 1;
+				if (depth <= 0) {
+					return pos;
+				}
+			}
+		}
+		return html.length();
+	}
+
+
+	private static String getKey(Integer aebnId, String locale) {
+		if (locale == null || locale.trim().isEmpty()) {
+			return aebnId.toString();
+		}
+		return aebnId + "_" + locale.trim().replaceAll("[^\\w-]", "_");
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves responses recorded by the {@link RecordingTransport} instead of requesting the AEBN web site.
+ * <p>
+ * Recordings are looked up by path and query of the url only, so they can be replayed whatever base urls are
+ * configured. Conditional request headers are ignored, recorded responses are always returned in full.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class ReplayTransport implements AebnTransport {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReplayTransport.class);
+
+	private final ResponseCache recordings;
+
+
+	/**
+	 * @param directory
+	 *            the directory of the recorded responses
+	 */
+	ReplayTransport(File directory) {
+		this.recordings = openRecordings(directory);
+	}
+
+
+	@Override
+	public AebnResponse get(String url, Map<String, String> headers) throws IOException {
+		AebnResponse response = find(recordings, getKey(url));
+		if (response == null) {
+			throw new FileNotFoundException("no recorded response for " + url);
+		}
+		LOGGER.debug("AEBN: replaying {}", url);
+		return response;
+	}
+
+
+	/**
+	 * Opens a directory of recorded responses.
+	 *
+	 * @param directory
+	 *            the directory
+	 * @return the recordings, keyed by {@link #getKey(String)}
+	 */
+	static ResponseCache openRecordings(File directory) {
+		// recordings are never pruned
+		return new ResponseCache(directory, Integer.MAX_VALUE);
+	}
+
+
+	/**
+	 * Looks up a recorded response.
+	 *
+	 * @param recordings
+	 *            the recordings
+	 * @param key
+	 *            the key of the response
+	 * @return the response or null if it was not recorded
+	 */
+	static AebnResponse find(ResponseCache recordings, String key) {
+		ResponseCache.Entry entry = recordings.get(key);
+		return entry == null ? null : entry.response;
+	}
+
+
+	/**
+	 * Gets the key of a recorded response.
+	 *
+	 * @param url
+	 *            the requested url
+	 * @return path and query of the url
+	 * @throws MalformedURLException
+	 *             if the url is invalid
+	 */
+	static String getKey(String url) throws MalformedURLException {
+		return new URL(url).getFile();
+	}
+
+}
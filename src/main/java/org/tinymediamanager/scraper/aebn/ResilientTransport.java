@@ -0,0 +1,204 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Counter;
+
+/**
+ * Protects the AEBN web site (and the scraper) from overload.
+ * <p>
+ * Requests are throttled by an adaptive {@link RateLimiter} per host. Connection errors, 429 and 5xx responses are
+ * retried a few times with exponential backoff and full jitter, honouring Retry-After up to a limit; a request asked
+ * to wait longer fails at once. If a host keeps failing, its {@link CircuitBreaker} opens and requests fail fast
+ * instead of producing a series of timeouts.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class ResilientTransport implements AebnTransport {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResilientTransport.class);
+	private static final long MAX_BACKOFF_MILLIS = 10000;
+
+	private final AebnTransport delegate;
+	private final double rate;
+	private final int retries;
+	private final int breakerThreshold;
+	private final long breakerCooldownMillis;
+	private final long backoffMillis;
+	private final long maxRetryAfterMillis;
+	private final ConcurrentMap<String, RateLimiter> limiters = new ConcurrentHashMap<String, RateLimiter>();
+	private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+
+	/**
+	 * Creates a transport configured by the {@link AebnSettings}.
+	 *
+	 * @param delegate
+	 *            the transport sending the requests
+	 */
+	ResilientTransport(AebnTransport delegate) {
+		this(delegate, AebnSettings.getRequestRate(), AebnSettings.getRetries(), AebnSettings.getBreakerThreshold(),
+				AebnSettings.getBreakerSeconds() * 1000L, 500, AebnSettings.getMaxRetryAfterSeconds() * 1000L);
+	}
+
+
+	/**
+	 * @param delegate
+	 *            the transport sending the requests
+	 * @param rate
+	 *            maximum number of requests per second and host
+	 * @param retries
+	 *            maximum number of retries of a failed request
+	 * @param breakerThreshold
+	 *            number of consecutive failures opening the circuit of a host
+	 * @param breakerCooldownMillis
+	 *            time an open circuit fails fast in milliseconds
+	 * @param backoffMillis
+	 *            base delay of the first retry in milliseconds
+	 * @param maxRetryAfterMillis
+	 *            longest Retry-After delay waited for in milliseconds
+	 */
+	ResilientTransport(AebnTransport delegate, double rate, int retries, int breakerThreshold,
+			long breakerCooldownMillis, long backoffMillis, long maxRetryAfterMillis) {
+		this.delegate = delegate;
+		this.rate = rate;
+		this.retries = retries;
+		this.breakerThreshold = breakerThreshold;
+		this.breakerCooldownMillis = breakerCooldownMillis;
+		this.backoffMillis = backoffMillis;
+		this.maxRetryAfterMillis = maxRetryAfterMillis;
+	}
+
+
+	@Override
+	public AebnResponse get(String url, Map<String, String> headers) throws IOException {
+		String host = new URL(url).getHost();
+		RateLimiter limiter = getLimiter(host);
+		CircuitBreaker breaker = getBreaker(host);
+
+		IOException failure = null;
+		for (int attempt = 0;; attempt++) {
+			if (!breaker.allowRequest()) {
+				AebnMetrics.count(Counter.HTTP_REJECTED);
+				if (failure != null) {
+					// the circuit opened while retrying
+					throw failure;
+				}
+				throw new IOException("AEBN: " + host + " is failing, not requesting " + url);
+			}
+			try {
+				limiter.acquire();
+			} catch (InterruptedIOException e) {
+				breaker.onCancel();
+				throw e;
+			}
+
+			long retryAfterMillis = 0;
+			try {
+				AebnResponse response = delegate.get(url, headers);
+				limiter.onSuccess();
+				breaker.onSuccess();
+				return response;
+			} catch (AebnHttpException e) {
+				if (!e.isTransient()) {
+					// the host is healthy, the request is not
+					breaker.onSuccess();
+					throw e;
+				}
+				retryAfterMillis = e.getRetryAfterMillis();
+				if (e.getStatus() == 429 || e.getStatus() == 503) {
+					AebnMetrics.count(Counter.HTTP_THROTTLED);
+					limiter.onThrottled(Math.min(retryAfterMillis, maxRetryAfterMillis));
+				}
+				breaker.onFailure();
+				if (retryAfterMillis > maxRetryAfterMillis) {
+					// do not block the thread that long, the circuit breaker takes over if the host keeps refusing
+					LOGGER.debug("AEBN: not retrying {}, asked to wait {} ms", url, retryAfterMillis);
+					throw e;
+				}
+				failure = e;
+			} catch (IOException e) {
+				breaker.onFailure();
+				failure = e;
+			} catch (RuntimeException e) {
+				breaker.onFailure();
+				throw e;
+			}
+
+			if (attempt >= retries || Thread.currentThread().isInterrupted()) {
+				throw failure;
+			}
+			long delay = Math.max(retryAfterMillis, getBackoff(attempt));
+			LOGGER.debug("AEBN: retrying {} in {} ms: {}", url, delay, failure.getMessage());
+			AebnMetrics.count(Counter.HTTP_RETRY);
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting to retry " + url);
+			}
+		}
+	}
+
+
+	/**
+	 * Exponential backoff with full jitter.
+	 *
+	 * @param attempt
+	 *            the number of the failed attempt, starting with 0
+	 * @return the delay in milliseconds
+	 */
+	long getBackoff(int attempt) {
+		long max = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << Math.min(attempt, 20));
+		return ThreadLocalRandom.current().nextLong(max + 1);
+	}
+
+
+	RateLimiter getLimiter(String host) {
+		RateLimiter limiter = limiters.get(host);
+		if (limiter == null) {
+			RateLimiter created = new RateLimiter(rate);
+			limiter = limiters.putIfAbsent(host, created);
+			if (limiter == null) {
+				limiter = created;
+			}
+		}
+		return limiter;
+	}
+
+
+	CircuitBreaker getBreaker(String host) {
+		CircuitBreaker breaker = breakers.get(host);
+		if (breaker == null) {
+			CircuitBreaker created = new CircuitBreaker(breakerThreshold, breakerCooldownMillis);
+			breaker = breakers.putIfAbsent(host, created);
+			if (breaker == null) {
+				breaker = created;
+			}
+		}
+		return breaker;
+	}
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of HTTP responses.
+ * <p>
+ * Every response is stored gzip compressed in one entry of the {@link AebnCacheBackend} (usually a file), keyed by the
+ * SHA-1 hash of its url, together with its ETag and Last-Modified validators.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see PageLoader
+ *
+ */
+class ResponseCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResponseCache.class);
+	private static final int FORMAT_VERSION = 1;
+	static final String SUFFIX = ".page.gz";
+
+	private final AebnCacheBackend backend;
+
+	/**
+	 * A cached response.
+	 */
+	static class Entry {
+		final AebnResponse response;
+		final long stored;
+
+
+		Entry(AebnResponse response, long stored) {
+			this.response = response;
+			this.stored = stored;
+		}
+	}
+
+
+	/**
+	 * @param directory
+	 *            the cache directory
+	 * @param maxFiles
+	 *            maximum number of cached responses
+	 */
+	ResponseCache(File directory, int maxFiles) {
+		this(new DirectoryCacheBackend(directory, SUFFIX, maxFiles));
+	}
+
+
+	/**
+	 * @param backend
+	 *            stores the cached responses
+	 */
+	ResponseCache(AebnCacheBackend backend) {
+		this.backend = backend;
+	}
+
+
+	/**
+	 * Gets a cached response.
+	 *
+	 * @param url
+	 *            the url of the response
+	 * @return the cached entry or null if there is none
+	 */
+	Entry get(String url) {
+		try {
+			return read(url, backend.get(sha1(url)));
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not read cached response {}: {}", url, e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Caches a response.
+	 *
+	 * @param url
+	 *            the url of the response
+	 * @param response
+	 *            the response
+	 */
+	void put(String url, AebnResponse response) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(response.getBody().length / 4 + 256);
+			GZIPOutputStream gzip = new GZIPOutputStream(bytes, 8192);
+			DataOutputStream out = new DataOutputStream(gzip);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(url);
+			out.writeLong(System.currentTimeMillis());
+			out.writeUTF(response.getEtag());
+			out.writeUTF(response.getLastModified());
+			out.writeInt(response.getBody().length);
+			out.write(response.getBody());
+			out.flush();
+			gzip.finish();
+			backend.put(sha1(url), bytes.toByteArray());
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not cache response {}: {}", url, e);
+		}
+	}
+
+
+	/**
+	 * Claims the download of a response, so other installations sharing the cache wait for it instead of downloading
+	 * it, too.
+	 *
+	 * @param url
+	 *            the url of the response
+	 * @param leaseMillis
+	 *            time after which the claim expires
+	 * @return true if the caller should download the response and {@link #release(String)} the claim afterwards
+	 * @see AebnCacheBackend#claim(String, long)
+	 */
+	boolean claim(String url, long leaseMillis) {
+		return backend.claim(sha1(url), leaseMillis);
+	}
+
+
+	/**
+	 * Releases a claim made by {@link #claim(String, long)}.
+	 *
+	 * @param url
+	 *            the url of the response
+	 */
+	void release(String url) {
+		backend.release(sha1(url));
+	}
+
+
+	/**
+	 * Waits for a response claimed by somebody else.
+	 *
+	 * @param url
+	 *            the url of the response
+	 * @param timeoutMillis
+	 *            maximum time to wait
+	 * @return the cached entry or null if it did not appear in time
+	 */
+	Entry await(String url, long timeoutMillis) {
+		try {
+			return read(url, backend.await(sha1(url), timeoutMillis));
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not read cached response {}: {}", url, e);
+			return null;
+		}
+	}
+
+
+	private static Entry read(String url, byte[] data) throws IOException {
+		if (data == null) {
+			return null;
+		}
+		DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(data))));
+		if (in.readInt() != FORMAT_VERSION || !url.equals(in.readUTF())) {
+			return null;
+		}
+		long stored = in.readLong();
+		String etag = in.readUTF();
+		String lastModified = in.readUTF();
+		byte[] body = new byte[in.readInt()];
+		in.readFully(body);
+		return new Entry(new AebnResponse(200, etag, lastModified, body), stored);
+	}
+
+
+	static String sha1(String value) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
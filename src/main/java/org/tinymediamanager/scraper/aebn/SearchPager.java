@@ -0,0 +1,169 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.scraper.MediaSearchResult;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Phase;
+
+/**
+ * Iterates the search results of a query page by page; a page is only requested when the results of the previous one
+ * have been consumed.
+ * <p>
+ * Results are returned in page order, best match first within a page. Paging stops after the last page (a page
+ * with fewer results than requested), after {@link #maxResults} results, or after a page with a result scoring at
+ * least the confidence threshold (the rest of that page is not parsed). If a page could not be downloaded, paging
+ * stops and {@link #isFailed()} is set.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnMetadataProvider#searchPaged(org.tinymediamanager.scraper.MediaSearchOptions)
+ *
+ */
+class SearchPager implements Iterator<MediaSearchResult> {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SearchPager.class);
+
+	private final PageLoader loader;
+	private final String cleanedQuery;
+	private final String searchString;
+	private final int pageSize;
+	private final int maxResults;
+	private final float confidence;
+	private final Set<String> foundResultUrls = new HashSet<String>();
+	private final Queue<MediaSearchResult> buffer = new ArrayDeque<MediaSearchResult>();
+	private int pages;
+	private int results;
+	private boolean exhausted;
+	private boolean failed;
+
+
+	/**
+	 * @param loader
+	 *            the page loader
+	 * @param cleanedQuery
+	 *            the cleaned search query sent to AEBN
+	 * @param searchString
+	 *            the search query, used for scoring
+	 * @param pageSize
+	 *            number of results requested per page
+	 * @param maxResults
+	 *            maximum number of results
+	 * @param confidence
+	 *            score of a result after which no further page is requested
+	 */
+	SearchPager(PageLoader loader, String cleanedQuery, String searchString, int pageSize, int maxResults,
+			float confidence) {
+		this.loader = loader;
+		this.cleanedQuery = cleanedQuery;
+		this.searchString = searchString;
+		this.pageSize = pageSize;
+		this.maxResults = maxResults;
+		this.confidence = confidence;
+	}
+
+
+	@Override
+	public boolean hasNext() {
+		while (buffer.isEmpty() && !exhausted) {
+			loadNextPage();
+		}
+		return !buffer.isEmpty();
+	}
+
+
+	@Override
+	public MediaSearchResult next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return buffer.remove();
+	}
+
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+
+	/**
+	 * Whether a page could not be downloaded.
+	 *
+	 * @return true if paging stopped because of an error
+	 */
+	boolean isFailed() {
+		return failed;
+	}
+
+
+	/**
+	 * Gets the number of requested pages.
+	 *
+	 * @return the number of pages
+	 */
+	int getPages() {
+		return pages;
+	}
+
+
+	private void loadNextPage() {
+		pages++;
+		String page;
+		String searchUrl = null;
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.SEARCH_FETCH, cleanedQuery);
+		try {
+			searchUrl = AebnMetadataProvider.getSearchUrl(cleanedQuery, pageSize, pages);
+			page = loader.loadResponse(searchUrl).getText();
+			timer.success();
+		} catch (Exception e) {
+			LOGGER.error("AEBN: failed to load search page {}: {}", searchUrl, e);
+			exhausted = true;
+			failed = true;
+			return;
+		} finally {
+			timer.stop();
+		}
+
+		List<MediaSearchResult> found;
+		int requested = Math.min(pageSize, maxResults - results);
+		timer = AebnMetrics.start(Phase.SEARCH_PARSE, searchString);
+		try {
+			found = AebnMetadataProvider.parseSearchPage(page, searchString, foundResultUrls, requested, confidence);
+			timer.success();
+		} finally {
+			timer.stop();
+		}
+		LOGGER.debug("AEBN: found {} search results on page {}", found.size(), pages);
+
+		results += found.size();
+		Collections.sort(found);
+		Collections.reverse(found);
+		// a page with fewer results than requested is the last one
+		if (found.size() < requested || results >= maxResults || found.get(0).getScore() >= confidence) {
+			exhausted = true;
+		}
+		buffer.addAll(found);
+	}
+
+}
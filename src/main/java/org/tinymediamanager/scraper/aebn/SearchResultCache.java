@@ -0,0 +1,207 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.scraper.MediaSearchResult;
+
+/**
+ * A cache of search results, keyed by the cleaned search query.
+ * <p>
+ * Queries differing only in stop words, years or punctuation share one entry. Only the query independent parts of the
+ * results are cached, scores have to be calculated again for the original query. The in-memory LRU cache can
+ * optionally be backed by one file per query in the cache directory.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class SearchResultCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SearchResultCache.class);
+	private static final int FORMAT_VERSION = 1;
+	private static final String SUFFIX = ".search";
+
+	private final LruCache<String, List<Entry>> memory;
+	private final File directory;
+	private final int maxFiles;
+	private final AtomicInteger writesSincePrune = new AtomicInteger();
+
+	/**
+	 * The query independent part of a search result.
+	 */
+	static class Entry {
+		final String id;
+		final String title;
+		final String url;
+		final String posterUrl;
+
+
+		Entry(String id, String title, String url, String posterUrl) {
+			this.id = id;
+			this.title = title;
+			this.url = url;
+			this.posterUrl = posterUrl;
+		}
+	}
+
+
+	/**
+	 * @param maxEntries
+	 *            maximum number of queries kept in memory
+	 * @param ttlMillis
+	 *            time to live of cached results in milliseconds
+	 * @param directory
+	 *            directory of the persistent cache, null for a memory only cache
+	 * @param maxFiles
+	 *            maximum number of queries kept on disk
+	 */
+	SearchResultCache(int maxEntries, long ttlMillis, File directory, int maxFiles) {
+		this.memory = new LruCache<String, List<Entry>>(maxEntries, ttlMillis);
+		this.directory = directory;
+		this.maxFiles = maxFiles;
+	}
+
+
+	/**
+	 * Creates the cache configured by the {@link AebnSettings}.
+	 *
+	 * @return the search result cache
+	 */
+	static SearchResultCache create() {
+		File directory = null;
+		if (AebnSettings.isSearchCachePersistent()) {
+			directory = new File(AebnSettings.getCacheDirectory(), "searches");
+		}
+		return new SearchResultCache(AebnSettings.getSearchCacheEntries(),
+				TimeUnit.MINUTES.toMillis(AebnSettings.getSearchCacheMinutes()), directory,
+				AebnSettings.getSearchCacheEntries() * 10);
+	}
+
+
+	/**
+	 * Gets the cached results of a query.
+	 *
+	 * @param cleanedQuery
+	 *            the cleaned search query
+	 * @return the cached results, or null if the query is not cached
+	 */
+	List<Entry> get(String cleanedQuery) {
+		List<Entry> entries = memory.get(cleanedQuery);
+		if (entries != null || directory == null) {
+			return entries;
+		}
+
+		File file = getFile(cleanedQuery);
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != FORMAT_VERSION || !cleanedQuery.equals(in.readUTF())) {
+					return null;
+				}
+				long created = in.readLong();
+				if (memory.isExpired(created)) {
+					return null;
+				}
+				int count = in.readInt();
+				entries = new ArrayList<Entry>(count);
+				for (int i = 0; i < count; i++) {
+					entries.add(new Entry(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF()));
+				}
+				entries = Collections.unmodifiableList(entries);
+				memory.put(cleanedQuery, entries, created);
+				return entries;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not read cached search results {}: {}", file, e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Caches the results of a query.
+	 *
+	 * @param cleanedQuery
+	 *            the cleaned search query
+	 * @param results
+	 *            the search results
+	 */
+	void put(final String cleanedQuery, List<MediaSearchResult> results) {
+		List<Entry> entries = new ArrayList<Entry>(results.size());
+		for (MediaSearchResult sr : results) {
+			entries.add(new Entry(sr.getId(), sr.getTitle(), sr.getUrl(), sr.getPosterUrl()));
+		}
+		final List<Entry> cached = Collections.unmodifiableList(entries);
+		final long created = System.currentTimeMillis();
+		memory.put(cleanedQuery, cached, created);
+		if (directory == null) {
+			return;
+		}
+
+		File file = getFile(cleanedQuery);
+		try {
+			CacheFiles.writeAtomically(file, new CacheFiles.Writer() {
+				@Override
+				public void write(OutputStream stream) throws IOException {
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+					out.writeInt(FORMAT_VERSION);
+					out.writeUTF(cleanedQuery);
+					out.writeLong(created);
+					out.writeInt(cached.size());
+					for (Entry entry : cached) {
+						out.writeUTF(entry.id);
+						out.writeUTF(entry.title);
+						out.writeUTF(entry.url);
+						out.writeUTF(entry.posterUrl);
+					}
+					out.flush();
+				}
+			});
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not cache search results {}: {}", file, e);
+		}
+
+		// pruning lists the whole directory
+		if (writesSincePrune.incrementAndGet() >= Math.max(1, maxFiles / 10)) {
+			writesSincePrune.set(0);
+			CacheFiles.prune(directory, SUFFIX, maxFiles);
+		}
+	}
+
+
+	private File getFile(String cleanedQuery) {
+		return new File(directory, ResponseCache.sha1(cleanedQuery) + SUFFIX);
+	}
+
+}
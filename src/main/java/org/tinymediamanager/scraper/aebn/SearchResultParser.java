@@ -0,0 +1,298 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.util.regex.Pattern;
+
+import org.jsoup.parser.Parser;
+import org.tinymediamanager.scraper.util.StrgUtils;
+
+/**
+ * A streaming parser for the movie links of AEBN search (fts) pages.
+ * <p>
+ * Instead of building a DOM of the whole page, the HTML is scanned tag by tag and only the attributes of tags
+ * containing a movie link id (<code>FTSMovieSearch_link_title_detail_NN</code>) are read. Comments, scripts and styles
+ * are skipped like a HTML parser would. Parsing stops as soon as the {@link Listener} asks for it.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+final class SearchResultParser {
+	private static final String ID_MARKER = "FTSMovieSearch_link_title_detail_";
+	private static final char NBSP = (char) 160;
+	private static final Pattern ID_PATTERN = Pattern.compile("FTSMovieSearch_link_title_detail_\\d+");
+
+	/**
+	 * Receives the movie links in page order.
+	 */
+	interface Listener {
+		/**
+		 * @param href
+		 *            the link target, entity escaped like in the page source (e.g. <code>&amp;amp;</code>)
+		 * @param movieId
+		 *            the AEBN movie id of the link, empty if there is none
+		 * @param title
+		 *            the link text with decoded entities and normalized whitespace
+		 * @return true to continue parsing, false to stop
+		 */
+		boolean found(String href, String movieId, String title);
+	}
+
+
+	private SearchResultParser() {
+	}
+
+
+	/**
+	 * Parses a search page.
+	 *
+	 * @param html
+	 *            the search page
+	 * @param listener
+	 *            receives the movie links
+	 */
+	static void parse(String html, Listener listener) {
+		int length = html.length();
+		int pos = html.indexOf('<');
+		while (pos >= 0 && pos < length - 1) {
+			if (html.startsWith("<!--", pos)) {
+				int end = html.indexOf("-->", pos + 4);
+				if (end < 0) {
+					return;
+				}
+				pos = html.indexOf('<', end + 3);
+				continue;
+			}
+
+			int nameEnd = pos + 1;
+			while (nameEnd < length && Character.isLetterOrDigit(html.charAt(nameEnd))) {
+				nameEnd++;
+			}
+			if (nameEnd == pos + 1 || !Character.isLetter(html.charAt(pos + 1))) {
+				// closing tag, doctype or a stray '<'
+				pos = html.indexOf('<', pos + 1);
+				continue;
+			}
+			int tagEnd = findTagEnd(html, nameEnd);
+			if (tagEnd < 0) {
+				return;
+			}
+			String name = html.substring(pos + 1, nameEnd);
+
+			if ("script".equalsIgnoreCase(name) || "style".equalsIgnoreCase(name)) {
+				int close = indexOfIgnoreCase(html, "</" + name, tagEnd);
+				if (close < 0) {
+					return;
+				}
+				pos = html.indexOf('<', close + 2);
+				continue;
+			}
+
+			if (indexOf(html, ID_MARKER, nameEnd, tagEnd) >= 0) {
+				String id = getAttribute(html, "id", nameEnd, tagEnd);
+				if (id != null && ID_PATTERN.matcher(id).find()) {
+					int contentEnd = findCloseTag(html, name, tagEnd + 1);
+					int next = contentEnd < 0 ? length : html.indexOf('>', contentEnd) + 1;
+					if (contentEnd < 0) {
+						contentEnd = length;
+					}
+					String href = getAttribute(html, "href", nameEnd, tagEnd);
+					href = href == null ? "" : escapeAttribute(href);
+					String movieId = StrgUtils.substr(href, "movieId=(\\d+)");
+					if (movieId.isEmpty()) {
+						movieId = StrgUtils.substr(html.substring(pos, contentEnd), "movieId=(\\d+)");
+					}
+					String title = getText(html.substring(tagEnd + 1, contentEnd));
+					if (!listener.found(href, movieId, title)) {
+						return;
+					}
+					pos = next > 0 ? html.indexOf('<', next) : -1;
+					continue;
+				}
+			}
+			pos = html.indexOf('<', tagEnd + 1);
+		}
+	}
+
+
+	/**
+	 * Finds the closing '&gt;' of a tag, skipping quoted attribute values.
+	 */
+	private static int findTagEnd(String html, int from) {
+		char quote = 0;
+		for (int i = from; i < html.length(); i++) {
+			char c = html.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '>') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Finds the start of the closing tag matching an opened tag, considering nested tags of the same name.
+	 */
+	private static int findCloseTag(String html, String name, int from) {
+		int depth = 1;
+		int pos = from;
+		while ((pos = html.indexOf('<', pos)) >= 0) {
+			boolean closing = pos + 1 < html.length() && html.charAt(pos + 1) == '/';
+			int nameStart = closing ? pos + 2 : pos + 1;
+			if (html.regionMatches(true, nameStart, name, 0, name.length())
+					&& (nameStart + name.length() >= html.length()
+							|| !Character.isLetterOrDigit(html.charAt(nameStart + name.length())))) {
+				depth += closing ? -1 : 1;
+				if (depth == 0) {
+					return pos;
+				}
+			}
+			pos++;
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Reads an attribute value (double, single or unquoted) of the tag between from and to.
+	 *
+	 * @return the raw attribute value or null if the tag has no such attribute
+	 */
+	private static String getAttribute(String html, String attribute, int from, int to) {
+		int pos = from;
+		while (pos < to) {
+			// skip whitespace
+			while (pos < to && (Character.isWhitespace(html.charAt(pos)) || html.charAt(pos) == '/')) {
+				pos++;
+			}
+			int nameStart = pos;
+			while (pos < to && html.charAt(pos) != '=' && html.charAt(pos) != '>'
+					&& !Character.isWhitespace(html.charAt(pos))) {
+				pos++;
+			}
+			int nameEnd = pos;
+			while (pos < to && Character.isWhitespace(html.charAt(pos))) {
+				pos++;
+			}
+			String value = "";
+			if (pos < to && html.charAt(pos) == '=') {
+				pos++;
+				while (pos < to && Character.isWhitespace(html.charAt(pos))) {
+					pos++;
+				}
+				char quote = pos < to ? html.charAt(pos) : 0;
+				if (quote == '"' || quote == '\'') {
+					int end = html.indexOf(quote, pos + 1);
+					if (end < 0 || end > to) {
+						end = to;
+					}
+					value = html.substring(pos + 1, end);
+					pos = end + 1;
+				} else {
+					int start = pos;
+					while (pos < to && !Character.isWhitespace(html.charAt(pos))) {
+						pos++;
+					}
+					value = html.substring(start, pos);
+				}
+			}
+			if (nameEnd > nameStart && nameEnd - nameStart == attribute.length()
+					&& html.regionMatches(true, nameStart, attribute, 0, attribute.length())) {
+				return Parser.unescapeEntities(value, true);
+			}
+			if (nameEnd == nameStart) {
+				pos++;
+			}
+		}
+		return null;
+	}
+
+
+	/**
+	 * Gets the text of a HTML fragment like jsoup's <code>Element.text()</code>: tags are removed, entities decoded and
+	 * whitespace (including non breaking spaces) is normalized.
+	 */
+	static String getText(String fragment) {
+		StringBuilder text = new StringBuilder(fragment.length());
+		int pos = 0;
+		while (pos < fragment.length()) {
+			int tag = fragment.indexOf('<', pos);
+			if (tag < 0) {
+				tag = fragment.length();
+			}
+			appendNormalized(text, Parser.unescapeEntities(fragment.substring(pos, tag), false));
+			if (tag == fragment.length()) {
+				break;
+			}
+			int tagEnd = findTagEnd(fragment, tag + 1);
+			if (tagEnd < 0) {
+				break;
+			}
+			if (fragment.regionMatches(true, tag + 1, "br", 0, 2)) {
+				appendNormalized(text, " ");
+			}
+			pos = tagEnd + 1;
+		}
+		return text.toString().trim();
+	}
+
+
+	private static void appendNormalized(StringBuilder text, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == NBSP) {
+				if (text.length() > 0 && text.charAt(text.length() - 1) != ' ') {
+					text.append(' ');
+				}
+			} else {
+				text.append(c);
+			}
+		}
+	}
+
+
+	/**
+	 * Escapes an attribute value like jsoup does when serializing an element.
+	 */
+	private static String escapeAttribute(String value) {
+		if (value.indexOf('&') < 0 && value.indexOf('"') < 0 && value.indexOf(NBSP) < 0) {
+			return value;
+		}
+		return value.replace("&", "&amp;").replace("\"", "&quot;").replace(String.valueOf(NBSP), "&nbsp;");
+	}
+
+
+	private static int indexOf(String html, String str, int from, int to) {
+		int index = html.indexOf(str, from);
+		return index >= 0 && index + str.length() <= to ? index : -1;
+	}
+
+
+	private static int indexOfIgnoreCase(String html, String str, int from) {
+		for (int i = from; i <= html.length() - str.length(); i++) {
+			if (html.regionMatches(true, i, str, 0, str.length())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
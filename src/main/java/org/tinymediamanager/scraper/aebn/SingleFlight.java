@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Counter;
+
+/**
+ * Coalesces concurrent calls for the same key: while a call is running, further callers with the same key wait for
+ * its result instead of running the call again. Results are not kept once the call finished.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ * @param <K>
+ *            type of the keys
+ * @param <V>
+ *            type of the results
+ */
+class SingleFlight<K, V> {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SingleFlight.class);
+
+	private final ConcurrentMap<K, CompletableFuture<V>> running = new ConcurrentHashMap<K, CompletableFuture<V>>();
+	private final Counter joined;
+
+
+	/**
+	 * @param joined
+	 *            the counter of callers sharing the result of a running call
+	 */
+	SingleFlight(Counter joined) {
+		this.joined = joined;
+	}
+
+
+	/**
+	 * Runs a call, unless a call with the same key is already running.
+	 *
+	 * @param key
+	 *            the key
+	 * @param call
+	 *            the call, run in the calling thread
+	 * @return the result of the call
+	 * @throws IOException
+	 *             if the call failed (also if it was run by another thread)
+	 */
+	V execute(K key, Callable<V> call) throws IOException {
+		CompletableFuture<V> created = new CompletableFuture<V>();
+		CompletableFuture<V> future = running.putIfAbsent(key, created);
+		if (future != null) {
+			LOGGER.debug("AEBN: waiting for running call {}", key);
+			AebnMetrics.count(joined);
+			return await(future);
+		}
+
+		try {
+			V value = call.call();
+			created.complete(value);
+			return value;
+		} catch (Exception e) {
+			created.completeExceptionally(e);
+			throw rethrow(e);
+		} catch (Error e) {
+			created.completeExceptionally(e);
+			throw e;
+		} finally {
+			running.remove(key, created);
+		}
+	}
+
+
+	/**
+	 * Gets the running call for a key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the future result of the running call or null if there is none
+	 */
+	CompletableFuture<V> getRunning(K key) {
+		return running.get(key);
+	}
+
+
+	/**
+	 * Waits for the result of a running call.
+	 *
+	 * @param future
+	 *            the future result
+	 * @return the result
+	 * @throws IOException
+	 *             if the call failed
+	 */
+	static <V> V await(CompletableFuture<V> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a running call");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw rethrow((Exception) e.getCause());
+		}
+	}
+
+
+	private static IOException rethrow(Exception e) {
+		if (e instanceof IOException) {
+			return (IOException) e;
+		}
+		if (e instanceof RuntimeException) {
+			throw (RuntimeException) e;
+		}
+		return new IOException(e);
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.scraper.MediaCastMember;
+
+/**
+ * Details of a star (performer) scraped from its AEBN star detail page.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class StarDetails {
+	private static final Logger LOGGER = LoggerFactory.getLogger(StarDetails.class);
+	static final StarDetails EMPTY = new StarDetails("", Collections.<String> emptyList());
+
+	private final String imageUrl;
+	private final List<String> fanartUrls;
+
+
+	StarDetails(String imageUrl, List<String> fanartUrls) {
+		this.imageUrl = imageUrl;
+		this.fanartUrls = Collections.unmodifiableList(new ArrayList<String>(fanartUrls));
+	}
+
+
+	/**
+	 * Parses a star detail page.
+	 *
+	 * @param document
+	 *            the star detail page
+	 * @return the star details, {@link #EMPTY} if the page contains no star info
+	 */
+	static StarDetails parse(Document document) {
+		Elements elements = document.getElementsByAttributeValue("class", "StarInfo");
+		if (elements.size() == 0) {
+			LOGGER.debug("AEBN: no additional actor details found");
+			return EMPTY;
+		}
+
+		// Actor image
+		String imageUrl = "";
+		Element image = elements.select("[itemprop=image]").first();
+		if (image != null) {
+			imageUrl = image.attr("src");
+		}
+		LOGGER.debug("AEBN: actor image({})", imageUrl);
+
+		// Actor 'fanart' images
+		// unsure if this is ever shown in tmm
+		List<String> fanartUrls = new ArrayList<String>();
+		elements = document.getElementsByAttributeValue("class", "StarDetailGallery").select("a");
+		LOGGER.debug("AEBN: {} gallery images found", elements.size());
+		for (Element thumbnail : elements) {
+			fanartUrls.add(thumbnail.attr("href"));
+		}
+		return new StarDetails(imageUrl, fanartUrls);
+	}
+
+
+	/**
+	 * Copies the star details into a cast member.
+	 *
+	 * @param cm
+	 *            the cast member to fill
+	 */
+	void applyTo(MediaCastMember cm) {
+		if (!imageUrl.isEmpty()) {
+			cm.setImageUrl(imageUrl);
+		}
+		for (String fanartUrl : fanartUrls) {
+			LOGGER.debug("AEBN: add fanart image({})", fanartUrl);
+			cm.addFanart(fanartUrl);
+		}
+	}
+
+
+	/**
+	 * Writes the star details in a compact binary form.
+	 *
+	 * @param out
+	 *            the output to write to
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void writeTo(DataOutput out) throws IOException {
+		out.writeUTF(imageUrl);
+		out.writeInt(fanartUrls.size());
+		for (String fanartUrl : fanartUrls) {
+			out.writeUTF(fanartUrl);
+		}
+	}
+
+
+	/**
+	 * Reads star details written by {@link #writeTo(DataOutput)}.
+	 *
+	 * @param in
+	 *            the input to read from
+	 * @return the star details
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	static StarDetails readFrom(DataInput in) throws IOException {
+		String imageUrl = in.readUTF();
+		int count = in.readInt();
+		List<String> fanartUrls = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			fanartUrls.add(in.readUTF());
+		}
+		return new StarDetails(imageUrl, fanartUrls);
+	}
+
+
+	String getImageUrl() {
+		return imageUrl;
+	}
+
+
+	List<String> getFanartUrls() {
+		return fanartUrls;
+	}
+
+}
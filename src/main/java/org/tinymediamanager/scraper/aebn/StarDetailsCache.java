@@ -0,0 +1,286 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A persistent cache of star details, keyed by the AEBN star id.
+ * <p>
+ * An in-memory LRU cache sits in front of one small entry per star in the {@link AebnCacheBackend}, usually a file in
+ * the cache directory. Entries expire after the configured time to live; if there are more files than allowed, the
+ * oldest ones are deleted.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see StarDetails
+ *
+ */
+class StarDetailsCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger(StarDetailsCache.class);
+	private static final int FORMAT_VERSION = 1;
+	private static final String SUFFIX = ".star";
+
+	private final AebnCacheBackend backend;
+	private final LruCache<String, StarDetails> memory;
+
+
+	/**
+	 * @param directory
+	 *            cache directory, null for a memory only cache
+	 * @param maxEntries
+	 *            maximum number of entries kept in memory
+	 * @param maxFiles
+	 *            maximum number of entries kept on disk
+	 * @param ttlMillis
+	 *            time to live of an entry in milliseconds
+	 */
+	StarDetailsCache(File directory, int maxEntries, int maxFiles, long ttlMillis) {
+		this(directory == null ? null : new DirectoryCacheBackend(directory, SUFFIX, maxFiles), maxEntries,
+				ttlMillis);
+	}
+
+
+	/**
+	 * @param backend
+	 *            stores the entries beyond the memory cache, null for a memory only cache
+	 * @param maxEntries
+	 *            maximum number of entries kept in memory
+	 * @param ttlMillis
+	 *            time to live of an entry in milliseconds
+	 */
+	StarDetailsCache(AebnCacheBackend backend, int maxEntries, long ttlMillis) {
+		this.backend = backend;
+		this.memory = new LruCache<String, StarDetails>(maxEntries, ttlMillis);
+	}
+
+
+	/**
+	 * Creates the cache configured by the {@link AebnSettings}.
+	 *
+	 * @return the star details cache
+	 */
+	static StarDetailsCache create() {
+		AebnCacheBackend backend = null;
+		if (AebnSettings.getStarCacheFiles() > 0) {
+			backend = AebnCacheBackend.create("stars", SUFFIX, AebnSettings.getStarCacheFiles());
+		}
+		return new StarDetailsCache(backend, AebnSettings.getStarCacheEntries(),
+				TimeUnit.HOURS.toMillis(AebnSettings.getStarCacheHours()));
+	}
+
+
+	/**
+	 * Gets cached star details.
+	 *
+	 * @param starId
+	 *            the AEBN star id
+	 * @return the star details or null if not cached (or expired)
+	 */
+	StarDetails get(String starId) {
+		if (!isValidStarId(starId)) {
+			return null;
+		}
+		StarDetails details = memory.get(starId);
+		if (details != null || backend == null) {
+			return details;
+		}
+		try {
+			return read(starId, backend.get(starId));
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not read cached star details for id({}): {}", starId, e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Caches star details.
+	 *
+	 * @param starId
+	 *            the AEBN star id
+	 * @param details
+	 *            the star details
+	 */
+	void put(String starId, StarDetails details) {
+		put(starId, details, System.currentTimeMillis());
+	}
+
+
+	/**
+	 * Caches star details loaded earlier.
+	 *
+	 * @param starId
+	 *            the AEBN star id
+	 * @param details
+	 *            the star details
+	 * @param created
+	 *            when the star details were loaded, in milliseconds since the epoch
+	 */
+	void put(String starId, StarDetails details, long created) {
+		if (!isValidStarId(starId) || memory.isExpired(created)) {
+			return;
+		}
+		memory.put(starId, details, created);
+		if (backend == null) {
+			return;
+		}
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(created);
+			details.writeTo(out);
+			out.flush();
+			backend.put(starId, bytes.toByteArray());
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not cache star details for id({}): {}", starId, e);
+		}
+	}
+
+
+	/**
+	 * Claims the download of a star detail page, so other installations sharing the cache wait for it instead of
+	 * downloading it, too.
+	 *
+	 * @param starId
+	 *            the AEBN star id
+	 * @param leaseMillis
+	 *            time after which the claim expires
+	 * @return true if the caller should download the page and {@link #release(String)} the claim afterwards
+	 * @see AebnCacheBackend#claim(String, long)
+	 */
+	boolean claim(String starId, long leaseMillis) {
+		return backend == null || !isValidStarId(starId) || backend.claim(starId, leaseMillis);
+	}
+
+
+	/**
+	 * Releases a claim made by {@link #claim(String, long)}.
+	 *
+	 * @param starId
+	 *            the AEBN star id
+	 */
+	void release(String starId) {
+		if (backend != null && isValidStarId(starId)) {
+			backend.release(starId);
+		}
+	}
+
+
+	/**
+	 * Waits for star details claimed by somebody else.
+	 *
+	 * @param starId
+	 *            the AEBN star id
+	 * @param timeoutMillis
+	 *            maximum time to wait
+	 * @return the star details or null if they did not appear in time
+	 */
+	StarDetails await(String starId, long timeoutMillis) {
+		try {
+			return read(starId, backend.await(starId, timeoutMillis));
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not read cached star details for id({}): {}", starId, e);
+			return null;
+		}
+	}
+
+
+	/**
+	 * Visits all star details cached beyond the memory which have not expired, one at a time.
+	 *
+	 * @param visitor
+	 *            called for every star
+	 * @throws IOException
+	 *             if the visitor failed
+	 */
+	void forEach(Visitor visitor) throws IOException {
+		if (backend == null) {
+			return;
+		}
+		for (String starId : backend.keys()) {
+			if (!isValidStarId(starId)) {
+				continue;
+			}
+			long created;
+			StarDetails details;
+			try {
+				byte[] data = backend.get(starId);
+				if (data == null || !isCurrent(data)) {
+					continue;
+				}
+				DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+				in.readInt();
+				created = in.readLong();
+				details = StarDetails.readFrom(in);
+			} catch (IOException e) {
+				LOGGER.warn("AEBN: could not read cached star details for id({}): {}", starId, e);
+				continue;
+			}
+			visitor.visit(starId, details, created);
+		}
+	}
+
+	/**
+	 * Receives the star details of {@link StarDetailsCache#forEach(Visitor)}.
+	 */
+	interface Visitor {
+		void visit(String starId, StarDetails details, long created) throws IOException;
+	}
+
+
+	/**
+	 * Deletes the oldest entries if there are more than allowed.
+	 */
+	void prune() {
+		if (backend != null) {
+			backend.prune();
+		}
+	}
+
+
+	private StarDetails read(String starId, byte[] data) throws IOException {
+		if (data == null || !isCurrent(data)) {
+			return null;
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		in.readInt();
+		long created = in.readLong();
+		StarDetails details = StarDetails.readFrom(in);
+		memory.put(starId, details, created);
+		return details;
+	}
+
+
+	private boolean isCurrent(byte[] data) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		return in.readInt() == FORMAT_VERSION && !memory.isExpired(in.readLong());
+	}
+
+
+	private static boolean isValidStarId(String starId) {
+		return starId != null && starId.matches("\\d+");
+	}
+
+}
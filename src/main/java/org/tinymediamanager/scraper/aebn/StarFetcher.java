@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Counter;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Phase;
+
+/**
+ * Downloads and parses star (actor) detail pages in parallel.
+ * <p>
+ * The number of concurrent downloads is bounded by {@link AebnSettings#getStarThreads()}, also when running on
+ * virtual threads. Star details are looked up in the {@link StarDetailsCache} first, so pages of known stars are not
+ * downloaded again.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see StarDetails
+ *
+ */
+class StarFetcher {
+	private static final Logger LOGGER = LoggerFactory.getLogger(StarFetcher.class);
+
+	/** time an installation sharing the cache may take to load a star before others load it themselves */
+	private static final long CLAIM_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	private final ExecutorService executor;
+	private final Semaphore permits;
+	private final StarDetailsCache cache;
+	private final AebnTransport transport;
+	private final ConcurrentMap<String, CompletableFuture<StarDetails>> running =
+			new ConcurrentHashMap<String, CompletableFuture<StarDetails>>();
+
+
+	StarFetcher(int threads, StarDetailsCache cache, AebnTransport transport) {
+		this.executor = AebnExecutors.newExecutor("aebn-stars", threads);
+		this.permits = new Semaphore(threads);
+		this.cache = cache;
+		this.transport = transport;
+	}
+
+
+	/**
+	 * Schedules the download of a star detail page.
+	 * <p>
+	 * If the page of this star is already being downloaded (e.g. for another movie), the running download is shared.
+	 *
+	 * @param starId
+	 *            the AEBN star id (may be empty)
+	 * @param starUrl
+	 *            the star detail page url
+	 * @return the future star details; fails with the download or parse error of this page only
+	 */
+	CompletableFuture<StarDetails> submit(final String starId, final String starUrl) {
+		StarDetails cached = cache.get(starId);
+		if (cached != null) {
+			LOGGER.debug("AEBN: star details for id({}) found in cache", starId);
+			AebnMetrics.count(Counter.STAR_CACHE_HIT);
+			return CompletableFuture.completedFuture(cached);
+		}
+		AebnMetrics.count(Counter.STAR_CACHE_MISS);
+		if (starId.isEmpty()) {
+			return schedule(starId, starUrl);
+		}
+
+		final CompletableFuture<StarDetails> created = new CompletableFuture<StarDetails>();
+		CompletableFuture<StarDetails> future = running.putIfAbsent(starId, created);
+		if (future != null) {
+			LOGGER.debug("AEBN: star detail page id({}) is already being downloaded", starId);
+			AebnMetrics.count(Counter.STAR_COALESCED);
+			return future;
+		}
+		created.whenComplete(new BiConsumer<StarDetails, Throwable>() {
+			@Override
+			public void accept(StarDetails value, Throwable error) {
+				running.remove(starId, created);
+			}
+		});
+		forward(schedule(starId, starUrl), created);
+		return created;
+	}
+
+
+	private CompletableFuture<StarDetails> schedule(final String starId, final String starUrl) {
+		final CompletableFuture<StarDetails> future = new CompletableFuture<StarDetails>();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					permits.acquire();
+					try {
+						future.complete(fetch(starId, starUrl));
+					} finally {
+						permits.release();
+					}
+				} catch (InterruptedException e) {
+					future.completeExceptionally(e);
+					Thread.currentThread().interrupt();
+				} catch (Exception e) {
+					future.completeExceptionally(e);
+				}
+			}
+		});
+		return future;
+	}
+
+
+	/**
+	 * Schedules the download of a star detail page, unless the page of this star is already scheduled.
+	 *
+	 * @param starId
+	 *            the AEBN star id (may be empty)
+	 * @param starUrl
+	 *            the star detail page url
+	 * @param inFlight
+	 *            the star details already scheduled, keyed by star id; null to always schedule a download
+	 * @return the future star details
+	 */
+	CompletableFuture<StarDetails> submit(final String starId, final String starUrl,
+			ConcurrentMap<String, CompletableFuture<StarDetails>> inFlight) {
+		if (inFlight == null || starId.isEmpty()) {
+			return submit(starId, starUrl);
+		}
+		CompletableFuture<StarDetails> future = inFlight.get(starId);
+		if (future == null) {
+			CompletableFuture<StarDetails> created = new CompletableFuture<StarDetails>();
+			future = inFlight.putIfAbsent(starId, created);
+			if (future == null) {
+				forward(submit(starId, starUrl), created);
+				future = created;
+			}
+		}
+		return future;
+	}
+
+
+	/**
+	 * Completes a future with the result of another one.
+	 */
+	static <T> void forward(CompletableFuture<T> source, final CompletableFuture<T> target) {
+		source.whenComplete(new BiConsumer<T, Throwable>() {
+			@Override
+			public void accept(T value, Throwable error) {
+				if (error != null) {
+					target.completeExceptionally(error);
+				} else {
+					target.complete(value);
+				}
+			}
+		});
+	}
+
+
+	/**
+	 * Downloads and parses a star detail page in the calling thread and caches the result.
+	 *
+	 * @param starId
+	 *            the AEBN star id (may be empty)
+	 * @param starUrl
+	 *            the star detail page url
+	 * @return the star details
+	 * @throws Exception
+	 *             if the page could not be downloaded or parsed
+	 */
+	StarDetails fetch(String starId, String starUrl) throws Exception {
+		if (!cache.claim(starId, CLAIM_MILLIS)) {
+			// another installation sharing the cache is downloading the page right now
+			StarDetails loaded = cache.await(starId, CLAIM_MILLIS);
+			if (loaded != null) {
+				LOGGER.debug("AEBN: using star details for id({}) loaded by another installation", starId);
+				AebnMetrics.count(Counter.SHARED_CACHE_WAIT);
+				return loaded;
+			}
+			return download(starId, starUrl);
+		}
+		try {
+			return download(starId, starUrl);
+		} finally {
+			cache.release(starId);
+		}
+	}
+
+
+	private StarDetails download(String starId, String starUrl) throws Exception {
+		LOGGER.debug("AEBN: download star detail page id({}), url({})", starId, starUrl);
+		AebnResponse response;
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.STAR_FETCH, starUrl);
+		try {
+			response = transport.get(starUrl, new LinkedHashMap<String, String>());
+			timer.success();
+		} finally {
+			timer.stop();
+		}
+
+		StarDetails details;
+		timer = AebnMetrics.start(Phase.STAR_PARSE, starUrl);
+		try {
+			details = StarDetails.parse(response.parse(""));
+			timer.success();
+		} finally {
+			timer.stop();
+		}
+		cache.put(starId, details);
+		return details;
+	}
+
+}
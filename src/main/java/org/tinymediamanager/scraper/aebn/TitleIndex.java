@@ -0,0 +1,733 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A persistent index of the titles, series and studios of all movies seen in searches and scrapes, for searching
+ * without network access.
+ * <p>
+ * Titles and series are split into character trigrams; the index maps every trigram to the movies containing it. Most
+ * of the index lives in an immutable segment file, which is memory-mapped instead of read into the heap. New entries
+ * are kept in memory and appended to a log file until there are enough of them to write a new segment.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+class TitleIndex {
+	private static final Logger LOGGER = LoggerFactory.getLogger(TitleIndex.class);
+	private static final int MAGIC = 0x4145424E;
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 20;
+	private static final String SEGMENT_PREFIX = "titles.";
+	private static final String SEGMENT_SUFFIX = ".idx";
+	private static final String LOG_NAME = "titles.log";
+	private static final int MIN_DELTA = 1000;
+	private static final int MAX_CANDIDATES = 100;
+	private static final float MIN_GRAM_OVERLAP = 0.5f;
+	private static final int MAX_TEXT_LENGTH = 1000;
+
+	private final File directory;
+	private final Map<Integer, Entry> delta = new ConcurrentHashMap<Integer, Entry>();
+	private volatile Segment segment = Segment.EMPTY;
+	private long generation;
+	private DataOutputStream log;
+
+	/**
+	 * An indexed movie.
+	 */
+	static class Entry {
+		final int aebnId;
+		final String title;
+		final String series;
+		final String studio;
+
+
+		Entry(int aebnId, String title, String series, String studio) {
+			this.aebnId = aebnId;
+			this.title = clip(title);
+			this.series = clip(series);
+			this.studio = clip(studio);
+		}
+
+
+		/**
+		 * Merges newer data into this entry, keeping the known values the newer data lacks.
+		 *
+		 * @param newer
+		 *            the newer entry of the same movie
+		 * @return the merged entry
+		 */
+		Entry merge(Entry newer) {
+			return new Entry(aebnId, StringUtils.defaultIfBlank(newer.title, title),
+					StringUtils.defaultIfBlank(newer.series, series), StringUtils.defaultIfBlank(newer.studio, studio));
+		}
+
+
+		boolean sameAs(Entry other) {
+			return other != null && aebnId == other.aebnId && title.equals(other.title)
+					&& series.equals(other.series) && studio.equals(other.studio);
+		}
+
+
+		private static String clip(String text) {
+			return StringUtils.left(StringUtils.defaultString(text).trim(), MAX_TEXT_LENGTH);
+		}
+	}
+
+
+	/**
+	 * @param directory
+	 *            directory of the index files, null for a memory only index
+	 */
+	TitleIndex(File directory) {
+		this.directory = directory;
+		if (directory != null) {
+			open();
+		}
+	}
+
+
+	/**
+	 * Creates the index configured by the {@link AebnSettings}.
+	 *
+	 * @return the title index or null if it is disabled
+	 */
+	static TitleIndex create() {
+		if (!AebnSettings.isTitleIndexEnabled()) {
+			return null;
+		}
+		return new TitleIndex(new File(AebnSettings.getCacheDirectory(), "index"));
+	}
+
+
+	/**
+	 * Gets an indexed movie.
+	 *
+	 * @param aebnId
+	 *            the AEBN id
+	 * @return the entry or null if the movie is not indexed
+	 */
+	Entry get(int aebnId) {
+		Entry entry = delta.get(aebnId);
+		if (entry != null) {
+			return entry;
+		}
+		Segment current = segment;
+		int ordinal = current.indexOf(aebnId);
+		return ordinal < 0 ? null : current.getEntry(ordinal);
+	}
+
+
+	/**
+	 * Gets the number of indexed movies.
+	 *
+	 * @return the number of entries
+	 */
+	int size() {
+		Segment current = segment;
+		int size = current.entries;
+		for (Integer aebnId : delta.keySet()) {
+			if (current.indexOf(aebnId) < 0) {
+				size++;
+			}
+		}
+		return size;
+	}
+
+
+	/**
+	 * Finds the movies whose title or series shares most of its trigrams with a query.
+	 *
+	 * @param query
+	 *            the search query
+	 * @return at most 100 candidates, most shared trigrams first; ranking them is up to the caller
+	 */
+	List<Entry> find(String query) {
+		final int[] queryGrams = grams(query);
+		if (queryGrams.length == 0) {
+			return new ArrayList<Entry>();
+		}
+		int required = Math.max(1, (int) Math.ceil(queryGrams.length * MIN_GRAM_OVERLAP));
+
+		Segment current = segment;
+		int[] counts = new int[current.entries];
+		for (int gram : queryGrams) {
+			current.countPostings(gram, counts);
+		}
+		final List<int[]> matches = new ArrayList<int[]>();
+		final List<Entry> entries = new ArrayList<Entry>();
+		for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+			if (counts[ordinal] >= required && !delta.containsKey(current.getAebnId(ordinal))) {
+				matches.add(new int[] { counts[ordinal], -1 - ordinal });
+			}
+		}
+		for (Entry entry : delta.values()) {
+			int count = countShared(queryGrams, grams(entry));
+			if (count >= required) {
+				matches.add(new int[] { count, entries.size() });
+				entries.add(entry);
+			}
+		}
+
+		Collections.sort(matches, new Comparator<int[]>() {
+			@Override
+			public int compare(int[] m1, int[] m2) {
+				return Integer.compare(m2[0], m1[0]);
+			}
+		});
+		List<Entry> candidates = new ArrayList<Entry>();
+		for (int[] match : matches.subList(0, Math.min(MAX_CANDIDATES, matches.size()))) {
+			candidates.add(match[1] < 0 ? current.getEntry(-1 - match[1]) : entries.get(match[1]));
+		}
+		return candidates;
+	}
+
+
+	/**
+	 * Finds the movies whose title equals a query, ignoring case, punctuation and blanks.
+	 *
+	 * @param query
+	 *            the search query
+	 * @return the movies with exactly that title
+	 */
+	List<Entry> findExact(String query) {
+		String normalized = normalize(query);
+		List<Entry> found = new ArrayList<Entry>();
+		if (normalized.isEmpty()) {
+			return found;
+		}
+		for (Entry entry : find(query)) {
+			if (normalized.equals(normalize(entry.title))) {
+				found.add(entry);
+			}
+		}
+		return found;
+	}
+
+
+	/**
+	 * Adds or updates a movie.
+	 *
+	 * @param aebnId
+	 *            the AEBN id
+	 * @param title
+	 *            the title
+	 * @param series
+	 *            the series, may be null
+	 * @param studio
+	 *            the studio, may be null
+	 */
+	void add(int aebnId, String title, String series, String studio) {
+		addAll(Collections.singletonList(new Entry(aebnId, title, series, studio)));
+	}
+
+
+	/**
+	 * Adds or updates movies; values unknown to the new entries (e.g. the series of a search result) are kept.
+	 *
+	 * @param entries
+	 *            the new entries
+	 */
+	synchronized void addAll(Collection<Entry> entries) {
+		boolean changed = false;
+		for (Entry entry : entries) {
+			Entry existing = get(entry.aebnId);
+			Entry merged = existing == null ? entry : existing.merge(entry);
+			if (merged.title.isEmpty() || merged.sameAs(existing)) {
+				continue;
+			}
+			delta.put(merged.aebnId, merged);
+			changed = true;
+			if (log != null) {
+				try {
+					writeEntry(log, merged);
+				} catch (IOException e) {
+					LOGGER.warn("AEBN: could not write title index log: {}", e.getMessage());
+					closeLog();
+				}
+			}
+		}
+		if (!changed) {
+			return;
+		}
+		if (log != null) {
+			try {
+				log.flush();
+			} catch (IOException e) {
+				LOGGER.warn("AEBN: could not write title index log: {}", e.getMessage());
+				closeLog();
+			}
+		}
+		if (delta.size() >= Math.max(MIN_DELTA, segment.entries / 10)) {
+			rebuild();
+		}
+	}
+
+
+	/**
+	 * Writes all entries into a new segment and starts a new log.
+	 */
+	synchronized void rebuild() {
+		Segment current = segment;
+		List<Entry> entries = new ArrayList<Entry>(current.entries + delta.size());
+		for (int ordinal = 0; ordinal < current.entries; ordinal++) {
+			if (!delta.containsKey(current.getAebnId(ordinal))) {
+				entries.add(current.getEntry(ordinal));
+			}
+		}
+		entries.addAll(delta.values());
+		Collections.sort(entries, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry e1, Entry e2) {
+				return Integer.compare(e1.aebnId, e2.aebnId);
+			}
+		});
+		LOGGER.debug("AEBN: writing title index of {} movies", entries.size());
+
+		try {
+			if (directory == null) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				writeSegment(out, entries);
+				segment = new Segment(ByteBuffer.wrap(out.toByteArray()), null);
+				delta.clear();
+				return;
+			}
+
+			final List<Entry> sorted = entries;
+			File file = new File(directory, SEGMENT_PREFIX + (generation + 1) + SEGMENT_SUFFIX);
+			CacheFiles.writeAtomically(file, new CacheFiles.Writer() {
+				@Override
+				public void write(OutputStream out) throws IOException {
+					writeSegment(out, sorted);
+				}
+			});
+			segment = Segment.map(file);
+			generation++;
+			delta.clear();
+			closeLog();
+			new File(directory, LOG_NAME).delete();
+			openLog();
+			// a still mapped segment cannot be deleted on some platforms, it is deleted on the next start then
+			if (current.file != null) {
+				current.file.delete();
+			}
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not write title index: {}", e.getMessage());
+		}
+	}
+
+
+	/**
+	 * Closes the log file; the index is still usable, but new entries are not persisted.
+	 */
+	synchronized void close() {
+		closeLog();
+	}
+
+
+	private void open() {
+		File[] segments = directory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+			}
+		});
+		if (segments != null) {
+			File newest = null;
+			for (File file : segments) {
+				long fileGeneration = getGeneration(file);
+				if (fileGeneration > generation) {
+					generation = fileGeneration;
+					newest = file;
+				}
+			}
+			for (File file : segments) {
+				if (!file.equals(newest)) {
+					file.delete();
+				}
+			}
+			if (newest != null) {
+				try {
+					segment = Segment.map(newest);
+				} catch (IOException e) {
+					LOGGER.warn("AEBN: could not read title index {}: {}", newest, e.getMessage());
+				}
+			}
+		}
+
+		File logFile = new File(directory, LOG_NAME);
+		if (logFile.isFile()) {
+			try {
+				DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)));
+				try {
+					while (true) {
+						Entry entry = new Entry(in.readInt(), in.readUTF(), in.readUTF(), in.readUTF());
+						delta.put(entry.aebnId, entry);
+					}
+				} catch (EOFException e) {
+					// end of the log, or an entry cut off by a crash
+				} finally {
+					in.close();
+				}
+			} catch (IOException e) {
+				LOGGER.warn("AEBN: could not read title index log {}: {}", logFile, e.getMessage());
+			}
+		}
+		openLog();
+		LOGGER.debug("AEBN: opened title index with {} movies", size());
+	}
+
+
+	private void openLog() {
+		if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+			LOGGER.warn("AEBN: could not create title index directory {}", directory);
+			return;
+		}
+		try {
+			log = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(new File(directory, LOG_NAME), true)));
+		} catch (IOException e) {
+			LOGGER.warn("AEBN: could not open title index log: {}", e.getMessage());
+		}
+	}
+
+
+	private void closeLog() {
+		if (log == null) {
+			return;
+		}
+		try {
+			log.close();
+		} catch (IOException e) {
+			LOGGER.debug("AEBN: could not close title index log: {}", e.getMessage());
+		}
+		log = null;
+	}
+
+
+	private static long getGeneration(File segmentFile) {
+		String name = segmentFile.getName();
+		try {
+			return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+
+	private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+		out.writeInt(entry.aebnId);
+		out.writeUTF(entry.title);
+		out.writeUTF(entry.series);
+		out.writeUTF(entry.studio);
+	}
+
+
+	/**
+	 * Writes a segment: a header, the sorted AEBN ids, the offsets of the entry texts, the sorted trigrams with the
+	 * start of their postings, the postings (entry numbers) and finally the texts (length prefixed UTF-8).
+	 */
+	private static void writeSegment(OutputStream stream, List<Entry> entries) throws IOException {
+		// all (trigram, entry number) pairs, sorted by trigram
+		long[] pairs = new long[entries.size() * 16];
+		int pairCount = 0;
+		for (int ordinal = 0; ordinal < entries.size(); ordinal++) {
+			for (int gram : grams(entries.get(ordinal))) {
+				if (pairCount == pairs.length) {
+					pairs = Arrays.copyOf(pairs, pairs.length * 2);
+				}
+				pairs[pairCount++] = (long) gram << 32 | ordinal;
+			}
+		}
+		Arrays.sort(pairs, 0, pairCount);
+		int gramCount = 0;
+		for (int i = 0; i < pairCount; i++) {
+			if (i == 0 || (int) (pairs[i] >>> 32) != (int) (pairs[i - 1] >>> 32)) {
+				gramCount++;
+			}
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeInt(entries.size());
+		out.writeInt(gramCount);
+		out.writeInt(pairCount);
+		for (Entry entry : entries) {
+			out.writeInt(entry.aebnId);
+		}
+		int offset = 0;
+		for (Entry entry : entries) {
+			out.writeInt(offset);
+			offset += 6 + utf8(entry.title).length + utf8(entry.series).length + utf8(entry.studio).length;
+		}
+		for (int i = 0; i < pairCount; i++) {
+			if (i == 0 || (int) (pairs[i] >>> 32) != (int) (pairs[i - 1] >>> 32)) {
+				out.writeInt((int) (pairs[i] >>> 32));
+			}
+		}
+		for (int i = 0; i < pairCount; i++) {
+			if (i == 0 || (int) (pairs[i] >>> 32) != (int) (pairs[i - 1] >>> 32)) {
+				out.writeInt(i);
+			}
+		}
+		out.writeInt(pairCount);
+		for (int i = 0; i < pairCount; i++) {
+			out.writeInt((int) pairs[i]);
+		}
+		for (Entry entry : entries) {
+			writeText(out, entry.title);
+			writeText(out, entry.series);
+			writeText(out, entry.studio);
+		}
+		out.flush();
+	}
+
+
+	private static void writeText(DataOutputStream out, String text) throws IOException {
+		byte[] bytes = utf8(text);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+
+	private static byte[] utf8(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+
+	private static int countShared(int[] sortedGrams, int[] otherSortedGrams) {
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < sortedGrams.length && j < otherSortedGrams.length) {
+			if (sortedGrams[i] < otherSortedGrams[j]) {
+				i++;
+			} else if (sortedGrams[i] > otherSortedGrams[j]) {
+				j++;
+			} else {
+				count++;
+				i++;
+				j++;
+			}
+		}
+		return count;
+	}
+
+
+	private static int[] grams(Entry entry) {
+		int[] titleGrams = grams(entry.title);
+		int[] seriesGrams = grams(entry.series);
+		int[] grams = Arrays.copyOf(titleGrams, titleGrams.length + seriesGrams.length);
+		System.arraycopy(seriesGrams, 0, grams, titleGrams.length, seriesGrams.length);
+		return distinct(grams, grams.length);
+	}
+
+
+	/**
+	 * Splits a text into the distinct trigrams of its lower case words, padded with one blank.
+	 *
+	 * @param text
+	 *            the text, may be null
+	 * @return the sorted trigram codes
+	 */
+	static int[] grams(String text) {
+		String words = normalize(text);
+		if (words.isEmpty()) {
+			return new int[0];
+		}
+		String normalized = " " + words + " ";
+		int[] grams = new int[Math.max(0, normalized.length() - 2)];
+		for (int i = 0; i < grams.length; i++) {
+			// exact for characters below 1024, colliding trigrams only add candidates
+			grams[i] = (normalized.charAt(i) & 0x3FF) << 20 | (normalized.charAt(i + 1) & 0x3FF) << 10
+					| (normalized.charAt(i + 2) & 0x3FF);
+		}
+		return distinct(grams, grams.length);
+	}
+
+
+	/**
+	 * Normalizes a text to its lower case words, separated by single blanks.
+	 *
+	 * @param text
+	 *            the text, may be null
+	 * @return the normalized text, empty if it has no letters or digits
+	 */
+	static String normalize(String text) {
+		StringBuilder normalized = new StringBuilder();
+		for (char c : StringUtils.defaultString(text).toLowerCase(Locale.ROOT).toCharArray()) {
+			if (Character.isLetterOrDigit(c)) {
+				normalized.append(c);
+			} else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+				normalized.append(' ');
+			}
+		}
+		return normalized.toString().trim();
+	}
+
+
+	private static int[] distinct(int[] values, int length) {
+		Arrays.sort(values, 0, length);
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			if (count == 0 || values[i] != values[count - 1]) {
+				values[count++] = values[i];
+			}
+		}
+		return Arrays.copyOf(values, count);
+	}
+
+	/**
+	 * A written index segment, read directly from its (memory-mapped) buffer.
+	 */
+	private static final class Segment {
+		static final Segment EMPTY = new Segment(null, null);
+
+		final File file;
+		final int entries;
+		private final ByteBuffer buffer;
+		private final int gramCount;
+		private final int idsAt;
+		private final int offsetsAt;
+		private final int gramsAt;
+		private final int startsAt;
+		private final int postingsAt;
+		private final int textsAt;
+
+
+		Segment(ByteBuffer buffer, File file) {
+			this.buffer = buffer;
+			this.file = file;
+			if (buffer == null) {
+				entries = gramCount = idsAt = offsetsAt = gramsAt = startsAt = postingsAt = textsAt = 0;
+				return;
+			}
+			entries = buffer.getInt(8);
+			gramCount = buffer.getInt(12);
+			int postingCount = buffer.getInt(16);
+			idsAt = HEADER_SIZE;
+			offsetsAt = idsAt + 4 * entries;
+			gramsAt = offsetsAt + 4 * entries;
+			startsAt = gramsAt + 4 * gramCount;
+			postingsAt = startsAt + 4 * (gramCount + 1);
+			textsAt = postingsAt + 4 * postingCount;
+		}
+
+
+		static Segment map(File file) throws IOException {
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+				if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+					throw new IOException("not a title index segment");
+				}
+				return new Segment(buffer, file);
+			} finally {
+				// the mapping stays valid
+				raf.close();
+			}
+		}
+
+
+		int getAebnId(int ordinal) {
+			return buffer.getInt(idsAt + 4 * ordinal);
+		}
+
+
+		int indexOf(int aebnId) {
+			int low = 0;
+			int high = entries - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int midId = getAebnId(mid);
+				if (midId < aebnId) {
+					low = mid + 1;
+				} else if (midId > aebnId) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -1;
+		}
+
+
+		Entry getEntry(int ordinal) {
+			ByteBuffer texts = buffer.duplicate();
+			texts.position(textsAt + buffer.getInt(offsetsAt + 4 * ordinal));
+			return new Entry(getAebnId(ordinal), readText(texts), readText(texts), readText(texts));
+		}
+
+
+		void countPostings(int gram, int[] counts) {
+			int low = 0;
+			int high = gramCount - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int midGram = buffer.getInt(gramsAt + 4 * mid);
+				if (midGram < gram) {
+					low = mid + 1;
+				} else if (midGram > gram) {
+					high = mid - 1;
+				} else {
+					int end = buffer.getInt(startsAt + 4 * (mid + 1));
+					for (int i = buffer.getInt(startsAt + 4 * mid); i < end; i++) {
+						counts[buffer.getInt(postingsAt + 4 * i)]++;
+					}
+					return;
+				}
+			}
+		}
+
+
+		private static String readText(ByteBuffer texts) {
+			byte[] bytes = new byte[texts.getShort() & 0xFFFF];
+			texts.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.tinymediamanager.scraper.MediaCastMember;
+import org.tinymediamanager.scraper.MediaMetadata;
+import org.tinymediamanager.scraper.MediaScrapeOptions;
+import org.tinymediamanager.scraper.MediaType;
+
+/**
+ * A test class for scraping many movies at once.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnBatchScraper
+ *
+ */
+public class AebnBatchScraperTest {
+	private static final String STAR_URL = "http://theater.aebn.net/dispatcher/starDetail?starId=";
+
+	/**
+	 * Serves a star page with the star id as image, counting the downloads per star.
+	 */
+	private static class StarTransport implements AebnTransport {
+		final ConcurrentMap<String, AtomicInteger> downloads = new ConcurrentHashMap<String, AtomicInteger>();
+
+		@Override
+		public AebnResponse get(String url, Map<String, String> headers) throws IOException {
+			String starId = url.substring(STAR_URL.length());
+			downloads.putIfAbsent(starId, new AtomicInteger());
+			downloads.get(starId).incrementAndGet();
+			String page = "<div class=\"StarInfo\"><img itemprop=\"image\" src=\"http://pic.aebn.net/" + starId
+					+ ".jpg\"></div>";
+			return new AebnResponse(200, null, null, page.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Serves the fixture movie for two ids, fails for all others.
+	 */
+	private static class FixtureLoader implements AebnBatchScraper.MovieLoader {
+		final StarFetcher fetcher;
+		final MovieDetails details;
+
+		FixtureLoader(StarFetcher fetcher) throws Exception {
+			this.fetcher = fetcher;
+			this.details = MovieDetails.parse(MovieDetailsExtractorTest.loadFixture("movieDetail_183071.html"));
+		}
+
+		@Override
+		public MovieDetails loadMovieDetails(Integer aebnId, String locale) throws IOException {
+			if (aebnId.intValue() == 183071 || aebnId.intValue() == 183072) {
+				return details;
+			}
+			throw new IOException("HTTP 404 for movie " + aebnId);
+		}
+
+		@Override
+		public List<CompletableFuture<StarDetails>> getStars(Integer aebnId, String locale, MovieDetails details,
+				ConcurrentMap<String, CompletableFuture<StarDetails>> inFlight) {
+			List<CompletableFuture<StarDetails>> stars = new ArrayList<CompletableFuture<StarDetails>>();
+			for (MovieDetails.Person actor : details.actors) {
+				if (!actor.name.isEmpty()) {
+					stars.add(fetcher.submit(actor.id, STAR_URL + actor.id, inFlight));
+				}
+			}
+			return stars;
+		}
+	}
+
+	@Test
+	public void testBatchScrape() throws Exception {
+		StarTransport transport = new StarTransport();
+		StarDetailsCache cache = new StarDetailsCache(Files.createTempDirectory("aebn-stars").toFile(), 100, 100,
+				60000);
+		FixtureLoader loader = new FixtureLoader(new StarFetcher(4, cache, transport));
+		MediaScrapeOptions options = new MediaScrapeOptions(MediaType.MOVIE);
+
+		Iterator<AebnBatchScraper.Result> results = new AebnBatchScraper(2, loader)
+				.scrape(Arrays.asList("183071", "183072", "404", "0", "-1", "abc"), options);
+		Map<String, AebnBatchScraper.Result> byId = new HashMap<String, AebnBatchScraper.Result>();
+		while (results.hasNext()) {
+			AebnBatchScraper.Result result = results.next();
+			byId.put(result.getAebnId(), result);
+		}
+
+		assertThat(byId.size()).isEqualTo(6);
+		for (String id : Arrays.asList("183071", "183072")) {
+			MediaMetadata md = byId.get(id).getMetadata();
+			assertThat(byId.get(id).getError()).isNull();
+			assertThat(md.getStringValue(MediaMetadata.TITLE)).isEqualTo("Erotic Massage Stories 5");
+			MediaCastMember first = md.getCastMembers().get(0);
+			assertThat(first.getImageUrl())
+					.isEqualTo("http://pic.aebn.net/" + loader.details.actors.get(0).id + ".jpg");
+		}
+
+		// every movie failing is reported with its own error
+		assertThat(byId.get("404").getMetadata()).isNull();
+		assertThat(byId.get("404").getError().getMessage()).isEqualTo("HTTP 404 for movie 404");
+		for (String id : Arrays.asList("0", "-1", "abc")) {
+			assertThat(byId.get(id).getMetadata()).isNull();
+			assertThat(byId.get(id).getError() instanceof IllegalArgumentException).isTrue();
+		}
+
+		// the stars shared by both movies are downloaded once
+		assertThat(transport.downloads.size()).isEqualTo(7);
+		for (AtomicInteger downloads : transport.downloads.values()) {
+			assertThat(downloads.get()).isEqualTo(1);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+/**
+ * A test class for the cache backends.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnCacheBackend
+ *
+ */
+public class AebnCacheBackendTest {
+
+	@Test
+	public void testSharedDirectory() throws Exception {
+		File directory = Files.createTempDirectory("aebn-shared").toFile();
+		AebnCacheBackend one = new DirectoryCacheBackend(directory, ".page.gz", 10);
+		AebnCacheBackend two = new DirectoryCacheBackend(directory, ".page.gz", 10);
+
+		assertThat(two.get("abc")).isNull();
+		one.put("abc", "page".getBytes(StandardCharsets.UTF_8));
+		assertThat(new String(two.get("abc"), StandardCharsets.UTF_8)).isEqualTo("page");
+		assertThat(two.keys()).containsExactly("abc");
+
+		// only one installation gets to load a key
+		assertThat(one.claim("def", 60000)).isTrue();
+		assertThat(two.claim("def", 60000)).isFalse();
+		assertThat(two.keys()).containsExactly("abc");
+		one.release("def");
+		assertThat(two.claim("def", 60000)).isTrue();
+
+		// abandoned claims expire
+		assertThat(one.claim("def", -1)).isTrue();
+	}
+
+	@Test
+	public void testDirectorySizeCap() throws Exception {
+		File directory = Files.createTempDirectory("aebn-shared").toFile();
+		AebnCacheBackend backend = new DirectoryCacheBackend(directory, ".star", 3);
+		for (int i = 1; i <= 10; i++) {
+			backend.put(String.valueOf(i), new byte[1]);
+			new File(directory, i + ".star").setLastModified(1000000000000L + i * 1000L);
+		}
+		backend.prune();
+
+		// the most recently written files are kept
+		assertThat(backend.keys()).containsOnly("8", "9", "10");
+	}
+
+	@Test
+	public void testMemorySizeCap() throws Exception {
+		AebnCacheBackend backend = new MemoryCacheBackend(10);
+		backend.put("a", new byte[4]);
+		backend.put("b", new byte[4]);
+		backend.get("a");
+		backend.put("c", new byte[4]);
+
+		// the least recently used entry is dropped
+		assertThat(backend.get("b")).isNull();
+		assertThat(backend.get("a")).isNotNull();
+		assertThat(backend.get("c")).isNotNull();
+		assertThat(backend.claim("a", 60000)).isTrue();
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.junit.Test;
+
+/**
+ * A test class for exporting and importing cache snapshots.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnCacheSnapshot
+ *
+ */
+public class AebnCacheSnapshotTest {
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		MovieDetails details = MovieDetails.parse(Jsoup.parse(loadPage("movieDetail_183071.html")));
+		StarDetails star = new StarDetails("http://pic.aebn.net/star.jpg", Arrays.asList("http://pic.aebn.net/f.jpg"));
+		long ttl = TimeUnit.DAYS.toMillis(1);
+
+		RefreshStore movies = new RefreshStore(Files.createTempDirectory("aebn-movies").toFile(), 10, 10);
+		movies.put(183071, "en", new RefreshStore.Snapshot("f1", "\"v1\"", "", details, Arrays.asList(star)));
+		movies.put(183072, "", new RefreshStore.Snapshot("f2", "", "", details, null));
+		StarDetailsCache stars = new StarDetailsCache(Files.createTempDirectory("aebn-stars").toFile(), 10, 10, ttl);
+		stars.put("4711", star);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertThat(AebnCacheSnapshot.exportTo(out, movies, stars)).isEqualTo(3);
+
+		File movieDirectory = Files.createTempDirectory("aebn-movies").toFile();
+		File starDirectory = Files.createTempDirectory("aebn-stars").toFile();
+		TitleIndex index = new TitleIndex(Files.createTempDirectory("aebn-index").toFile());
+		assertThat(AebnCacheSnapshot.importFrom(new ByteArrayInputStream(out.toByteArray()), new RefreshStore(
+				movieDirectory, 10, 10), new StarDetailsCache(starDirectory, 10, 10, ttl), index)).isEqualTo(3);
+
+		RefreshStore.Snapshot snapshot = new RefreshStore(movieDirectory, 10, 10).get(183071, "en");
+		assertThat(snapshot.fingerprint).isEqualTo("f1");
+		assertThat(snapshot.etag).isEqualTo("\"v1\"");
+		assertThat(snapshot.details.title).isEqualTo(details.title);
+		assertThat(snapshot.details.plot).isEqualTo(details.plot);
+		assertThat(snapshot.details.sceneThumbnails).isEqualTo(details.sceneThumbnails);
+		assertThat(snapshot.details.genres).isEqualTo(details.genres);
+		assertThat(snapshot.details.actors.get(1).id).isEqualTo(details.actors.get(1).id);
+		assertThat(snapshot.details.director.name).isEqualTo(details.director.name);
+		assertThat(snapshot.stars.get(0).getFanartUrls()).isEqualTo(star.getFanartUrls());
+		assertThat(new RefreshStore(movieDirectory, 10, 10).get(183072, "").stars).isNull();
+
+		StarDetails imported = new StarDetailsCache(starDirectory, 10, 10, ttl).get("4711");
+		assertThat(imported.getImageUrl()).isEqualTo(star.getImageUrl());
+		assertThat(index.get(183071).title).isEqualTo(details.title);
+		index.close();
+	}
+
+	@Test
+	public void testSharedStringsAreWrittenOnce() throws Exception {
+		MovieDetails details = MovieDetails.parse(Jsoup.parse(loadPage("movieDetail_183071.html")));
+		RefreshStore movies = new RefreshStore(Files.createTempDirectory("aebn-movies").toFile(), 10, 10);
+		ByteArrayOutputStream one = new ByteArrayOutputStream();
+		movies.put(1, "", new RefreshStore.Snapshot("f", "", "", details, null));
+		AebnCacheSnapshot.exportTo(one, movies, null);
+
+		ByteArrayOutputStream two = new ByteArrayOutputStream();
+		details.title = "Another Title";
+		movies.put(2, "", new RefreshStore.Snapshot("f", "", "", details, null));
+		AebnCacheSnapshot.exportTo(two, movies, null);
+		// the second movie adds little more than its title, plot and scene thumbnails
+		assertThat(two.size() - one.size()).isLessThan(one.size());
+	}
+
+	private static String loadPage(String name) throws Exception {
+		InputStream in = AebnCacheSnapshotTest.class.getResourceAsStream("/fixtures/" + name);
+		try {
+			return new String(AebnHttpClient.readFully(in), StandardCharsets.UTF_8);
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A test class for the HTTP client.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnHttpClient
+ *
+ */
+public class AebnHttpClientTest {
+	private static final String PAGE = "<html><body><h1 class=\"md-movieTitle\">Title</h1></body></html>";
+
+	private HttpServer server;
+	private final Set<InetSocketAddress> clients = Collections.synchronizedSet(new HashSet<InetSocketAddress>());
+
+	@Before
+	public void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				clients.add(exchange.getRemoteAddress());
+				String path = exchange.getRequestURI().getPath();
+				String accepted = String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+				if (path.equals("/missing")) {
+					byte[] body = "not found".getBytes(StandardCharsets.UTF_8);
+					exchange.sendResponseHeaders(404, body.length);
+					exchange.getResponseBody().write(body);
+					exchange.close();
+					return;
+				}
+				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				OutputStream encoder = buffer;
+				if (path.equals("/gzip") && accepted.contains("gzip")) {
+					exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+					encoder = new GZIPOutputStream(buffer);
+				} else if (path.equals("/deflate") && accepted.contains("deflate")) {
+					exchange.getResponseHeaders().add("Content-Encoding", "deflate");
+					encoder = new DeflaterOutputStream(buffer);
+				}
+				encoder.write(PAGE.getBytes(StandardCharsets.UTF_8));
+				encoder.close();
+				exchange.sendResponseHeaders(200, buffer.size());
+				OutputStream out = exchange.getResponseBody();
+				buffer.writeTo(out);
+				out.close();
+			}
+		});
+		server.start();
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	public void testCompressedResponsesAreDecoded() throws Exception {
+		AebnHttpClient client = new AebnHttpClient(1000, 1000);
+		assertThat(client.get(getUrl("/gzip"), new LinkedHashMap<String, String>()).getText()).isEqualTo(PAGE);
+		assertThat(client.get(getUrl("/deflate"), new LinkedHashMap<String, String>()).getText()).isEqualTo(PAGE);
+		assertThat(client.get(getUrl("/plain"), new LinkedHashMap<String, String>()).getText()).isEqualTo(PAGE);
+	}
+
+	@Test
+	public void testConnectionsAreReused() throws Exception {
+		AebnHttpClient client = new AebnHttpClient(1000, 1000);
+		for (int i = 0; i < 5; i++) {
+			client.get(getUrl("/gzip"), new LinkedHashMap<String, String>());
+			try {
+				client.get(getUrl("/missing"), new LinkedHashMap<String, String>());
+			} catch (IOException e) {
+				// expected
+			}
+		}
+		assertThat(clients.size()).isEqualTo(1);
+	}
+
+	private String getUrl(String path) {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.tinymediamanager.scraper.MediaLanguages;
+import org.tinymediamanager.scraper.MediaMetadata;
+import org.tinymediamanager.scraper.MediaScrapeOptions;
+import org.tinymediamanager.scraper.MediaSearchOptions;
+import org.tinymediamanager.scraper.MediaSearchOptions.SearchParam;
+import org.tinymediamanager.scraper.MediaType;
+
+/**
+ * A load test of the {@link AebnMetadataProvider} against the embedded {@link AebnStandInServer}.
+ * <p>
+ * The stand-in serves the saved pages of the test resources for a number of movies. Every worker calls search(),
+ * getMetadata() and getArtwork() of one shared provider in random order until the run is over. Throughput and p50/p99
+ * latency are reported per number of workers. Calls failing or returning nothing are counted as errors. Unless
+ * configured otherwise, the page and search caches are disabled and the request rate is not limited, so every call
+ * reaches the stand-in.
+ * <p>
+ * With -Daebn.virtualThreads=true the workers and the thread pools of the provider run on virtual threads (if
+ * supported by the JVM). The provider creates its pools when it is loaded, so the kind of threads is fixed per JVM; run
+ * the harness once per kind to compare them:
+ *
+ * <pre>
+ * java -cp ... [-Daebn.virtualThreads=true] org.tinymediamanager.scraper.aebn.AebnLoadHarness [seconds per run]
+ *     [workers, e.g. 1,4,16,64]
+ * </pre>
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ *
+ */
+public class AebnLoadHarness {
+	private static final int MOVIES = 200;
+	private static final int FIRST_ID = 500001;
+	private static final String QUERY = "Erotic Massage Stories 5";
+	private static final String STAR_PAGE = "<html><body><div class=\"StarInfo\">"
+			+ "<img itemprop=\"image\" src=\"http://127.0.0.1/star.jpg\"/></div></body></html>";
+
+	private AebnLoadHarness() {
+	}
+
+
+	public static void main(String[] args) throws Exception {
+		int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		String workers = args.length > 1 ? args[1] : "1,2,4,8,16,32,64";
+
+		// without TCP_NODELAY, small responses of the stand-in wait for the delayed ACK of their headers (40 ms on
+		// Linux); the JDK HTTP server reads this property once, so it has to be set before the server is loaded
+		setDefault("sun.net.httpserver.nodelay", "true");
+
+		File directory = Files.createTempDirectory("aebn-load").toFile();
+		AebnStandInServer standIn = new AebnStandInServer(new File(directory, "recordings"));
+		String baseUrl = standIn.start(0);
+
+		// the provider reads its configuration once, so it has to be complete before the provider is loaded
+		System.setProperty("aebn.dataUrl", baseUrl);
+		System.setProperty("aebn.imageUrl", baseUrl);
+		setDefault("aebn.cache.dir", new File(directory, "cache").getPath());
+		setDefault("aebn.pages.cacheHours", "0");
+		setDefault("aebn.search.cacheEntries", "0");
+		setDefault("aebn.http.rate", "1000000");
+		setDefault("http.maxConnections", "64");
+		record(new File(directory, "recordings"), baseUrl);
+
+		AebnMetadataProvider provider = AebnMetadataProvider.getInstance();
+		// warms up the JIT compiler and the star details cache
+		run(provider, 4, Math.min(seconds, 3));
+
+		boolean virtual = AebnSettings.useVirtualThreads() && supportsVirtualThreads();
+		System.out.println("workers  virtual     calls/s   p50 ms   p99 ms   errors");
+		for (String count : workers.split(",")) {
+			int threads = Integer.parseInt(count.trim());
+			Run run = run(provider, threads, seconds);
+			System.out.println(String.format(Locale.ROOT, "%7d  %7s  %10.1f  %7.2f  %7.2f  %7d", threads, virtual,
+					run.count / (double) seconds, run.percentileMillis(0.5), run.percentileMillis(0.99), run.errors));
+		}
+		standIn.stop();
+	}
+
+
+	private static void setDefault(String key, String value) {
+		if (System.getProperty(key) == null) {
+			System.setProperty(key, value);
+		}
+	}
+
+
+	/**
+	 * Records the pages served by the stand-in: one search page, the same movie detail page for all movies, and a
+	 * small star detail page for its actors.
+	 */
+	private static void record(File directory, String baseUrl) throws Exception {
+		ResponseCache recordings = ReplayTransport.openRecordings(directory);
+		byte[] search = loadFixture("fts_erotic_massage_stories.html");
+		// all 60 results are requested with one page
+		recordings.put(ReplayTransport.getKey(AebnMetadataProvider.getSearchUrl(
+				AebnMetadataProvider.cleanSearchQuery(QUERY), 60, 1)), new AebnResponse(200, "", "", search));
+
+		byte[] movie = loadFixture("movieDetail_183071.html");
+		for (int i = 0; i < MOVIES; i++) {
+			recordings.put("/dispatcher/movieDetail?movieId=" + (FIRST_ID + i) + "&locale=en",
+					new AebnResponse(200, "", "", movie));
+		}
+		byte[] star = STAR_PAGE.getBytes(StandardCharsets.UTF_8);
+		for (MovieDetails.Person actor : MovieDetails.parse(Jsoup.parse(new String(movie,
+				StandardCharsets.UTF_8))).actors) {
+			if (!actor.name.isEmpty()) {
+				recordings.put(ReplayTransport.getKey(baseUrl + actor.detailsUrl), new AebnResponse(200, "", "", star));
+			}
+		}
+	}
+
+
+	private static Run run(final AebnMetadataProvider provider, int threads, int seconds) throws Exception {
+		ExecutorService executor = AebnExecutors.newExecutor("aebn-load", threads);
+		final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		List<Future<Run>> futures = new ArrayList<Future<Run>>();
+		for (int i = 0; i < threads; i++) {
+			futures.add(executor.submit(new Callable<Run>() {
+				@Override
+				public Run call() {
+					Run run = new Run();
+					for (long start = System.nanoTime(); start < end; start = System.nanoTime()) {
+						boolean succeeded;
+						try {
+							succeeded = AebnLoadHarness.call(provider);
+						} catch (Exception e) {
+							succeeded = false;
+						}
+						run.add(System.nanoTime() - start, succeeded);
+					}
+					return run;
+				}
+			}));
+		}
+		Run total = new Run();
+		for (Future<Run> future : futures) {
+			total.addAll(future.get());
+		}
+		executor.shutdown();
+		return total;
+	}
+
+
+	/**
+	 * Calls the provider once.
+	 *
+	 * @return true if the call returned a result
+	 */
+	private static boolean call(AebnMetadataProvider provider) throws Exception {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String aebnId = String.valueOf(FIRST_ID + random.nextInt(MOVIES));
+		switch (random.nextInt(3)) {
+			case 0:
+				MediaSearchOptions query = new MediaSearchOptions(MediaType.MOVIE);
+				query.set(SearchParam.QUERY, QUERY);
+				return !provider.search(query).isEmpty();
+			case 1:
+				MediaScrapeOptions options = new MediaScrapeOptions(MediaType.MOVIE);
+				options.setLanguage(MediaLanguages.en);
+				options.setId("AebnID", aebnId);
+				return !provider.getMetadata(options).getStringValue(MediaMetadata.TITLE).isEmpty();
+			default:
+				MediaScrapeOptions artwork = new MediaScrapeOptions(MediaType.MOVIE);
+				artwork.setLanguage(MediaLanguages.en);
+				artwork.setId("AebnID", aebnId);
+				return !provider.getArtwork(artwork).isEmpty();
+		}
+	}
+
+
+	private static boolean supportsVirtualThreads() {
+		try {
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+
+	private static byte[] loadFixture(String name) throws Exception {
+		InputStream in = AebnLoadHarness.class.getResourceAsStream("/fixtures/" + name);
+		try {
+			return AebnHttpClient.readFully(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * The latencies and errors of the calls of a run.
+	 */
+	private static final class Run {
+		private long[] latencies = new long[0];
+		int count;
+		int errors;
+
+
+		void add(long nanos, boolean succeeded) {
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, Math.max(1024, count * 2));
+			}
+			latencies[count++] = nanos;
+			if (!succeeded) {
+				errors++;
+			}
+		}
+
+
+		void addAll(Run other) {
+			for (int i = 0; i < other.count; i++) {
+				add(other.latencies[i], true);
+			}
+			errors += other.errors;
+		}
+
+
+		double percentileMillis(double percentile) {
+			long[] sorted = Arrays.copyOf(latencies, count);
+			Arrays.sort(sorted);
+			if (sorted.length == 0) {
+				return 0;
+			}
+			return sorted[(int) Math.min(sorted.length - 1, Math.ceil(sorted.length * percentile) - 1)] / 1e6;
+		}
+	}
+
+}
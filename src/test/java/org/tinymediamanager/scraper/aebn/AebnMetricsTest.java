@@ -0,0 +1,88 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Counter;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Phase;
+
+/**
+ * A test class for the scraper metrics.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnMetrics
+ *
+ */
+public class AebnMetricsTest {
+
+	@Before
+	public void setUp() {
+		AebnMetrics.reset();
+	}
+
+	@Test
+	public void testPhasesAndCounters() throws Exception {
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.DETAIL_FETCH, "ok");
+		timer.success();
+		timer.stop();
+		AebnMetrics.start(Phase.DETAIL_FETCH, "failed").stop();
+		AebnMetrics.count(Counter.PAGE_CACHE_HIT);
+
+		assertThat(AebnMetrics.getCount(Phase.DETAIL_FETCH)).isEqualTo(2L);
+		assertThat(AebnMetrics.getFailures(Phase.DETAIL_FETCH)).isEqualTo(1L);
+		assertThat(AebnMetrics.getCount(Phase.STAR_FETCH)).isEqualTo(0L);
+		assertThat(AebnMetrics.get(Counter.PAGE_CACHE_HIT)).isEqualTo(1L);
+		assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(AebnMetrics.OBJECT_NAME)))
+				.isTrue();
+	}
+
+	@Test
+	public void testWithoutFlightRecorderEvents() {
+		// timing does not depend on Flight Recorder: a disabled event is a no-op
+		AebnMetrics.Timer timer = AebnMetrics.start(Phase.STAR_FETCH, "id");
+		timer.success();
+		timer.stop();
+
+		assertThat(AebnMetrics.getCount(Phase.STAR_FETCH)).isEqualTo(1L);
+		assertThat(AebnMetrics.getFailures(Phase.STAR_FETCH)).isEqualTo(0L);
+	}
+
+	@Test
+	public void testFlightRecorderEvents() throws Exception {
+		// the recording API is used reflectively as the test sources also target JVMs without jdk.jfr
+		Assume.assumeTrue(AebnPhaseEvent.isAvailable());
+		Path file = Files.createTempFile("aebn", ".jfr");
+		Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+		Object recording = recordingClass.getConstructor().newInstance();
+		try {
+			recordingClass.getMethod("enable", String.class).invoke(recording, AebnPhaseEvent.NAME);
+			recordingClass.getMethod("start").invoke(recording);
+			AebnMetrics.Timer timer = AebnMetrics.start(Phase.STAR_FETCH, "http://theater.aebn.net/star");
+			timer.success();
+			timer.stop();
+			recordingClass.getMethod("stop").invoke(recording);
+			recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+		} finally {
+			recordingClass.getMethod("close").invoke(recording);
+		}
+
+		List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+				.getMethod("readAllEvents", Path.class).invoke(null, file);
+		assertThat(events.size()).isEqualTo(1);
+		Method getValue = Class.forName("jdk.jfr.consumer.RecordedObject").getMethod("getValue", String.class);
+		assertThat(getValue.invoke(events.get(0), "phase")).isEqualTo("STAR_FETCH");
+		assertThat(getValue.invoke(events.get(0), "subject")).isEqualTo("http://theater.aebn.net/star");
+		assertThat(getValue.invoke(events.get(0), "succeeded")).isEqualTo(Boolean.TRUE);
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local HTTP stand-in for the AEBN web site, serving the responses recorded by the {@link RecordingTransport}.
+ * <p>
+ * Point the scraper at it with <code>-Daebn.dataUrl</code> and <code>-Daebn.imageUrl</code> to test the whole
+ * provider, including its HTTP client, without access to the real site. Unknown urls are answered with 404. It can be
+ * started embedded (e.g. in tests) or stand-alone from the test classes:
+ *
+ * <pre>
+ * java -cp ... org.tinymediamanager.scraper.aebn.AebnStandInServer &lt;recordings directory&gt; [port]
+ * </pre>
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see ReplayTransport
+ *
+ */
+public class AebnStandInServer {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AebnStandInServer.class);
+
+	private final ResponseCache recordings;
+	private HttpServer server;
+	private ExecutorService executor;
+
+
+	/**
+	 * @param directory
+	 *            the directory of the recorded responses
+	 */
+	public AebnStandInServer(File directory) {
+		this.recordings = ReplayTransport.openRecordings(directory);
+	}
+
+
+	/**
+	 * Starts the server on the loopback interface.
+	 *
+	 * @param port
+	 *            the port to listen on, 0 for any free port
+	 * @return the base url of the server, e.g. <code>http://127.0.0.1:8080</code>
+	 * @throws IOException
+	 *             if the server could not be started
+	 */
+	public synchronized String start(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				serve(exchange);
+			}
+		});
+		executor = AebnExecutors.newExecutor("aebn-standin", Math.max(4, Runtime.getRuntime().availableProcessors()));
+		server.setExecutor(executor);
+		server.start();
+		LOGGER.info("AEBN: stand-in server listening on {}", getBaseUrl());
+		return getBaseUrl();
+	}
+
+
+	/**
+	 * Gets the base url of the running server.
+	 *
+	 * @return the base url
+	 */
+	public synchronized String getBaseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+
+	/**
+	 * Stops the server.
+	 */
+	public synchronized void stop() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdown();
+			server = null;
+		}
+	}
+
+
+	private void serve(HttpExchange exchange) throws IOException {
+		try {
+			URI uri = exchange.getRequestURI();
+			String key = uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+			AebnResponse response = ReplayTransport.find(recordings, key);
+			if (response == null) {
+				LOGGER.debug("AEBN: stand-in has no response for {}", key);
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			if (!response.getEtag().isEmpty()) {
+				exchange.getResponseHeaders().add("ETag", response.getEtag());
+			}
+			if (!response.getLastModified().isEmpty()) {
+				exchange.getResponseHeaders().add("Last-Modified", response.getLastModified());
+			}
+			exchange.sendResponseHeaders(200, response.getBody().length);
+			OutputStream out = exchange.getResponseBody();
+			out.write(response.getBody());
+			out.close();
+		} finally {
+			exchange.close();
+		}
+	}
+
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: AebnStandInServer <recordings directory> [port]");
+			System.exit(1);
+		}
+		AebnStandInServer server = new AebnStandInServer(new File(args[0]));
+		String baseUrl = server.start(args.length > 1 ? Integer.parseInt(args[1]) : 0);
+		System.out.println("-Daebn.dataUrl=" + baseUrl + " -Daebn.imageUrl=" + baseUrl);
+	}
+
+}
@@ -0,0 +1,107 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A test class for the record and replay transports.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnTransport
+ *
+ */
+public class AebnTransportTest {
+	private static final String PATH = "/dispatcher/movieDetail?movieId=183071&locale=en";
+
+	private HttpServer site;
+	private File directory;
+	private final AtomicInteger requests = new AtomicInteger();
+
+	@Before
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("aebn-recordings").toFile();
+		site = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		site.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				requests.incrementAndGet();
+				byte[] body = ("<html><body>" + exchange.getRequestURI() + "</body></html>")
+						.getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().add("ETag", "\"v1\"");
+				exchange.sendResponseHeaders(200, body.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(body);
+				out.close();
+			}
+		});
+		site.start();
+	}
+
+	@After
+	public void tearDown() {
+		site.stop(0);
+	}
+
+	@Test
+	public void testRecordedResponsesAreReplayed() throws Exception {
+		String siteUrl = "http://127.0.0.1:" + site.getAddress().getPort();
+		AebnResponse recorded = new RecordingTransport(new AebnHttpClient(), directory).get(siteUrl + PATH, noHeaders());
+
+		AebnResponse replayed = new ReplayTransport(directory).get("http://theater.aebn.net" + PATH, noHeaders());
+		assertThat(replayed.getText()).isEqualTo(recorded.getText()).contains("movieId=183071");
+		assertThat(replayed.getEtag()).isEqualTo("\"v1\"");
+		assertThat(requests.get()).isEqualTo(1);
+	}
+
+	@Test(expected = FileNotFoundException.class)
+	public void testReplayFailsForUnknownUrls() throws Exception {
+		new ReplayTransport(directory).get("http://theater.aebn.net" + PATH, noHeaders());
+	}
+
+	@Test
+	public void testStandInServesRecordedResponses() throws Exception {
+		String siteUrl = "http://127.0.0.1:" + site.getAddress().getPort();
+		new RecordingTransport(new AebnHttpClient(), directory).get(siteUrl + PATH, noHeaders());
+
+		AebnStandInServer standIn = new AebnStandInServer(directory);
+		String standInUrl = standIn.start(0);
+		try {
+			AebnResponse response = new AebnHttpClient().get(standInUrl + PATH, noHeaders());
+			assertThat(response.getText()).contains("movieId=183071");
+			assertThat(response.getEtag()).isEqualTo("\"v1\"");
+			try {
+				new AebnHttpClient().get(standInUrl + "/dispatcher/movieDetail?movieId=1", noHeaders());
+				Assert.fail("unknown url served");
+			} catch (IOException e) {
+				assertThat(e.getMessage()).contains("404");
+			}
+		} finally {
+			standIn.stop();
+		}
+		assertThat(requests.get()).isEqualTo(1);
+	}
+
+	private static Map<String, String> noHeaders() {
+		return new LinkedHashMap<String, String>();
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A test class for probing artwork images.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see ArtworkProber
+ *
+ */
+public class ArtworkProberTest {
+	private HttpServer site;
+	private String siteUrl;
+	private byte[] poster;
+	private final AtomicInteger requests = new AtomicInteger();
+
+	@Before
+	public void setUp() throws Exception {
+		// large enough to be cut off by the range request
+		poster = createImage(380, 540, "png");
+		site = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		site.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				requests.incrementAndGet();
+				String path = exchange.getRequestURI().getPath();
+				byte[] body;
+				if (path.endsWith("_xlf.png")) {
+					body = poster;
+				} else if (path.endsWith("_bf.jpg")) {
+					body = createImage(220, 313, "jpg");
+				} else if (path.endsWith("_160w.jpg")) {
+					body = "<html>nopicture</html>".getBytes("UTF-8");
+				} else {
+					exchange.sendResponseHeaders(404, -1);
+					exchange.close();
+					return;
+				}
+				String range = exchange.getRequestHeaders().getFirst("Range");
+				int status = 200;
+				if (range != null) {
+					int end = Math.min(body.length, Integer.parseInt(range.substring(range.indexOf('-') + 1)) + 1);
+					exchange.getResponseHeaders().add("Content-Range",
+							"bytes 0-" + (end - 1) + "/" + body.length);
+					body = Arrays.copyOf(body, end);
+					status = 206;
+				}
+				exchange.sendResponseHeaders(status, body.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(body);
+				out.close();
+			}
+		});
+		site.start();
+		siteUrl = "http://127.0.0.1:" + site.getAddress().getPort() + "/a183071";
+	}
+
+	@After
+	public void tearDown() {
+		site.stop(0);
+	}
+
+	@Test
+	public void testOnlyExistingImagesAreReturned() {
+		ArtworkProber prober = new ArtworkProber(new AebnHttpClient(), 4, 10, 60000);
+		List<String> urls = Arrays.asList(siteUrl + "_xlf.png", siteUrl + "_bf.jpg", siteUrl + "_160w.jpg",
+				siteUrl + "_xlb.jpg");
+
+		Map<String, ArtworkProber.Image> images = prober.probe("183071", urls);
+		assertThat(images.size()).isEqualTo(2);
+		ArtworkProber.Image image = images.get(siteUrl + "_xlf.png");
+		assertThat(image.width).isEqualTo(380);
+		assertThat(image.height).isEqualTo(540);
+		assertThat(image.length).isEqualTo((long) poster.length);
+		assertThat(images.get(siteUrl + "_bf.jpg").width).isEqualTo(220);
+		assertThat(prober.isKnownMissing("183071", siteUrl + "_160w.jpg")).isTrue();
+		assertThat(prober.isKnownMissing("183071", siteUrl + "_bf.jpg")).isFalse();
+
+		// probed once per movie
+		assertThat(prober.probe("183071", urls).size()).isEqualTo(2);
+		assertThat(requests.get()).isEqualTo(4);
+	}
+
+	@Test
+	public void testReadDimensions() throws Exception {
+		assertThat(ArtworkProber.readDimensions(createImage(179, 101, "jpg"))[0]).isEqualTo(179);
+		assertThat(ArtworkProber.readDimensions(createImage(179, 101, "jpg"))[1]).isEqualTo(101);
+		assertThat(ArtworkProber.readDimensions(createImage(120, 68, "gif"))[1]).isEqualTo(68);
+		assertThat(ArtworkProber.readDimensions("<html></html>".getBytes("UTF-8"))).isNull();
+	}
+
+	private static byte[] createImage(int width, int height, String format) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				image.setRGB(x, y, x * 7919 ^ y * 104729);
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, format, out);
+		return out.toByteArray();
+	}
+}
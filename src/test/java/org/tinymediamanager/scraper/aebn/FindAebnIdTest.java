@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * A test class for finding AEBN ids in search queries.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnMetadataProvider#findAebnId(String)
+ *
+ */
+public class FindAebnIdTest {
+
+	@Test
+	public void testMovieDetailUrl() {
+		assertThat(AebnMetadataProvider.findAebnId("http://theater.aebn.net/dispatcher/movieDetail?movieId=183071"))
+				.isEqualTo(183071);
+		assertThat(AebnMetadataProvider.findAebnId("theater.aebn.net/dispatcher/movieDetail?genreId=101&movieId=66568"))
+				.isEqualTo(66568);
+	}
+
+	@Test
+	public void testMovieUrl() {
+		assertThat(AebnMetadataProvider.findAebnId("https://straight.aebn.com/straight/movies/183071/erotic-massage"))
+				.isEqualTo(183071);
+	}
+
+	@Test
+	public void testFileNameTag() {
+		assertThat(AebnMetadataProvider.findAebnId("Erotic Massage Stories 5 [aebn-183071].mkv")).isEqualTo(183071);
+		assertThat(AebnMetadataProvider.findAebnId("Erotic Massage Stories 5 aebnid=183071")).isEqualTo(183071);
+		assertThat(AebnMetadataProvider.findAebnId("Erotic Massage Stories 5 AEBNID: 183071")).isEqualTo(183071);
+		assertThat(AebnMetadataProvider.findAebnId("Erotic.Massage.Stories.5.aebn_183071.mkv")).isEqualTo(183071);
+		assertThat(AebnMetadataProvider.findAebnId("Erotic Massage Stories 5 (aebn:66568)")).isEqualTo(66568);
+	}
+
+	@Test
+	public void testTitlesWithAebnAndNumber() {
+		assertThat(AebnMetadataProvider.findAebnId("AEBN 5")).isNull();
+		assertThat(AebnMetadataProvider.findAebnId("aebn-2019 collection")).isNull();
+		assertThat(AebnMetadataProvider.findAebnId("Best of AEBN 2019")).isNull();
+		assertThat(AebnMetadataProvider.findAebnId("AEBN Awards #12")).isNull();
+		// too few digits
+		assertThat(AebnMetadataProvider.findAebnId("[aebn-12]")).isNull();
+		assertThat(AebnMetadataProvider.findAebnId("aebnid=5")).isNull();
+	}
+
+	@Test
+	public void testNoId() {
+		assertThat(AebnMetadataProvider.findAebnId(null)).isNull();
+		assertThat(AebnMetadataProvider.findAebnId("Erotic Massage Stories 5")).isNull();
+		assertThat(AebnMetadataProvider.findAebnId("http://theater.aebn.net/dispatcher/fts?userQuery=5")).isNull();
+		// out of range
+		assertThat(AebnMetadataProvider.findAebnId("movieId=0")).isNull();
+		assertThat(AebnMetadataProvider.findAebnId("movieId=99999999999")).isNull();
+	}
+}
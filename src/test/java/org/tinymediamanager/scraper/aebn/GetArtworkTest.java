@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.tinymediamanager.scraper.MediaArtwork;
+import org.tinymediamanager.scraper.MediaArtwork.MediaArtworkType;
+import org.tinymediamanager.scraper.MediaMetadata;
+import org.tinymediamanager.scraper.MediaScrapeOptions;
+import org.tinymediamanager.scraper.MediaSearchResult;
+import org.tinymediamanager.scraper.MediaType;
+
+/**
+ * A test class for the artwork of a movie.
+ * <p>
+ * The scene thumbnails are taken from the meta data of a previous scrape of the fixture page, so no page is loaded.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnMetadataProvider#getArtwork(MediaScrapeOptions)
+ *
+ */
+public class GetArtworkTest {
+	private static final String BOXCOVER_URL = "http://pic.aebn.net/Stream/Movie/Boxcovers/a183071";
+	private static final String SCENE_URL = "http://pic.aebn.net/Stream/Movie/Scenes/a183071_s100";
+
+	@Test
+	public void testArtworkOfFixturePage() throws Exception {
+		List<MediaArtwork> artwork = new AebnMetadataProvider().getArtwork(createOptions(MediaArtworkType.ALL));
+
+		assertThat(artwork.size()).isEqualTo(7);
+
+		MediaArtwork poster = artwork.get(0);
+		assertThat(poster.getType()).isEqualTo(MediaArtworkType.POSTER);
+		assertThat(poster.getDefaultUrl()).isEqualTo(BOXCOVER_URL + "_xlf.jpg");
+		assertThat(poster.getPreviewUrl()).isEqualTo(BOXCOVER_URL + "_xlf.jpg");
+		assertThat(poster.getImageSizes().size()).isEqualTo(3);
+		assertThat(poster.getImageSizes().get(0).getUrl()).isEqualTo(BOXCOVER_URL + "_xlf.jpg");
+		assertThat(poster.getImageSizes().get(0).getWidth()).isEqualTo(380);
+		assertThat(poster.getImageSizes().get(1).getUrl()).isEqualTo(BOXCOVER_URL + "_bf.jpg");
+		assertThat(poster.getImageSizes().get(2).getUrl()).isEqualTo(BOXCOVER_URL + "_160w.jpg");
+
+		MediaArtwork back = artwork.get(1);
+		assertThat(back.getType()).isEqualTo(MediaArtworkType.DISC);
+		assertThat(back.getDefaultUrl()).isEqualTo(BOXCOVER_URL + "_xlb.jpg");
+		assertThat(back.getImageSizes().size()).isEqualTo(2);
+		assertThat(back.getImageSizes().get(1).getUrl()).isEqualTo(BOXCOVER_URL + "_bb.jpg");
+
+		// the scene thumbnails in page order, previewed in their small size
+		for (int i = 0; i < 5; i++) {
+			MediaArtwork background = artwork.get(2 + i);
+			assertThat(background.getType()).isEqualTo(MediaArtworkType.BACKGROUND);
+			assertThat(background.getDefaultUrl()).isEqualTo(SCENE_URL + (i + 1) + "_179_101.jpg");
+			assertThat(background.getPreviewUrl()).isEqualTo(SCENE_URL + (i + 1) + ".jpg");
+			assertThat(background.getImageSizes().get(0).getWidth()).isEqualTo(179);
+		}
+	}
+
+	@Test
+	public void testArtworkOfOneType() throws Exception {
+		List<MediaArtwork> artwork = new AebnMetadataProvider().getArtwork(createOptions(MediaArtworkType.BACKGROUND));
+
+		assertThat(artwork.size()).isEqualTo(5);
+		for (MediaArtwork background : artwork) {
+			assertThat(background.getType()).isEqualTo(MediaArtworkType.BACKGROUND);
+		}
+	}
+
+	@Test
+	public void testNoArtworkWithoutId() throws Exception {
+		MediaScrapeOptions options = new MediaScrapeOptions(MediaType.MOVIE);
+		options.setArtworkType(MediaArtworkType.ALL);
+
+		assertThat(new AebnMetadataProvider().getArtwork(options)).isEmpty();
+	}
+
+	private static MediaScrapeOptions createOptions(MediaArtworkType type) throws Exception {
+		MovieDetails details = MovieDetails.parse(MovieDetailsExtractorTest.loadFixture("movieDetail_183071.html"));
+		MediaMetadata md = AebnMetadataProvider.createMetadata(183071);
+		AebnMetadataProvider.fillMetadata(md, 183071, details, null, new MediaScrapeOptions(MediaType.MOVIE));
+		MediaSearchResult result = new MediaSearchResult(md.getStringValue(MediaMetadata.TITLE));
+		result.setMetadata(md);
+
+		MediaScrapeOptions options = new MediaScrapeOptions(MediaType.MOVIE);
+		options.setId("AebnID", "183071");
+		options.setResult(result);
+		options.setArtworkType(type);
+		return options;
+	}
+}
@@ -0,0 +1,63 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.tinymediamanager.scraper.MediaCastMember;
+import org.tinymediamanager.scraper.MediaMetadata;
+import org.tinymediamanager.scraper.MediaScrapeOptions;
+import org.tinymediamanager.scraper.MediaType;
+
+/**
+ * A test class for filling in the star (actor) details into a copy after the meta data is returned.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnMetadataProvider#fillMetadataLazily
+ *
+ */
+public class LazyStarDetailsTest {
+
+	@Test
+	public void testActorsAreNamedFirstAndFilledInLater() throws Exception {
+		MovieDetails details = MovieDetails.parse(MovieDetailsExtractorTest.loadFixture("movieDetail_183071.html"));
+		List<CompletableFuture<StarDetails>> stars = new ArrayList<CompletableFuture<StarDetails>>();
+		for (MovieDetails.Person actor : details.actors) {
+			if (!actor.name.isEmpty()) {
+				stars.add(new CompletableFuture<StarDetails>());
+			}
+		}
+		MediaMetadata md = AebnMetadataProvider.createMetadata(183071);
+
+		CompletableFuture<MediaMetadata> enriched = AebnMetadataProvider.fillMetadataLazily(md, 183071, details, stars,
+				new MediaScrapeOptions(MediaType.MOVIE));
+
+		MediaCastMember first = md.getCastMembers().get(0);
+		assertThat(md.getStringValue(MediaMetadata.TITLE)).isEqualTo("Erotic Massage Stories 5");
+		assertThat(first.getName()).isEqualTo(details.actors.get(0).name);
+		assertThat(StringUtils.isEmpty(first.getImageUrl())).isTrue();
+		assertThat(enriched.isDone()).isFalse();
+
+		stars.get(0).complete(
+				new StarDetails("http://pic.aebn.net/star.jpg", Arrays.asList("http://pic.aebn.net/1.jpg")));
+		for (int i = 1; i < stars.size(); i++) {
+			stars.get(i).completeExceptionally(new IOException("HTTP 404"));
+		}
+		assertThat(enriched.isDone()).isTrue();
+		MediaMetadata filled = enriched.get();
+		assertThat(filled).isNotSameAs(md);
+		assertThat(filled.getStringValue(MediaMetadata.TITLE)).isEqualTo("Erotic Massage Stories 5");
+		assertThat(filled.getCastMembers().size()).isEqualTo(md.getCastMembers().size());
+		assertThat(filled.getCastMembers().get(0).getImageUrl()).isEqualTo("http://pic.aebn.net/star.jpg");
+		assertThat(filled.getCastMembers().get(0).getFanart()).containsExactly("http://pic.aebn.net/1.jpg");
+		// the meta data already handed out is not changed by the background thread
+		assertThat(StringUtils.isEmpty(first.getImageUrl())).isTrue();
+	}
+}
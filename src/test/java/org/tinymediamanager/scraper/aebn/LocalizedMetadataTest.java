@@ -0,0 +1,217 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.tinymediamanager.scraper.MediaCastMember;
+import org.tinymediamanager.scraper.MediaLanguages;
+import org.tinymediamanager.scraper.MediaMetadata;
+import org.tinymediamanager.scraper.MediaScrapeOptions;
+import org.tinymediamanager.scraper.MediaType;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A test class for scraping a movie in several languages at once, against a local stand-in of the AEBN site which
+ * counts the requests per url.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see AebnMetadataProvider#getLocalizedMetadata(MediaScrapeOptions, List)
+ *
+ */
+public class LocalizedMetadataTest {
+	private static final String MOVIE_PATH = "/dispatcher/movieDetail?movieId=183071&locale=";
+	private static final String TITLE = "Erotic Massage Stories 5";
+	private static final String GERMAN_TITLE = "Erotische Massagegeschichten 5";
+	private static final String STAR_PAGE = "<div class=\"StarInfo\">"
+			+ "<img itemprop=\"image\" src=\"http://pic.aebn.net/star.jpg\"></div>";
+
+	private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<String, AtomicInteger>();
+	private final Map<String, String> savedProperties = new HashMap<String, String>();
+	private HttpServer site;
+	private URLClassLoader isolated;
+
+	/**
+	 * Loads the classes of the scraper once more. The provider reads its settings when it is loaded, and the other
+	 * tests have loaded it already with the default settings.
+	 */
+	private static class IsolatingClassLoader extends URLClassLoader {
+		private static final String PACKAGE = AebnMetadataProvider.class.getPackage().getName() + ".";
+
+		IsolatingClassLoader() {
+			super(new URL[] { AebnMetadataProvider.class.getProtectionDomain().getCodeSource().getLocation() },
+					AebnMetadataProvider.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith(PACKAGE)) {
+				return super.loadClass(name, resolve);
+			}
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> loaded = findLoadedClass(name);
+				if (loaded == null) {
+					loaded = findClass(name);
+				}
+				if (resolve) {
+					resolveClass(loaded);
+				}
+				return loaded;
+			}
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		final byte[] movie = loadFixture("movieDetail_183071.html");
+		final byte[] germanMovie = new String(movie, StandardCharsets.UTF_8).replace(TITLE, GERMAN_TITLE)
+				.getBytes(StandardCharsets.UTF_8);
+		site = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		site.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				String path = exchange.getRequestURI().toString();
+				requests.putIfAbsent(path, new AtomicInteger());
+				requests.get(path).incrementAndGet();
+				byte[] body = null;
+				if (path.equals(MOVIE_PATH + "en")) {
+					body = movie;
+				} else if (path.equals(MOVIE_PATH + "de")) {
+					body = germanMovie;
+				} else if (path.startsWith("/dispatcher/starDetail?")) {
+					body = STAR_PAGE.getBytes(StandardCharsets.UTF_8);
+				}
+				// everything else, e.g. the French page, is missing
+				if (body == null) {
+					exchange.sendResponseHeaders(404, -1);
+					exchange.close();
+					return;
+				}
+				exchange.sendResponseHeaders(200, body.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(body);
+				out.close();
+			}
+		});
+		site.start();
+
+		String siteUrl = "http://127.0.0.1:" + site.getAddress().getPort();
+		setProperty("aebn.dataUrl", siteUrl);
+		setProperty("aebn.imageUrl", siteUrl);
+		setProperty("aebn.cache.dir", Files.createTempDirectory("aebn-cache").toString());
+		// no caches, so every page that is not shared is requested again
+		setProperty("aebn.pages.cacheHours", "0");
+		setProperty("aebn.stars.cacheEntries", "0");
+		setProperty("aebn.stars.cacheFiles", "0");
+		setProperty("aebn.http.rate", "1000");
+		isolated = new IsolatingClassLoader();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		site.stop(0);
+		isolated.close();
+		for (Map.Entry<String, String> property : savedProperties.entrySet()) {
+			if (property.getValue() == null) {
+				System.clearProperty(property.getKey());
+			} else {
+				System.setProperty(property.getKey(), property.getValue());
+			}
+		}
+	}
+
+	@Test
+	public void testStarPagesAreSharedByAllLanguages() throws Exception {
+		MediaScrapeOptions options = new MediaScrapeOptions(MediaType.MOVIE);
+		options.setId("AebnID", "183071");
+		Map<MediaLanguages, MediaMetadata> localized = getLocalizedMetadata(options,
+				Arrays.asList(MediaLanguages.en, MediaLanguages.de, MediaLanguages.fr));
+
+		// one detail page per language
+		assertThat(requests.get(MOVIE_PATH + "en").get()).isEqualTo(1);
+		assertThat(requests.get(MOVIE_PATH + "de").get()).isEqualTo(1);
+		assertThat(requests.get(MOVIE_PATH + "fr").get()).isEqualTo(1);
+		// and every star page once for all languages
+		int starPages = 0;
+		for (Map.Entry<String, AtomicInteger> request : requests.entrySet()) {
+			if (request.getKey().startsWith("/dispatcher/starDetail?")) {
+				assertThat(request.getValue().get()).isEqualTo(1);
+				starPages++;
+			}
+		}
+		assertThat(starPages).isGreaterThan(0);
+
+		assertThat(localized.keySet()).containsExactly(MediaLanguages.en, MediaLanguages.de, MediaLanguages.fr);
+		MediaMetadata english = localized.get(MediaLanguages.en);
+		MediaMetadata german = localized.get(MediaLanguages.de);
+		assertThat(english.getStringValue(MediaMetadata.TITLE)).isEqualTo(TITLE);
+		assertThat(german.getStringValue(MediaMetadata.TITLE)).isEqualTo(GERMAN_TITLE);
+		assertThat(german.getStringValue(MediaMetadata.RUNTIME))
+				.isEqualTo(english.getStringValue(MediaMetadata.RUNTIME));
+		List<MediaCastMember> cast = german.getCastMembers();
+		assertThat(cast.size()).isEqualTo(english.getCastMembers().size());
+		assertThat(cast.get(0).getImageUrl()).isEqualTo("http://pic.aebn.net/star.jpg");
+
+		// the missing French page only leaves its own language without details
+		assertThat(localized.get(MediaLanguages.fr).getCastMembers().isEmpty()).isTrue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<MediaLanguages, MediaMetadata> getLocalizedMetadata(MediaScrapeOptions options,
+			List<MediaLanguages> languages) throws Exception {
+		Class<?> provider = isolated.loadClass(AebnMetadataProvider.class.getName());
+		Method method = provider.getMethod("getLocalizedMetadata", MediaScrapeOptions.class, List.class);
+		return (Map<MediaLanguages, MediaMetadata>) method.invoke(provider.getConstructor().newInstance(), options,
+				languages);
+	}
+
+	private void setProperty(String key, String value) {
+		if (!savedProperties.containsKey(key)) {
+			savedProperties.put(key, System.getProperty(key));
+		}
+		System.setProperty(key, value);
+	}
+
+	private static byte[] loadFixture(String name) throws IOException {
+		InputStream in = LocalizedMetadataTest.class.getResourceAsStream("/fixtures/" + name);
+		try {
+			return AebnHttpClient.readFully(in);
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.junit.Test;
+import org.tinymediamanager.scraper.util.StrgUtils;
+
+/**
+ * A test class for the single pass extraction of the md-details block.
+ * <p>
+ * The extractor output is compared with the previous extraction based on one select() per field.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see MovieDetailsExtractor
+ *
+ */
+public class MovieDetailsExtractorTest {
+
+	@Test
+	public void testMovieDetail() throws Exception {
+		Document document = loadFixture("movieDetail_183071.html");
+		MovieDetails details = MovieDetails.parse(document);
+
+		assertThat(details.runtime).isEqualTo("144");
+		assertThat(details.year).isEqualTo("2014");
+		assertThat(details.series).isEqualTo("Erotic Massage Stories");
+		assertThat(details.studio).isEqualTo("Pure Passion");
+		assertThat(details.genres.size()).isEqualTo(6);
+		assertThat(details.plot).startsWith("Prepare for relaxation and satisfaction in 5 hot scenes");
+		assertThat(details.actors.size()).isEqualTo(7);
+		assertThat(details.actors.get(0).id).isEqualTo("98001");
+		assertThat(details.actors.get(3).name).isEqualTo("Sierra Nevadah");
+		assertThat(details.actors.get(6).name).isEqualTo("Tyler Nixon");
+		assertThat(details.director.id).isEqualTo("4321");
+		assertThat(details.director.name).isEqualTo("B. Skow");
+
+		assertSameAsSelectExtraction(document, details);
+	}
+
+	@Test
+	public void testMinimalMovieDetail() throws Exception {
+		Document document = loadFixture("movieDetail_minimal.html");
+		MovieDetails details = MovieDetails.parse(document);
+
+		assertThat(details.runtime).isEqualTo("58");
+		assertThat(details.year).isNull();
+		assertThat(details.series).isNull();
+		assertThat(details.studio).isNull();
+		assertThat(details.director).isNull();
+		assertThat(details.actors.get(0).id).isEqualTo("");
+		assertThat(details.actors.get(1).name).isEqualTo("");
+
+		assertSameAsSelectExtraction(document, details);
+	}
+
+	@Test
+	public void testSeriesWithItemprop() throws Exception {
+		Document document = loadFixture("movieDetail_series_itemprop.html");
+		MovieDetails details = MovieDetails.parse(document);
+
+		assertThat(details.series).isEqualTo("Erotic Massage Stories");
+		assertThat(details.year).isEqualTo("2015");
+		assertThat(details.studio).isEqualTo("Pure Passion");
+		assertThat(details.actors.size()).isEqualTo(1);
+
+		assertSameAsSelectExtraction(document, details);
+	}
+
+	@Test
+	public void testLanguageIndependentFieldsAreShared() throws Exception {
+		MovieDetails english = MovieDetails.parse(loadFixture("movieDetail_183071.html"));
+		MovieDetails german = MovieDetails.parse(loadFixture("movieDetail_minimal.html"));
+		german.title = "Erotische Massagegeschichten 5";
+
+		MovieDetails details = german.withLanguageIndependentFields(english);
+		assertThat(details.title).isEqualTo("Erotische Massagegeschichten 5");
+		assertThat(details.plot).isEqualTo(german.plot);
+		assertThat(details.genres).isEqualTo(german.genres);
+		assertThat(details.runtime).isEqualTo("144");
+		assertThat(details.year).isEqualTo("2014");
+		assertThat(details.studio).isEqualTo("Pure Passion");
+		assertThat(details.sceneThumbnails).isEqualTo(english.sceneThumbnails);
+		assertThat(details.actors).isEqualTo(english.actors);
+		assertThat(details.director).isSameAs(english.director);
+	}
+
+	/**
+	 * Extracts all fields the way getMetadata() did before the single pass extractor and compares the results.
+	 */
+	private void assertSameAsSelectExtraction(Document document, MovieDetails details) {
+		Elements mdDetails = document.getElementsByAttributeValue("id", "md-details");
+
+		Elements elements = mdDetails.select("[itemprop=duration]");
+		assertThat(details.runtime).isEqualTo(elements.isEmpty() ? null
+				: StrgUtils.substr(AebnMetadataProvider.cleanString(elements.first().attr("content")), "PT(\\d+)M"));
+
+		elements = mdDetails.select("[itemprop=datePublished]");
+		assertThat(details.year).isEqualTo(elements.isEmpty() ? null
+				: StrgUtils.substr(AebnMetadataProvider.cleanString(elements.first().attr("content")), "(\\d+)-"));
+
+		elements = mdDetails.select("[class=series]");
+		assertThat(details.series)
+				.isEqualTo(elements.isEmpty() ? null : AebnMetadataProvider.cleanString(elements.first().text()));
+
+		elements = mdDetails.select("[itemprop=productionCompany]");
+		assertThat(details.studio)
+				.isEqualTo(elements.isEmpty() ? null : AebnMetadataProvider.cleanString(elements.first().text()));
+
+		elements = mdDetails.select("[itemprop=about]");
+		assertThat(details.plot)
+				.isEqualTo(elements.isEmpty() ? null : AebnMetadataProvider.cleanString(elements.first().text()));
+
+		List<String> genres = new ArrayList<String>();
+		for (Element g : mdDetails.select("[itemprop=genre]")) {
+			genres.add(g.text());
+		}
+		assertThat(details.genres).isEqualTo(genres);
+
+		elements = mdDetails.select("[itemprop=actor]");
+		assertThat(details.actors.size()).isEqualTo(elements.size());
+		for (int i = 0; i < elements.size(); i++) {
+			Element anchor = elements.get(i);
+			assertThat(details.actors.get(i).id).isEqualTo(StrgUtils.substr(anchor.toString(), "starId=(\\d+)"));
+			assertThat(details.actors.get(i).name)
+					.isEqualTo(AebnMetadataProvider.cleanString(anchor.select("[itemprop=name]").first().text()));
+			assertThat(details.actors.get(i).detailsUrl).isEqualTo(anchor.attr("href"));
+		}
+
+		elements = mdDetails.select("[itemprop=director]");
+		if (elements.isEmpty()) {
+			assertThat(details.director).isNull();
+		} else {
+			assertThat(details.director.id).isEqualTo(StrgUtils.substr(elements.toString(), "directorID=(\\d+)"));
+			assertThat(details.director.name)
+					.isEqualTo(AebnMetadataProvider.cleanString(elements.select("[itemprop=name]").first().text()));
+		}
+	}
+
+	static Document loadFixture(String name) throws Exception {
+		InputStream in = MovieDetailsExtractorTest.class.getResourceAsStream("/fixtures/" + name);
+		try {
+			return Jsoup.parse(in, "UTF-8", "");
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A test class for the cached page loader.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see PageLoader
+ *
+ */
+public class PageLoaderTest {
+	private static final String PAGE = "<html><body><h1 class=\"md-movieTitle\">Title</h1></body></html>";
+
+	private HttpServer server;
+	private final AtomicInteger downloads = new AtomicInteger();
+	private final AtomicInteger revalidations = new AtomicInteger();
+
+	@Before
+	public void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+					revalidations.incrementAndGet();
+					exchange.sendResponseHeaders(304, -1);
+					exchange.close();
+					return;
+				}
+				downloads.incrementAndGet();
+				byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().add("ETag", "\"v1\"");
+				exchange.sendResponseHeaders(200, body.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(body);
+				out.close();
+			}
+		});
+		server.start();
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	public void testFreshPagesAreNotRequested() throws Exception {
+		ResponseCache cache = new ResponseCache(Files.createTempDirectory("aebn-pages").toFile(), 10);
+		PageLoader loader = new PageLoader(new AebnHttpClient(), cache, 60000);
+		String url = getUrl("/dispatcher/movieDetail?movieId=1");
+
+		assertThat(loader.load(url).select("h1").text()).isEqualTo("Title");
+		assertThat(loader.load(url).select("h1").text()).isEqualTo("Title");
+		assertThat(downloads.get()).isEqualTo(1);
+		assertThat(revalidations.get()).isEqualTo(0);
+	}
+
+	@Test
+	public void testExpiredPagesAreRevalidated() throws Exception {
+		ResponseCache cache = new ResponseCache(Files.createTempDirectory("aebn-pages").toFile(), 10);
+		PageLoader loader = new PageLoader(new AebnHttpClient(), cache, -1);
+		String url = getUrl("/dispatcher/fts?userQuery=x");
+
+		assertThat(loader.load(url).select("h1").text()).isEqualTo("Title");
+		assertThat(loader.load(url).select("h1").text()).isEqualTo("Title");
+		assertThat(downloads.get()).isEqualTo(1);
+		assertThat(revalidations.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testOtherPagesAreNotCached() throws Exception {
+		ResponseCache cache = new ResponseCache(Files.createTempDirectory("aebn-pages").toFile(), 10);
+		PageLoader loader = new PageLoader(new AebnHttpClient(), cache, 60000);
+		String url = getUrl("/dispatcher/starDetail?starId=1");
+
+		loader.load(url);
+		loader.load(url);
+		assertThat(downloads.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void testPagesClaimedByAnotherInstallationAreAwaited() throws Exception {
+		File directory = Files.createTempDirectory("aebn-pages").toFile();
+		final ResponseCache other = new ResponseCache(directory, 10);
+		PageLoader loader = new PageLoader(new AebnHttpClient(), new ResponseCache(directory, 10), 60000);
+		final String url = getUrl("/dispatcher/movieDetail?movieId=2");
+
+		assertThat(other.claim(url, 60000)).isTrue();
+		new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					return;
+				}
+				other.put(url, new AebnResponse(200, "", "", PAGE.getBytes(StandardCharsets.UTF_8)));
+				other.release(url);
+			}
+		}.start();
+
+		assertThat(loader.load(url).select("h1").text()).isEqualTo("Title");
+		assertThat(downloads.get()).isEqualTo(0);
+	}
+
+	private String getUrl(String path) {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+	}
+}
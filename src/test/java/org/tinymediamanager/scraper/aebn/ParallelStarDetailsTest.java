@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.tinymediamanager.scraper.MediaCastMember;
+import org.tinymediamanager.scraper.MediaMetadata;
+import org.tinymediamanager.scraper.MediaScrapeOptions;
+import org.tinymediamanager.scraper.MediaType;
+
+/**
+ * A test class for downloading the star (actor) detail pages in parallel.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see StarFetcher
+ * @see AebnMetadataProvider#fillMetadata
+ *
+ */
+public class ParallelStarDetailsTest {
+	private static final String STAR_URL = "http://theater.aebn.net/dispatcher/starDetail?starId=";
+	private static final String FAILING_STAR = "98004";
+
+	/**
+	 * Serves a star page with the star id as image. The earlier a star is on the movie page the longer its page takes,
+	 * so the downloads complete in reverse order; the page of one star is missing.
+	 */
+	private static class SlowStarTransport implements AebnTransport {
+		@Override
+		public AebnResponse get(String url, Map<String, String> headers) throws IOException {
+			String starId = url.substring(STAR_URL.length());
+			try {
+				Thread.sleep((98008 - Integer.parseInt(starId)) * 20L);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (FAILING_STAR.equals(starId)) {
+				throw new AebnHttpException(url, 404, null);
+			}
+			String page = "<div class=\"StarInfo\"><img itemprop=\"image\" src=\"http://pic.aebn.net/" + starId
+					+ ".jpg\"></div>";
+			return new AebnResponse(200, null, null, page.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testStarsAreAddedInPageOrder() throws Exception {
+		MovieDetails details = MovieDetails.parse(MovieDetailsExtractorTest.loadFixture("movieDetail_183071.html"));
+		StarFetcher fetcher = new StarFetcher(details.actors.size(), new StarDetailsCache(
+				Files.createTempDirectory("aebn-stars").toFile(), 100, 100, 60000), new SlowStarTransport());
+		List<CompletableFuture<StarDetails>> stars = new ArrayList<CompletableFuture<StarDetails>>();
+		for (MovieDetails.Person actor : details.actors) {
+			stars.add(fetcher.submit(actor.id, STAR_URL + actor.id));
+		}
+
+		MediaMetadata md = AebnMetadataProvider.createMetadata(183071);
+		AebnMetadataProvider.fillMetadata(md, 183071, details, stars, new MediaScrapeOptions(MediaType.MOVIE));
+
+		List<MediaCastMember> cast = md.getCastMembers();
+		for (int i = 0; i < details.actors.size(); i++) {
+			MovieDetails.Person actor = details.actors.get(i);
+			assertThat(cast.get(i).getName()).isEqualTo(actor.name);
+			if (FAILING_STAR.equals(actor.id)) {
+				// the failed page only leaves its own actor without image
+				assertThat(StringUtils.isEmpty(cast.get(i).getImageUrl())).isTrue();
+			} else {
+				assertThat(cast.get(i).getImageUrl()).isEqualTo("http://pic.aebn.net/" + actor.id + ".jpg");
+			}
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.junit.Test;
+
+/**
+ * A test class for the snapshots of incremental refreshes.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see RefreshStore
+ *
+ */
+public class RefreshStoreTest {
+
+	@Test
+	public void testFingerprintCoversOnlyTheMovie() throws Exception {
+		String page = loadPage("movieDetail_183071.html");
+		String fingerprint = RefreshStore.fingerprint(page.getBytes(StandardCharsets.UTF_8));
+		assertThat(fingerprint).isNotNull();
+
+		// e.g. ads or session ids elsewhere on the page
+		String otherPage = page.replace("</body>", "<div class=\"ad\">session 4711</div></body>");
+		assertThat(RefreshStore.fingerprint(otherPage.getBytes(StandardCharsets.UTF_8))).isEqualTo(fingerprint);
+
+		String changedPage = page.replace("<span itemprop=\"name\">Pure Passion</span>",
+				"<span itemprop=\"name\">Pure Passion Pictures</span>");
+		assertThat(RefreshStore.fingerprint(changedPage.getBytes(StandardCharsets.UTF_8))).isNotEqualTo(fingerprint);
+
+		assertThat(RefreshStore.fingerprint("<html><body></body></html>".getBytes(StandardCharsets.UTF_8))).isNull();
+	}
+
+	@Test
+	public void testFindEndOfElement() {
+		String html = "<p><div id=\"md-details\"><divider/><div>a</div></div><div>b</div>";
+		assertThat(html.substring(3, RefreshStore.findEndOfElement(html, 3, "div")))
+				.isEqualTo("<div id=\"md-details\"><divider/><div>a</div></div>");
+	}
+
+	@Test
+	public void testSnapshotsAreStored() throws Exception {
+		File directory = Files.createTempDirectory("aebn-movies").toFile();
+		String page = loadPage("movieDetail_183071.html");
+		MovieDetails details = MovieDetails.parse(Jsoup.parse(page));
+		List<StarDetails> stars = Arrays.asList(new StarDetails("http://pic.aebn.net/star.jpg",
+				Arrays.asList("http://pic.aebn.net/fanart.jpg")));
+		new RefreshStore(directory, 10, 10).put(183071, "en", new RefreshStore.Snapshot("f1", "\"v1\"", "", details,
+				null).withStars(stars));
+
+		RefreshStore.Snapshot snapshot = new RefreshStore(directory, 10, 10).get(183071, "en");
+		assertThat(snapshot.fingerprint).isEqualTo("f1");
+		assertThat(snapshot.etag).isEqualTo("\"v1\"");
+		assertThat(snapshot.details.title).isEqualTo(details.title);
+		assertThat(snapshot.details.studio).isEqualTo("Pure Passion");
+		assertThat(snapshot.details.sceneThumbnails).isEqualTo(details.sceneThumbnails);
+		assertThat(snapshot.details.genres).isEqualTo(details.genres);
+		assertThat(snapshot.details.actors.size()).isEqualTo(details.actors.size());
+		assertThat(snapshot.details.actors.get(0).name).isEqualTo(details.actors.get(0).name);
+		assertThat(snapshot.details.director.name).isEqualTo(details.director.name);
+		assertThat(snapshot.stars.get(0).getFanartUrls()).isEqualTo(stars.get(0).getFanartUrls());
+		assertThat(new RefreshStore(directory, 10, 10).get(183071, "de")).isNull();
+	}
+
+	private static String loadPage(String name) throws Exception {
+		InputStream in = RefreshStoreTest.class.getResourceAsStream("/fixtures/" + name);
+		try {
+			return new String(AebnHttpClient.readFully(in), StandardCharsets.UTF_8);
+		} finally {
+			in.close();
+		}
+	}
+}
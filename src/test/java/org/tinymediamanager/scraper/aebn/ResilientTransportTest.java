@@ -0,0 +1,157 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * A test class for rate limiting, retries and the circuit breaker.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see ResilientTransport
+ *
+ */
+public class ResilientTransportTest {
+	private static final String URL = "http://theater.aebn.net/dispatcher/movieDetail?movieId=1";
+
+	/**
+	 * A transport failing a number of times before it succeeds.
+	 */
+	private static class FlakyTransport implements AebnTransport {
+		final AtomicInteger requests = new AtomicInteger();
+		final int failures;
+		final int status;
+		final String retryAfter;
+
+		FlakyTransport(int failures, int status) {
+			this(failures, status, null);
+		}
+
+		FlakyTransport(int failures, int status, String retryAfter) {
+			this.failures = failures;
+			this.status = status;
+			this.retryAfter = retryAfter;
+		}
+
+		@Override
+		public AebnResponse get(String url, Map<String, String> headers) throws IOException {
+			if (requests.incrementAndGet() <= failures) {
+				if (status == 0) {
+					throw new SocketTimeoutException("timeout");
+				}
+				throw new AebnHttpException(url, status, retryAfter);
+			}
+			return new AebnResponse(200, null, null, new byte[0]);
+		}
+	}
+
+	@Test
+	public void testTransientFailuresAreRetried() throws Exception {
+		FlakyTransport flaky = new FlakyTransport(2, 503);
+		ResilientTransport transport = new ResilientTransport(flaky, 1000, 3, 10, 60000, 1, 10000);
+
+		assertThat(transport.get(URL, new LinkedHashMap<String, String>()).getStatus()).isEqualTo(200);
+		assertThat(flaky.requests.get()).isEqualTo(3);
+		assertThat(transport.getLimiter("theater.aebn.net").getRate()).isLessThan(1000.0);
+	}
+
+	@Test
+	public void testLongRetryAfterFailsFast() throws Exception {
+		FlakyTransport flaky = new FlakyTransport(1, 429, "3600");
+		ResilientTransport transport = new ResilientTransport(flaky, 1000, 3, 10, 60000, 1, 100);
+		long start = System.nanoTime();
+		try {
+			transport.get(URL, new LinkedHashMap<String, String>());
+			Assert.fail("request waited for an hour");
+		} catch (AebnHttpException e) {
+			assertThat(e.getStatus()).isEqualTo(429);
+		}
+		assertThat(flaky.requests.get()).isEqualTo(1);
+
+		// the host is paused for the limit only, not for the hour it asked for
+		assertThat(transport.get(URL, new LinkedHashMap<String, String>()).getStatus()).isEqualTo(200);
+		assertThat(System.nanoTime() - start).isLessThan(5000000000L);
+	}
+
+	@Test
+	public void testClientErrorsAreNotRetried() throws Exception {
+		FlakyTransport flaky = new FlakyTransport(1, 404);
+		ResilientTransport transport = new ResilientTransport(flaky, 1000, 3, 10, 60000, 1, 10000);
+		try {
+			transport.get(URL, new LinkedHashMap<String, String>());
+			Assert.fail("404 retried");
+		} catch (AebnHttpException e) {
+			assertThat(e.getStatus()).isEqualTo(404);
+		}
+		assertThat(flaky.requests.get()).isEqualTo(1);
+		assertThat(transport.getBreaker("theater.aebn.net").isOpen()).isFalse();
+	}
+
+	@Test
+	public void testCircuitOpensAndFailsFast() throws Exception {
+		FlakyTransport flaky = new FlakyTransport(Integer.MAX_VALUE, 0);
+		ResilientTransport transport = new ResilientTransport(flaky, 1000, 1, 4, 60000, 1, 10000);
+		for (int i = 0; i < 3; i++) {
+			try {
+				transport.get(URL, new LinkedHashMap<String, String>());
+				Assert.fail("failure not reported");
+			} catch (IOException e) {
+				// expected
+			}
+		}
+		// 2 requests each for the first 2 calls open the circuit, the 3rd call fails fast
+		assertThat(flaky.requests.get()).isEqualTo(4);
+		assertThat(transport.getBreaker("theater.aebn.net").isOpen()).isTrue();
+	}
+
+	@Test
+	public void testCircuitClosesAfterSuccessfulTrial() throws Exception {
+		FlakyTransport flaky = new FlakyTransport(2, 500);
+		ResilientTransport transport = new ResilientTransport(flaky, 1000, 0, 2, 0, 1, 10000);
+		for (int i = 0; i < 2; i++) {
+			try {
+				transport.get(URL, new LinkedHashMap<String, String>());
+			} catch (IOException e) {
+				// expected
+			}
+		}
+		assertThat(transport.getBreaker("theater.aebn.net").isOpen()).isTrue();
+		assertThat(transport.get(URL, new LinkedHashMap<String, String>()).getStatus()).isEqualTo(200);
+		assertThat(transport.getBreaker("theater.aebn.net").isOpen()).isFalse();
+	}
+
+	@Test
+	public void testInterruptedTrialIsReleased() throws Exception {
+		FlakyTransport flaky = new FlakyTransport(2, 500);
+		ResilientTransport transport = new ResilientTransport(flaky, 1000, 0, 2, 0, 1, 10000);
+		for (int i = 0; i < 2; i++) {
+			try {
+				transport.get(URL, new LinkedHashMap<String, String>());
+			} catch (IOException e) {
+				// expected
+			}
+		}
+		// the trial request has to wait for the limiter, and the caller is cancelled meanwhile
+		transport.getLimiter("theater.aebn.net").onThrottled(60000);
+		Thread.currentThread().interrupt();
+		try {
+			transport.get(URL, new LinkedHashMap<String, String>());
+			Assert.fail("interrupt not reported");
+		} catch (InterruptedIOException e) {
+			// expected
+		} finally {
+			Thread.interrupted();
+		}
+		assertThat(flaky.requests.get()).isEqualTo(2);
+		assertThat(transport.getBreaker("theater.aebn.net").allowRequest()).isTrue();
+	}
+}
@@ -0,0 +1,96 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.tinymediamanager.scraper.MediaSearchResult;
+
+/**
+ * A test class for the paged search.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see SearchPager
+ *
+ */
+public class SearchPagerTest {
+	private static final String QUERY = "Erotic Massage Stories 5";
+
+	private PageLoader loader;
+
+	@Before
+	public void setUp() throws Exception {
+		// every page answers with the saved search page, so page 2 repeats the results of page 1 first
+		File directory = Files.createTempDirectory("aebn-recordings").toFile();
+		ResponseCache recordings = ReplayTransport.openRecordings(directory);
+		InputStream in = getClass().getResourceAsStream("/fixtures/fts_erotic_massage_stories.html");
+		AebnResponse page;
+		try {
+			page = new AebnResponse(200, null, null, AebnHttpClient.readFully(in));
+		} finally {
+			in.close();
+		}
+		String cleanedQuery = AebnMetadataProvider.cleanSearchQuery(QUERY);
+		for (int i = 1; i <= 3; i++) {
+			recordings.put(ReplayTransport.getKey(AebnMetadataProvider.getSearchUrl(cleanedQuery, 10, i)), page);
+			recordings.put(ReplayTransport.getKey(AebnMetadataProvider.getSearchUrl(cleanedQuery, 3, i)), page);
+			recordings.put(ReplayTransport.getKey(AebnMetadataProvider.getSearchUrl(cleanedQuery, 30, i)), page);
+		}
+		loader = new PageLoader(new ReplayTransport(directory), null, 0);
+	}
+
+	@Test
+	public void testPagingStopsAtConfidentMatch() throws Exception {
+		SearchPager pager = new SearchPager(loader, AebnMetadataProvider.cleanSearchQuery(QUERY), QUERY, 10, 60, 0.95f);
+
+		MediaSearchResult first = pager.next();
+		while (pager.hasNext()) {
+			pager.next();
+		}
+		assertThat(first.getTitle()).isEqualTo(QUERY);
+		assertThat(pager.getPages()).isEqualTo(1);
+		assertThat(pager.isFailed()).isFalse();
+	}
+
+	@Test
+	public void testPagesAreLoadedOnDemand() throws Exception {
+		SearchPager pager = new SearchPager(loader, AebnMetadataProvider.cleanSearchQuery(QUERY), QUERY, 3,
+				Integer.MAX_VALUE, Float.MAX_VALUE);
+
+		for (int i = 0; i < 3; i++) {
+			pager.next();
+		}
+		assertThat(pager.getPages()).isEqualTo(1);
+		pager.next();
+		assertThat(pager.getPages()).isEqualTo(2);
+	}
+
+	@Test
+	public void testShortPageIsTheLast() throws Exception {
+		SearchPager pager = new SearchPager(loader, AebnMetadataProvider.cleanSearchQuery(QUERY), QUERY, 30,
+				Integer.MAX_VALUE, Float.MAX_VALUE);
+
+		int results = 0;
+		while (pager.hasNext()) {
+			pager.next();
+			results++;
+		}
+		// the saved page has fewer than 30 movies, so no second page is requested
+		assertThat(results).isGreaterThan(0);
+		assertThat(pager.getPages()).isEqualTo(1);
+		assertThat(pager.isFailed()).isFalse();
+	}
+
+	@Test
+	public void testMissingPageStopsPaging() throws Exception {
+		SearchPager pager = new SearchPager(loader, "unknown", QUERY, 10, 60, 0.95f);
+
+		assertThat(pager.hasNext()).isFalse();
+		assertThat(pager.isFailed()).isTrue();
+	}
+}
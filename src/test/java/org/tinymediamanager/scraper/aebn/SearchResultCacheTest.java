@@ -0,0 +1,53 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.tinymediamanager.scraper.MediaSearchResult;
+import org.tinymediamanager.scraper.util.MetadataUtil;
+
+/**
+ * A test class for the search result cache.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see SearchResultCache
+ *
+ */
+public class SearchResultCacheTest {
+
+	@Test
+	public void testRescoring() throws Exception {
+		File directory = Files.createTempDirectory("aebn-searches").toFile();
+		List<SearchResultCache.Entry> entries = Arrays.asList(
+				new SearchResultCache.Entry("1", "Erotic Massage Stories 4", "url1", "poster1"),
+				new SearchResultCache.Entry("2", "Erotic Massage Stories 5", "url2", "poster2"));
+		new SearchResultCache(10, 60000, directory, 10).put("Erotic Massage Stories 5",
+				AebnMetadataProvider.createSearchResults(entries, "Erotic Massage Stories 5"));
+
+		// the persistent cache is read by a new instance; scores are calculated for the original query
+		List<SearchResultCache.Entry> cached = new SearchResultCache(10, 60000, directory, 10)
+				.get("Erotic Massage Stories 5");
+		assertThat(cached.size()).isEqualTo(2);
+		List<MediaSearchResult> results = AebnMetadataProvider.createSearchResults(cached,
+				"The Erotic Massage Stories 4 (2013)");
+		assertThat(results.get(0).getScore()).isEqualTo(
+				MetadataUtil.calculateScore("The Erotic Massage Stories 4 (2013)", results.get(0).getTitle()));
+		assertThat(results.get(0).getScore() >= results.get(1).getScore()).isTrue();
+		assertThat(results.get(0).getUrl()).isEqualTo("url" + results.get(0).getId());
+	}
+
+	@Test
+	public void testMemoryOnly() throws Exception {
+		SearchResultCache cache = new SearchResultCache(10, 60000, null, 0);
+		assertThat(cache.get("query")).isNull();
+		cache.put("query", AebnMetadataProvider.createSearchResults(
+				Arrays.asList(new SearchResultCache.Entry("1", "Title", "url", "poster")), "query"));
+		assertThat(cache.get("query").get(0).title).isEqualTo("Title");
+	}
+}
@@ -0,0 +1,116 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.Test;
+import org.tinymediamanager.scraper.MediaSearchResult;
+import org.tinymediamanager.scraper.util.MetadataUtil;
+import org.tinymediamanager.scraper.util.StrgUtils;
+
+/**
+ * A test class for the streaming search result parser.
+ * <p>
+ * The search results are compared with the previous extraction based on a jsoup DOM of the whole page.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see SearchResultParser
+ *
+ */
+public class SearchResultParserTest {
+	private static final String SEARCH = "Erotic Massage Stories 5";
+
+	@Test
+	public void testSearchResults() throws Exception {
+		String page = loadFixture("fts_erotic_massage_stories.html");
+		List<MediaSearchResult> results = AebnMetadataProvider.parseSearchResults(page, SEARCH);
+
+		assertThat(results.size()).isEqualTo(6);
+		assertThat(results.get(0).getId()).isEqualTo("183071");
+		assertThat(results.get(0).getUrl())
+				.isEqualTo("http://theater.aebn.net/dispatcher/movieDetail?movieId=183071&amp;locale=en");
+
+		List<MediaSearchResult> expected = parseWithDom(page, SEARCH);
+		assertThat(results.size()).isEqualTo(expected.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertThat(results.get(i).getId()).isEqualTo(expected.get(i).getId());
+			assertThat(results.get(i).getTitle()).isEqualTo(expected.get(i).getTitle());
+			assertThat(results.get(i).getUrl()).isEqualTo(expected.get(i).getUrl());
+			assertThat(results.get(i).getPosterUrl()).isEqualTo(expected.get(i).getPosterUrl());
+			assertThat(results.get(i).getScore()).isEqualTo(expected.get(i).getScore());
+		}
+	}
+
+	@Test
+	public void testText() {
+		assertThat(SearchResultParser.getText("\n  Erotic <span>Massage</span>\tStories&nbsp;3 "))
+				.isEqualTo("Erotic Massage Stories 3");
+		assertThat(SearchResultParser.getText("A<br>B &amp;amp; C")).isEqualTo("A B &amp; C");
+	}
+
+	@Test
+	public void testStopsEarly() throws Exception {
+		final List<String> ids = new ArrayList<String>();
+		SearchResultParser.parse(loadFixture("fts_erotic_massage_stories.html"), new SearchResultParser.Listener() {
+			@Override
+			public boolean found(String href, String movieId, String title) {
+				ids.add(movieId);
+				return ids.size() < 2;
+			}
+		});
+		assertThat(ids).isEqualTo(java.util.Arrays.asList("183071", "171234"));
+	}
+
+	/**
+	 * Parses the search page the way search() did before the streaming parser.
+	 */
+	private List<MediaSearchResult> parseWithDom(String page, String searchString) {
+		Document doc = Jsoup.parse(page);
+		List<MediaSearchResult> resultList = new ArrayList<MediaSearchResult>();
+		HashSet<String> foundResultUrls = new HashSet<String>();
+		for (Element anchor : doc.getElementsByAttributeValueMatching("id", "FTSMovieSearch_link_title_detail_\\d+")) {
+			try {
+				String movieUrl = "http://theater.aebn.net" + StrgUtils.substr(anchor.toString(), "href=\\\"(.*?)\\\"");
+				String movieId = StrgUtils.substr(anchor.toString(), "movieId=(\\d+)");
+				String movieName = StringEscapeUtils.unescapeHtml4(anchor.text());
+				Integer.parseInt(movieId);
+				MediaSearchResult sr = new MediaSearchResult("AebnID");
+				sr.setId(movieId);
+				sr.setTitle(movieName);
+				sr.setUrl(movieUrl);
+				sr.setPosterUrl("http://pic.aebn.net/Stream/Movie/Boxcovers/a" + movieId + "_160w.jpg");
+				sr.setScore(MetadataUtil.calculateScore(searchString, movieName));
+				if (StringUtils.isBlank(sr.getTitle()) || StringUtils.isBlank(sr.getId())
+						|| !foundResultUrls.add(sr.getUrl())) {
+					continue;
+				}
+				resultList.add(sr);
+			} catch (Exception e) {
+				// skipped like before
+			}
+		}
+		Collections.sort(resultList);
+		Collections.reverse(resultList);
+		return resultList;
+	}
+
+	private static String loadFixture(String name) throws Exception {
+		InputStream in = SearchResultParserTest.class.getResourceAsStream("/fixtures/" + name);
+		try {
+			return new String(AebnHttpClient.readFully(in), "UTF-8");
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tinymediamanager.scraper.aebn.AebnMetrics.Counter;
+
+/**
+ * A test class for the coalescing of concurrent calls.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see SingleFlight
+ *
+ */
+public class SingleFlightTest {
+
+	@Test
+	public void testConcurrentCallsShareOneRun() throws Exception {
+		final SingleFlight<String, String> flight = new SingleFlight<String, String>(Counter.DETAIL_COALESCED);
+		final AtomicInteger runs = new AtomicInteger();
+		final CountDownLatch release = new CountDownLatch(1);
+		final Callable<String> call = new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				runs.incrementAndGet();
+				release.await();
+				return "details";
+			}
+		};
+
+		long joined = AebnMetrics.get(Counter.DETAIL_COALESCED);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						return flight.execute("183071/en", call);
+					}
+				}));
+			}
+			// wait until all callers joined the running call
+			while (AebnMetrics.get(Counter.DETAIL_COALESCED) < joined + 3) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+			for (Future<String> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("details");
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(runs.get()).isEqualTo(1);
+		assertThat(flight.getRunning("183071/en")).isNull();
+	}
+
+	@Test
+	public void testFailuresAreNotKept() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<String, String>(Counter.DETAIL_COALESCED);
+		try {
+			flight.execute("1/en", new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					throw new IOException("HTTP 503");
+				}
+			});
+			Assert.fail("failure not reported");
+		} catch (IOException e) {
+			assertThat(e.getMessage()).isEqualTo("HTTP 503");
+		}
+		assertThat(flight.execute("1/en", new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return "details";
+			}
+		})).isEqualTo("details");
+	}
+}
@@ -0,0 +1,60 @@
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * A test class for the persistent star details cache.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see StarDetailsCache
+ *
+ */
+public class StarDetailsCacheTest {
+
+	@Test
+	public void testPersistence() throws Exception {
+		File directory = Files.createTempDirectory("aebn-stars").toFile();
+		StarDetails details = new StarDetails("http://pic.aebn.net/Stream/Star/1234.jpg",
+				Arrays.asList("http://pic.aebn.net/a.jpg", "http://pic.aebn.net/b.jpg"));
+
+		new StarDetailsCache(directory, 10, 10, 60000).put("1234", details);
+
+		// a new cache instance has to read the details from disk
+		StarDetails cached = new StarDetailsCache(directory, 10, 10, 60000).get("1234");
+		assertThat(cached).isNotNull();
+		assertThat(cached.getImageUrl()).isEqualTo(details.getImageUrl());
+		assertThat(cached.getFanartUrls()).isEqualTo(details.getFanartUrls());
+		assertThat(new StarDetailsCache(directory, 10, 10, 60000).get("4711")).isNull();
+		assertThat(new StarDetailsCache(directory, 10, 10, 60000).get("")).isNull();
+	}
+
+	@Test
+	public void testExpiry() throws Exception {
+		File directory = Files.createTempDirectory("aebn-stars").toFile();
+		StarDetailsCache cache = new StarDetailsCache(directory, 10, 10, 1);
+		cache.put("1234", StarDetails.EMPTY);
+		Thread.sleep(10);
+
+		assertThat(cache.get("1234")).isNull();
+		assertThat(new StarDetailsCache(directory, 10, 10, 1).get("1234")).isNull();
+	}
+
+	@Test
+	public void testSizeCap() throws Exception {
+		File directory = Files.createTempDirectory("aebn-stars").toFile();
+		StarDetailsCache cache = new StarDetailsCache(directory, 2, 3, 60000);
+		for (int i = 1; i <= 10; i++) {
+			cache.put(String.valueOf(i), StarDetails.EMPTY);
+		}
+		cache.prune();
+
+		assertThat(directory.list().length).isEqualTo(3);
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015-206 NETHead <NETHead@gmx.net>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.tinymediamanager.scraper.aebn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * A test class for the local title index.
+ *
+ * @author NETHead <NETHead@gmx.net>
+ * @version 0.3
+ * @see TitleIndex
+ *
+ */
+public class TitleIndexTest {
+
+	@Test
+	public void testFindsSimilarTitles() {
+		TitleIndex index = new TitleIndex(null);
+		index.add(183071, "Erotic Massage Stories 5", "Erotic Massage Stories", "Pure Passion");
+		index.add(180000, "Erotic Massage Stories 4", "Erotic Massage Stories", "Pure Passion");
+		index.add(66568, "Something Completely Different", null, null);
+
+		List<TitleIndex.Entry> found = index.find("erotic massage stories 5");
+		assertThat(found.size()).isEqualTo(2);
+		assertThat(found.get(0).aebnId).isEqualTo(183071);
+		assertThat(index.find("Erotic Massage Storys").size()).isEqualTo(2);
+		assertThat(index.find("Nothing like it").isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testExactMatchOnly() {
+		TitleIndex index = new TitleIndex(null);
+		index.add(180000, "Erotic Massage Stories 4", "Erotic Massage Stories", "Pure Passion");
+		index.add(66568, "Something: Completely Different", null, null);
+
+		// the sequel is not indexed yet, so the similar part 4 must not answer the search
+		assertThat(index.find("Erotic Massage Stories 5").isEmpty()).isFalse();
+		assertThat(index.findExact("Erotic Massage Stories 5").isEmpty()).isTrue();
+		assertThat(index.findExact("erotic massage stories 4").get(0).aebnId).isEqualTo(180000);
+		assertThat(index.findExact("Something - completely different!").get(0).aebnId).isEqualTo(66568);
+		assertThat(index.findExact("Something Completely").isEmpty()).isTrue();
+		assertThat(index.findExact("  ").isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testMergeKeepsKnownValues() {
+		TitleIndex index = new TitleIndex(null);
+		index.add(183071, "Erotic Massage Stories 5", "Erotic Massage Stories", "Pure Passion");
+		index.add(183071, "Erotic Massage Stories 5", null, null);
+
+		TitleIndex.Entry entry = index.get(183071);
+		assertThat(entry.series).isEqualTo("Erotic Massage Stories");
+		assertThat(entry.studio).isEqualTo("Pure Passion");
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testSegmentIsWrittenAndReopened() throws Exception {
+		File directory = Files.createTempDirectory("aebn-index").toFile();
+		TitleIndex index = new TitleIndex(directory);
+		List<TitleIndex.Entry> entries = new ArrayList<TitleIndex.Entry>();
+		for (int i = 1; i <= 1500; i++) {
+			entries.add(new TitleIndex.Entry(i, "Movie Number " + i, "Series " + (i % 7), "Studio"));
+		}
+		// enough entries for a segment, the last one is only logged
+		index.addAll(entries);
+		index.add(183071, "Erotic Massage Stories 5", "Erotic Massage Stories", "Pure Passion");
+		index.close();
+		assertThat(new File(directory, "titles.1.idx").isFile()).isTrue();
+
+		TitleIndex reopened = new TitleIndex(directory);
+		assertThat(reopened.size()).isEqualTo(1501);
+		assertThat(reopened.get(1234).title).isEqualTo("Movie Number 1234");
+		assertThat(reopened.get(1234).series).isEqualTo("Series 2");
+		assertThat(reopened.get(183071).studio).isEqualTo("Pure Passion");
+		assertThat(reopened.get(999999)).isNull();
+		assertThat(reopened.find("movie number 1234").get(0).aebnId).isEqualTo(1234);
+		assertThat(reopened.find("erotic massage").get(0).aebnId).isEqualTo(183071);
+		reopened.close();
+	}
+}